@@ -0,0 +1,46 @@
+package com.Benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point for the benchmark suite.
+ * <p>
+ * Runs every benchmark in this package, or those selected on the command line, in both
+ * throughput and average-time modes with the GC profiler attached, so each result also
+ * reports the allocation rate and bytes allocated per operation. Standard JMH options are
+ * accepted, for example {@code -p size=1000,100000 -p distribution=ZIPF CardCollection}.
+ * <p>
+ * The benchmarks are compiled with the JMH annotation processor on the processor path,
+ * alongside the application sources:
+ * <pre>
+ * javac -cp jmh-core.jar -processorpath jmh-generator-annprocess.jar:jmh-core.jar \
+ *       -d out/bench $(find src bench/src -name '*.java')
+ * java -cp out/bench:jmh-core.jar:jopt-simple.jar:commons-math3.jar com.Benchmark.BenchmarkMain
+ * </pre>
+ * The largest pool sizes need the 8 GB heap the benchmarks fork with.
+ */
+public class BenchmarkMain {
+    /**
+     * Runs the benchmark suite.
+     *
+     * @param args JMH command-line options; with no benchmark pattern, the whole suite runs
+     * @throws CommandLineOptionException if the options cannot be parsed
+     * @throws RunnerException            if a benchmark fails
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class);
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(BenchmarkMain.class.getPackageName() + "\\..*Benchmark\\.");
+        }
+        new Runner(options.build()).run();
+    }
+}
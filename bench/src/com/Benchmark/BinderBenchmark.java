@@ -0,0 +1,105 @@
+package com.Benchmark;
+
+import com.TradingCard.Binder;
+import com.TradingCard.Card;
+import com.TradingCard.Enums.Rarity;
+import com.TradingCard.Enums.Variation;
+import com.TradingCard.LuxuryBinder;
+import com.TradingCard.PauperBinder;
+import com.TradingCard.RaresBinder;
+import com.TradingCard.Sellable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+
+/**
+ * Benchmarks for adding cards to, valuing, and selling each sellable binder type.
+ * <p>
+ * Binders hold at most 20 cards, so the pool size only decides how many distinct cards the
+ * binder's contents are drawn from. Between operations the binder holds half its capacity.
+ */
+@State(Scope.Thread)
+public class BinderBenchmark extends CardPool {
+    /**
+     * Maximum number of cards in a binder.
+     */
+    private static final int CAPACITY = 20;
+
+    /**
+     * The binder type under test; only sellable binders have a value and can be sold.
+     */
+    @Param({"PAUPER", "RARES", "LUXURY"})
+    public String binderType;
+
+    /**
+     * One card per pool name, eligible for the binder type.
+     */
+    private Card[] cards;
+
+    /**
+     * The binder under test.
+     */
+    private Binder binder;
+
+    /**
+     * Creates the cards and a half-full binder.
+     */
+    @Setup
+    public void setUp() {
+        generate();
+        Rarity rarity = binderType.equals("PAUPER") ? Rarity.COMMON : Rarity.RARE;
+        Variation variation = binderType.equals("LUXURY") ? Variation.FULL_ART : Variation.NORMAL;
+        cards = new Card[size];
+        for (int i = 0; i < size; i++) {
+            cards[i] = newCard(i, rarity, variation, 1);
+        }
+        binder = switch (binderType) {
+            case "PAUPER" -> new PauperBinder("bench");
+            case "RARES" -> new RaresBinder("bench");
+            case "LUXURY" -> new LuxuryBinder("bench");
+            default -> throw new IllegalArgumentException("unknown binder type: " + binderType);
+        };
+        for (int i = 0; i < CAPACITY / 2; i++) {
+            binder.addCard(cards[nextQuery()]);
+        }
+    }
+
+    /**
+     * Adds a card and removes it again, leaving the binder as it was.
+     *
+     * @return the removed card
+     */
+    @Benchmark
+    public Card addCard() {
+        Card card = cards[nextQuery()];
+        binder.addCard(card);
+        return binder.removeCardByName(card.getName());
+    }
+
+    /**
+     * Computes the binder's value.
+     *
+     * @return the value
+     */
+    @Benchmark
+    public BigDecimal getValue() {
+        return ((Sellable) binder).getValue();
+    }
+
+    /**
+     * Fills the binder to capacity and sells it, leaving it empty.
+     *
+     * @return the sale price
+     */
+    @Benchmark
+    public BigDecimal fillAndSell() {
+        for (int i = 0; i < CAPACITY; i++) {
+            binder.addCard(cards[nextQuery()]);
+        }
+        return ((Sellable) binder).sell();
+    }
+}
@@ -0,0 +1,56 @@
+package com.Benchmark;
+
+import com.TradingCard.Card;
+import com.TradingCard.Enums.Rarity;
+import com.TradingCard.Enums.Variation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+
+/**
+ * Benchmarks for reading the value of cards spread over the heap, one card per pool name.
+ * Variations cycle through all four multipliers.
+ */
+@State(Scope.Thread)
+public class CardBenchmark extends CardPool {
+    /**
+     * One card per pool name.
+     */
+    private Card[] cards;
+
+    /**
+     * Creates the cards.
+     */
+    @Setup
+    public void setUp() {
+        generate();
+        Variation[] variations = Variation.values();
+        cards = new Card[size];
+        for (int i = 0; i < size; i++) {
+            cards[i] = newCard(i, Rarity.RARE, variations[i % variations.length], 1);
+        }
+    }
+
+    /**
+     * Reads a card's adjusted value.
+     *
+     * @return the value
+     */
+    @Benchmark
+    public BigDecimal getValue() {
+        return cards[nextQuery()].getValue();
+    }
+
+    /**
+     * Reads a card's adjusted value in cents.
+     *
+     * @return the value in cents
+     */
+    @Benchmark
+    public long getValueCents() {
+        return cards[nextQuery()].getValueCents();
+    }
+}
@@ -0,0 +1,184 @@
+package com.Benchmark;
+
+import com.TradingCard.Card;
+import com.TradingCard.CardCollection;
+import com.TradingCard.Enums.Rarity;
+import com.TradingCard.Enums.Variation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for adding, finding, and selling cards in a {@link CardCollection} holding
+ * every card of the pool, spread evenly over every rarity and variation.
+ */
+@State(Scope.Thread)
+public class CardCollectionBenchmark extends CardPool {
+    /**
+     * All rarities, in ordinal order.
+     */
+    private static final Rarity[] RARITIES = Rarity.values();
+
+    /**
+     * All variations, in ordinal order.
+     */
+    private static final Variation[] VARIATIONS = Variation.values();
+
+    /**
+     * Collection holding one card per pool name.
+     */
+    private CardCollection collection;
+
+    /**
+     * Fills the collection with every pool name.
+     */
+    @Setup
+    public void setUp() {
+        generate();
+        collection = new CardCollection();
+        for (int i = 0; i < size; i++) {
+            collection.addCard(newCard(i, RARITIES[i & 3], VARIATIONS[(i >> 2) & 3], INITIAL_COUNT));
+        }
+    }
+
+    /**
+     * Lists the cards of one rarity, a quarter of the collection.
+     *
+     * @return the matching cards
+     */
+    @Benchmark
+    public List<Card> findCardsByRarity() {
+        return collection.findCards(Rarity.LEGENDARY, null);
+    }
+
+    /**
+     * Sums the copies of the cards of one rarity and variation, a sixteenth of the collection.
+     *
+     * @return the number of copies
+     */
+    @Benchmark
+    public long countCopiesByKind() {
+        return collection.countCopies(Rarity.LEGENDARY, Variation.ALT_ART);
+    }
+
+    /**
+     * Completes the first half of a card name to at most ten names, as the CLI prompt does.
+     *
+     * @return the completing cards
+     */
+    @Benchmark
+    public List<Card> findByPrefix() {
+        String name = names[nextQuery()];
+        return collection.findByPrefix(name.substring(0, name.length() / 2), 10);
+    }
+
+    /**
+     * Finds the names within two edits of a card name with its middle letter mistyped.
+     *
+     * @return the closest cards
+     */
+    @Benchmark
+    public List<Card> findSimilar() {
+        char[] typo = names[nextQuery()].toCharArray();
+        typo[typo.length / 2] = typo[typo.length / 2] == 'x' ? 'y' : 'x';
+        return collection.findSimilar(new String(typo), 2, 10);
+    }
+
+    /**
+     * Lists the hundred most valuable cards through the value index.
+     *
+     * @return the cards
+     */
+    @Benchmark
+    public List<Card> findMostValuable() {
+        return collection.findMostValuable(100);
+    }
+
+    /**
+     * Lists the hundred most valuable cards by sorting a copy of the collection by value,
+     * as callers did before the value index, for comparison with {@link #findMostValuable()}.
+     *
+     * @return the cards
+     */
+    @Benchmark
+    public List<Card> sortMostValuable() {
+        List<Card> sorted = collection.getSortedCopy();
+        sorted.sort(Comparator.comparing(Card::getValue).reversed());
+        return sorted.subList(0, Math.min(100, sorted.size()));
+    }
+
+    /**
+     * Lists the cards worth between $50 and $55, about one in twenty.
+     *
+     * @return the cards
+     */
+    @Benchmark
+    public List<Card> findCardsByValue() {
+        return collection.findCardsByValue(5_000, 5_500);
+    }
+
+    /**
+     * Looks up a card by name.
+     *
+     * @return the card found
+     */
+    @Benchmark
+    public Card findByCardName() {
+        return collection.findByCardName(names[nextQuery()]);
+    }
+
+    /**
+     * Looks up the same cards as {@link #findByCardName()} by id; the setup adds the pool in
+     * order, so each pool index is also the card's id.
+     *
+     * @return the card found
+     */
+    @Benchmark
+    public Card findById() {
+        return collection.findById(nextQuery());
+    }
+
+    /**
+     * Adds a freshly created copy of an existing card, as the CLI does, which merges it
+     * into the existing card's count.
+     */
+    @Benchmark
+    public void addCardExisting() {
+        collection.addCard(new Card(names[nextQuery()], Rarity.RARE, Variation.FULL_ART, BigDecimal.ONE));
+    }
+
+    /**
+     * Sells one copy of a card.
+     *
+     * @return the sale price
+     */
+    @Benchmark
+    public BigDecimal sellCardByName() {
+        return collection.sellCardByName(names[nextQuery()]);
+    }
+
+    /**
+     * Builds a collection of the whole pool from scratch, in pool order, one card at a time.
+     *
+     * @return the filled collection
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public CardCollection fill() {
+        CardCollection filled = new CardCollection();
+        for (int i = 0; i < size; i++) {
+            filled.addCard(newCard(i, Rarity.RARE, Variation.FULL_ART, 1));
+        }
+        return filled;
+    }
+}
@@ -0,0 +1,128 @@
+package com.Benchmark;
+
+import com.TradingCard.Card;
+import com.TradingCard.CardCollection;
+import com.TradingCard.CardColumns;
+import com.TradingCard.Enums.Rarity;
+import com.TradingCard.Enums.Variation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+
+/**
+ * Benchmarks comparing aggregations over the live {@link CardColumns} of a collection with the
+ * same aggregations over the {@code ArrayList<Card>} returned by {@link CardCollection#getSortedCopy()}.
+ * Both paths sum fixed-point cents, so the difference is the memory layout alone.
+ * <p>
+ * Cards are spread over every rarity and variation, with one to four copies each.
+ */
+@State(Scope.Thread)
+public class CardColumnsBenchmark extends CardPool {
+    /**
+     * All rarities, in ordinal order.
+     */
+    private static final Rarity[] RARITIES = Rarity.values();
+
+    /**
+     * All variations, in ordinal order.
+     */
+    private static final Variation[] VARIATIONS = Variation.values();
+
+    /**
+     * Collection holding one card per pool name.
+     */
+    private CardCollection collection;
+
+    /**
+     * The collection's cards as objects.
+     */
+    private ArrayList<Card> cards;
+
+    /**
+     * The collection's cards as columns.
+     */
+    private CardColumns columns;
+
+    /**
+     * Fills the collection and takes both views of it.
+     */
+    @Setup
+    public void setUp() {
+        generate();
+        collection = new CardCollection(true);
+        for (int i = 0; i < size; i++) {
+            collection.addCard(newCard(i, RARITIES[i & 3], VARIATIONS[(i >> 2) & 3], 1 + (i & 3)));
+        }
+        cards = collection.getSortedCopy();
+        columns = collection.getColumns();
+    }
+
+    /**
+     * @return the total value of the collection, summed over the columns
+     */
+    @Benchmark
+    public long totalValueColumns() {
+        return columns.totalValueCents();
+    }
+
+    /**
+     * @return the total value of the collection, summed over the card objects
+     */
+    @Benchmark
+    public long totalValueObjects() {
+        long total = 0;
+        for (Card card : cards) {
+            total += card.getValueCents() * card.getCount();
+        }
+        return total;
+    }
+
+    /**
+     * @return the value of each rarity, summed over the columns
+     */
+    @Benchmark
+    public long[] valueByRarityColumns() {
+        return columns.valueCentsByRarity();
+    }
+
+    /**
+     * @return the value of each rarity, summed over the card objects
+     */
+    @Benchmark
+    public long[] valueByRarityObjects() {
+        long[] totals = new long[RARITIES.length];
+        for (Card card : cards) {
+            if (card.getRarity() != null) {
+                totals[card.getRarity().ordinal()] += card.getValueCents() * card.getCount();
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * @return the value of the rare full-art cards worth $10 to $50, summed over the columns
+     */
+    @Benchmark
+    public long filteredSumColumns() {
+        return columns.sumValueCents(Rarity.RARE, Variation.FULL_ART, 1_000, 5_000);
+    }
+
+    /**
+     * @return the value of the rare full-art cards worth $10 to $50, summed over the card objects
+     */
+    @Benchmark
+    public long filteredSumObjects() {
+        long total = 0;
+        for (Card card : cards) {
+            long cents = card.getValueCents();
+            if (card.getRarity() == Rarity.RARE && card.getVariation() == Variation.FULL_ART
+                    && cents >= 1_000 && cents <= 5_000) {
+                total += cents * card.getCount();
+            }
+        }
+        return total;
+    }
+}
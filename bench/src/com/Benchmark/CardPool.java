@@ -0,0 +1,173 @@
+package com.Benchmark;
+
+import com.TradingCard.Card;
+import com.TradingCard.Enums.Rarity;
+import com.TradingCard.Enums.Variation;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared state for all benchmarks: a pool of distinct card names and a fixed sequence of
+ * name lookups drawn from it.
+ * <p>
+ * The pool size ranges from one thousand to ten million names. The distribution decides both
+ * the shape of the names and the order they are looked up in:
+ * <ul>
+ *     <li>{@code SEQUENTIAL}: names share a long prefix ({@code card-00000042}) and are
+ *     looked up in ascending order, the friendliest case for caches and branch prediction.</li>
+ *     <li>{@code UNIFORM}: names are random letters of varying length, looked up uniformly
+ *     at random.</li>
+ *     <li>{@code ZIPF}: the same random names, looked up with a Zipf-like skew so that a few
+ *     hot cards receive most of the traffic.</li>
+ * </ul>
+ * Names and lookups are generated from a fixed seed, so every run sees the same data.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public abstract class CardPool {
+    /**
+     * Number of precomputed lookups; a power of two so the cursor can wrap with a mask.
+     */
+    protected static final int QUERY_COUNT = 1 << 16;
+
+    /**
+     * Copy count given to collection cards, high enough that selling and moving cards
+     * never runs a card out during a trial.
+     */
+    protected static final int INITIAL_COUNT = 1 << 30;
+
+    /**
+     * Seed for name and lookup generation.
+     */
+    private static final long SEED = 0x5EEDCA4DL;
+
+    /**
+     * Number of distinct card names in the pool.
+     */
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    /**
+     * Shape of the names and order of the lookups.
+     */
+    @Param({"SEQUENTIAL", "UNIFORM", "ZIPF"})
+    public String distribution;
+
+    /**
+     * The distinct card names, all already normalized (trimmed and lower-case).
+     */
+    protected String[] names;
+
+    /**
+     * Indexes into {@link #names}, in the order they are looked up.
+     */
+    protected int[] queries;
+
+    /**
+     * Position of the next lookup in {@link #queries}.
+     */
+    private int cursor;
+
+    /**
+     * Generates the names and lookups for the current parameters.
+     * Subclasses call this first from their own setup.
+     *
+     * @throws IllegalArgumentException if the distribution is unknown
+     */
+    protected void generate() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        names = new String[size];
+        queries = new int[QUERY_COUNT];
+        cursor = 0;
+        switch (distribution) {
+            case "SEQUENTIAL" -> {
+                for (int i = 0; i < size; i++) {
+                    names[i] = sequentialName(i);
+                }
+                for (int i = 0; i < QUERY_COUNT; i++) {
+                    queries[i] = i % size;
+                }
+            }
+            case "UNIFORM", "ZIPF" -> {
+                char[] letters = new char[32];
+                for (int i = 0; i < size; i++) {
+                    int length = random.nextInt(6, 24);
+                    for (int j = 0; j < length; j++) {
+                        letters[j] = (char) ('a' + random.nextInt(26));
+                    }
+                    // the base-36 suffix keeps names distinct
+                    names[i] = new String(letters, 0, length) + ' ' + Integer.toString(i, 36);
+                }
+                boolean zipf = distribution.equals("ZIPF");
+                for (int i = 0; i < QUERY_COUNT; i++) {
+                    queries[i] = zipf ? zipfIndex(random) : random.nextInt(size);
+                }
+            }
+            default -> throw new IllegalArgumentException("unknown distribution: " + distribution);
+        }
+    }
+
+    /**
+     * @return the index of the next name to look up, cycling through the precomputed lookups
+     */
+    protected int nextQuery() {
+        int query = queries[cursor];
+        cursor = (cursor + 1) & (QUERY_COUNT - 1);
+        return query;
+    }
+
+    /**
+     * Creates a card for a pool name with a value derived from its index.
+     *
+     * @param index     the name's index in {@link #names}
+     * @param rarity    the card's rarity
+     * @param variation the card's variation
+     * @param count     the card's initial count
+     * @return a new card
+     */
+    protected Card newCard(int index, Rarity rarity, Variation variation, int count) {
+        return new Card(names[index], rarity, variation, BigDecimal.valueOf(index % 10_000, 2), count);
+    }
+
+    /**
+     * Builds a zero-padded sequential name without going through {@link String#format}.
+     *
+     * @param index the name's index
+     * @return the name
+     */
+    private static String sequentialName(int index) {
+        char[] chars = "card-00000000".toCharArray();
+        for (int i = chars.length - 1; index > 0; i--) {
+            chars[i] = (char) ('0' + index % 10);
+            index /= 10;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Draws an index whose rank is roughly Zipf-distributed with exponent one, by sampling
+     * the rank log-uniformly, then scatters ranks across the pool so hot names are not adjacent.
+     *
+     * @param random the random source
+     * @return an index into {@link #names}
+     */
+    private int zipfIndex(SplittableRandom random) {
+        long rank = (long) Math.pow(size, random.nextDouble()) - 1;
+        return (int) (rank * 0x9E3779B1L % size);
+    }
+}
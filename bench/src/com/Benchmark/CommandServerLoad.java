@@ -0,0 +1,140 @@
+package com.Benchmark;
+
+import com.System.CommandServer;
+import com.System.EnhancedTCIS;
+import com.TradingCard.Card;
+import com.TradingCard.Enums.Rarity;
+import com.TradingCard.Enums.Variation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load generator for {@link CommandServer}, measuring throughput and round-trip latency
+ * under many concurrent connections. It is not a JMH benchmark, since JMH cannot drive
+ * thousands of blocking clients; run it directly:
+ * <pre>
+ * java -cp out/bench com.Benchmark.CommandServerLoad [connections] [batches] [pipeline depth]
+ * </pre>
+ * Each connection runs on a virtual thread and sends its requests in pipelined batches,
+ * timing each batch from the first write to the last response. The server runs in the same
+ * process against a collection of ten thousand cards.
+ */
+public class CommandServerLoad {
+    /**
+     * Number of distinct cards in the served collection.
+     */
+    private static final int CARD_COUNT = 10_000;
+
+    /**
+     * Runs the load and prints throughput and latency percentiles.
+     *
+     * @param args optional connection count, batches per connection, and requests per batch
+     * @throws IOException          if the server cannot be started
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int batches = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+
+        EnhancedTCIS system = new EnhancedTCIS();
+        for (int i = 0; i < CARD_COUNT; i++) {
+            system.addCopiesToCollection(new Card("card " + i, Rarity.RARE, Variation.FULL_ART,
+                    BigDecimal.valueOf(i % 10_000, 2), 1 << 30));
+        }
+        try (CommandServer server = new CommandServer(system, 0)) {
+            Thread.ofPlatform().daemon().start(() -> {
+                try {
+                    server.serve();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            long[][] latencies = new long[connections][];
+            List<Thread> clients = new ArrayList<>(connections);
+            long start = System.nanoTime();
+            for (int c = 0; c < connections; c++) {
+                int client = c;
+                clients.add(Thread.ofVirtual().start(() ->
+                        latencies[client] = runClient(server.getPort(), batches, depth)));
+            }
+            for (Thread client : clients) {
+                client.join();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+            long requests = (long) connections * batches * depth;
+            System.out.printf("connections=%d batches=%d depth=%d%n", connections, batches, depth);
+            System.out.printf("throughput: %.0f requests/s%n", requests / seconds);
+            System.out.printf("batch latency: p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus%n",
+                    percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999),
+                    all[all.length - 1] / 1e3);
+        }
+    }
+
+    /**
+     * Sends pipelined batches of lookups and card moves over one connection.
+     *
+     * @param port    the server port
+     * @param batches the number of batches to send
+     * @param depth   the number of requests per batch
+     * @return the round-trip time of each batch, in nanoseconds
+     */
+    private static long[] runClient(int port, int batches, int depth) {
+        long[] times = new long[batches];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            OutputStream out = socket.getOutputStream();
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            StringBuilder batch = new StringBuilder();
+            for (int b = 0; b < batches; b++) {
+                batch.setLength(0);
+                for (int r = 0; r < depth; r++) {
+                    String name = "card " + random.nextInt(CARD_COUNT);
+                    batch.append(r % 4 == 0 ? "INCREMENT_CARD\t" : "CARD_VALUE\t").append(name).append('\n');
+                }
+                long sent = System.nanoTime();
+                out.write(batch.toString().getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                for (int r = 0; r < depth; r++) {
+                    String response = in.readLine();
+                    if (response == null || !response.startsWith("OK")) {
+                        throw new IllegalStateException("unexpected response: " + response);
+                    }
+                }
+                times[b] = System.nanoTime() - sent;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return times;
+    }
+
+    /**
+     * Picks a percentile from sorted nanosecond timings.
+     *
+     * @param sorted   the timings, in ascending order
+     * @param fraction the percentile, between 0 and 1
+     * @return the timing at that percentile, in microseconds
+     */
+    private static double percentile(long[] sorted, double fraction) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e3;
+    }
+}
@@ -0,0 +1,120 @@
+package com.Benchmark;
+
+import com.System.EnhancedTCIS;
+import com.TradingCard.Enums.BinderType;
+import com.TradingCard.Enums.Rarity;
+import com.TradingCard.Enums.Variation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmarks for one {@link EnhancedTCIS} shared by every benchmark thread, to show how
+ * throughput scales with the number of threads. Runs on all cores by default; pass
+ * {@code -t 1}, {@code -t 2}, ... to compare thread counts.
+ * <p>
+ * Each thread moves cards between the shared collection and a binder of its own, so that
+ * threads only meet on the collection stripes of the names they touch.
+ * No journal is attached.
+ */
+@State(Scope.Benchmark)
+@Threads(Threads.MAX)
+public class ConcurrentInventoryBenchmark extends CardPool {
+    /**
+     * The system shared by all threads.
+     */
+    private EnhancedTCIS system;
+
+    /**
+     * Fills the collection with every pool name.
+     */
+    @Setup
+    public void setUp() {
+        generate();
+        system = new EnhancedTCIS();
+        for (int i = 0; i < size; i++) {
+            system.addCopiesToCollection(newCard(i, Rarity.RARE, Variation.FULL_ART, INITIAL_COUNT));
+        }
+    }
+
+    /**
+     * Each thread's own binder and position in the shared lookups, so threads do not
+     * contend on a cursor.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        /**
+         * Source of thread numbers, used for binder names and starting positions.
+         */
+        private static final AtomicInteger NEXT_THREAD = new AtomicInteger();
+
+        /**
+         * Name of the thread's binder.
+         */
+        private String binder;
+
+        /**
+         * Position of the next lookup.
+         */
+        private int position;
+
+        /**
+         * Creates the thread's binder and starts it at its own offset into the lookups.
+         *
+         * @param benchmark the shared benchmark state
+         */
+        @Setup
+        public void setUp(ConcurrentInventoryBenchmark benchmark) {
+            int thread = NEXT_THREAD.getAndIncrement();
+            binder = "bench-" + thread;
+            benchmark.system.createBinder(binder, BinderType.NON_CURATED);
+            position = thread * (QUERY_COUNT / 16) & (QUERY_COUNT - 1);
+        }
+
+        /**
+         * @return the position of the next lookup, cycling through the precomputed lookups
+         */
+        int next() {
+            int current = position;
+            position = (position + 1) & (QUERY_COUNT - 1);
+            return current;
+        }
+    }
+
+    /**
+     * Moves a card from the collection into the thread's binder and back again.
+     *
+     * @param cursor the thread's binder and lookup position
+     */
+    @Benchmark
+    public void addCardToBinder(Cursor cursor) {
+        String name = names[queries[cursor.next()]];
+        system.addCardToBinder(cursor.binder, name);
+        system.removeCardFromBinder(cursor.binder, name);
+    }
+
+    /**
+     * Sells one copy of a card from the collection.
+     *
+     * @param cursor the thread's binder and lookup position
+     */
+    @Benchmark
+    public void sellCard(Cursor cursor) {
+        system.sellCard(names[queries[cursor.next()]]);
+    }
+
+    /**
+     * Looks a card up in the collection, which takes no lock.
+     *
+     * @param cursor the thread's binder and lookup position
+     * @return the card's value
+     */
+    @Benchmark
+    public Object getCardValue(Cursor cursor) {
+        return system.getCardValue(names[queries[cursor.next()]]);
+    }
+}
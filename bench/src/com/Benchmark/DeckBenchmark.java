@@ -0,0 +1,93 @@
+package com.Benchmark;
+
+import com.TradingCard.Card;
+import com.TradingCard.Enums.Rarity;
+import com.TradingCard.Enums.Variation;
+import com.TradingCard.SellableDeck;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+
+/**
+ * Benchmarks for adding cards to, valuing, and selling a {@link SellableDeck}.
+ * <p>
+ * Decks hold at most 10 distinct cards, so the pool size only decides how many distinct
+ * cards the deck's contents are drawn from. Between operations the deck holds about half
+ * its capacity.
+ */
+@State(Scope.Thread)
+public class DeckBenchmark extends CardPool {
+    /**
+     * Maximum number of cards in a deck.
+     */
+    private static final int CAPACITY = 10;
+
+    /**
+     * One card per pool name.
+     */
+    private Card[] cards;
+
+    /**
+     * The deck under test.
+     */
+    private SellableDeck deck;
+
+    /**
+     * Creates the cards and a half-full deck.
+     */
+    @Setup
+    public void setUp() {
+        generate();
+        cards = new Card[size];
+        for (int i = 0; i < size; i++) {
+            cards[i] = newCard(i, Rarity.RARE, Variation.NORMAL, 1);
+        }
+        deck = new SellableDeck("bench");
+        for (int i = 0; i < CAPACITY / 2; i++) {
+            deck.addCard(cards[nextQuery()]);
+        }
+    }
+
+    /**
+     * Adds a card and, if it was not already in the deck, removes it again,
+     * leaving the deck as it was.
+     *
+     * @return whether the card was added
+     */
+    @Benchmark
+    public boolean addCard() {
+        Card card = cards[nextQuery()];
+        boolean added = deck.addCard(card);
+        if (added) {
+            deck.removeCardByName(card.getName());
+        }
+        return added;
+    }
+
+    /**
+     * Computes the deck's value.
+     *
+     * @return the value
+     */
+    @Benchmark
+    public BigDecimal getValue() {
+        return deck.getValue();
+    }
+
+    /**
+     * Offers the deck as many cards as it can hold, skipping duplicates, and sells it,
+     * leaving it empty.
+     *
+     * @return the sale price
+     */
+    @Benchmark
+    public BigDecimal fillAndSell() {
+        for (int i = 0; i < CAPACITY; i++) {
+            deck.addCard(cards[nextQuery()]);
+        }
+        return deck.sell();
+    }
+}
@@ -0,0 +1,140 @@
+package com.Benchmark;
+
+import com.System.CardBatch;
+import com.System.InventorySystem;
+import com.TradingCard.Card;
+import com.TradingCard.Enums.BinderType;
+import com.TradingCard.Enums.Rarity;
+import com.TradingCard.Enums.Variation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for moving cards between the collection and a binder through an
+ * {@link InventorySystem} whose collection holds every card of the pool.
+ * No journal is attached.
+ */
+@State(Scope.Thread)
+public class InventorySystemBenchmark extends CardPool {
+    /**
+     * Name of the binder cards are moved into and traded from.
+     */
+    private static final String BINDER = "bench";
+
+    /**
+     * Name of the binder that is filled to capacity and emptied again.
+     */
+    private static final String FILL_BINDER = "fill";
+
+    /**
+     * Number of cards a binder holds when full.
+     */
+    private static final int CAPACITY = 20;
+
+    /**
+     * The system under test.
+     */
+    private InventorySystem system;
+
+    /**
+     * Incoming cards for trades, one per precomputed lookup, so that trades do not
+     * allocate the incoming card.
+     */
+    private Card[] incoming;
+
+    /**
+     * Name of the card currently held by the binder for trading.
+     */
+    private String held;
+
+    /**
+     * Position of the next card in {@link #incoming}.
+     */
+    private int tradeCursor;
+
+    /**
+     * Reusable batch for filling and emptying a binder.
+     */
+    private final CardBatch batch = new CardBatch();
+
+    /**
+     * Fills the collection with every pool name and places one card in a non-curated binder.
+     */
+    @Setup
+    public void setUp() {
+        generate();
+        system = new InventorySystem();
+        for (int i = 0; i < size; i++) {
+            system.addCopiesToCollection(newCard(i, Rarity.RARE, Variation.FULL_ART, INITIAL_COUNT));
+        }
+        incoming = new Card[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            incoming[i] = newCard(queries[i], Rarity.RARE, Variation.FULL_ART, 1);
+        }
+        system.createBinder(BINDER, BinderType.NON_CURATED);
+        held = names[0];
+        system.addCardToBinder(BINDER, held);
+        system.createBinder(FILL_BINDER, BinderType.NON_CURATED);
+    }
+
+    /**
+     * Moves a card from the collection into the binder and back again.
+     */
+    @Benchmark
+    public void addCardToBinder() {
+        String name = names[nextQuery()];
+        system.addCardToBinder(BINDER, name);
+        system.removeCardFromBinder(BINDER, name);
+    }
+
+    /**
+     * Trades the binder's card for another card from the pool, skipping the value check.
+     *
+     * @return whether the trade completed
+     */
+    @Benchmark
+    public boolean tradeCard() {
+        Card card = incoming[tradeCursor];
+        tradeCursor = (tradeCursor + 1) & (QUERY_COUNT - 1);
+        boolean traded = system.tradeCard(BINDER, held, card, true);
+        held = card.getName();
+        return traded;
+    }
+
+    /**
+     * Fills a binder to capacity and empties it again, one call per card.
+     */
+    @Benchmark
+    @OperationsPerInvocation(2 * CAPACITY)
+    public void fillBinderSingleCalls() {
+        int first = nextQuery();
+        for (int i = 0; i < CAPACITY; i++) {
+            system.addCardToBinder(FILL_BINDER, names[(first + i) % size]);
+        }
+        for (int i = 0; i < CAPACITY; i++) {
+            system.removeCardFromBinder(FILL_BINDER, names[(first + i) % size]);
+        }
+    }
+
+    /**
+     * Fills a binder to capacity and empties it again as one batch.
+     *
+     * @return the outcome of the batch
+     */
+    @Benchmark
+    @OperationsPerInvocation(2 * CAPACITY)
+    public CardBatch.Result fillBinderBatch() {
+        int first = nextQuery();
+        batch.clear();
+        for (int i = 0; i < CAPACITY; i++) {
+            batch.addCardToBinder(FILL_BINDER, names[(first + i) % size]);
+        }
+        for (int i = 0; i < CAPACITY; i++) {
+            batch.removeCardFromBinder(FILL_BINDER, names[(first + i) % size]);
+        }
+        return system.applyBatch(batch);
+    }
+}
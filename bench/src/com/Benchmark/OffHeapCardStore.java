@@ -0,0 +1,970 @@
+package com.Benchmark;
+
+import com.TradingCard.Card;
+import com.TradingCard.CardCollection;
+import com.TradingCard.Enums.Rarity;
+import com.TradingCard.Enums.Variation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Card store that keeps its cards outside the Java heap, for inventories of many millions of
+ * cards where one {@link Card} object per card, with its own strings and {@link BigDecimal}s,
+ * would keep the garbage collector busy.
+ * <p>
+ * Three native memory regions hold all the data, so the heap footprint stays constant no matter
+ * how many cards are stored:
+ * <ul>
+ *     <li>the <b>records</b>, one fixed-width record of {@value #RECORD_SIZE} bytes per card,
+ *     at the position given by the card's id: value in cents, base value as an unscaled long
+ *     and its scale, count, rarity, variation, and where its name lives in the pool;</li>
+ *     <li>the <b>string pool</b>, holding each card's name followed by its normalized name, both
+ *     in UTF-8;</li>
+ *     <li>the <b>index</b>, an open-addressing hash table with linear probing from the normalized
+ *     name to the record, whose slots pack the name's hash with the record id so that most
+ *     mismatches are rejected without reading the pool.</li>
+ * </ul>
+ * Regions double when full. The API follows {@link CardCollection} for the operations the bulk
+ * of an inventory needs. Cards handed out are detached copies, built from a record on each call
+ * with their own name and values, and counts only change through the store's own methods.
+ * Callers that only need a count, a value, or a total should use {@link #getCount(String)},
+ * {@link #getCardValue(String)}, or {@link #getTotalValueCents()}, which read the records in
+ * place instead.
+ * <p>
+ * The store is a prototype kept with the benchmarks, which {@link OffHeapCardStoreBenchmark}
+ * measures against a {@link CardCollection}; it is not a backend of one. The inventory relies
+ * on its collection's cards being live objects, whose counts binders, decks, and indexes
+ * change and watch in place, and whose definitions copies share, and a detached copy built
+ * per lookup can be neither.
+ * <p>
+ * The store is safe for concurrent use: lookups take a shared lock and changes an exclusive one.
+ * Regions are freed by {@link #close()}, after which the store must not be used.
+ * <p>
+ * A store {@link #open(Path, int) opened on a directory} maps each region to a file there
+ * instead of allocating it, and so persists across restarts: counts are updated in place in the
+ * mapped records, and reopening the store costs three {@code mmap} calls rather than a load.
+ * Catalogs larger than the heap, or than physical memory, are paged in by the operating system
+ * as they are touched. A header at the start of the records file holds the sizes of the regions,
+ * whether the store was closed cleanly, and how many cards the last flush made durable. Changes
+ * reach the files when the operating system writes the pages back, and are durable once
+ * {@link #flush()} or {@link #close()} returns; nothing is synced in between, so adding a card
+ * costs no more than in native memory. The operating system may write the pages back in any
+ * order, so after a system crash the header can count a card whose name or record never reached
+ * the disk. A store that was not closed cleanly therefore checks every card added since the
+ * last flush when it is reopened, and drops the cards from the first one whose record does not
+ * hold a well-formed name and value; the index is then rebuilt from the records. Cards added and
+ * counts changed since the last {@link #flush()} may be lost by a system crash, but the store
+ * never reopens with a card it cannot read.
+ */
+public class OffHeapCardStore implements Closeable {
+    /**
+     * Size of one card record in bytes, a multiple of eight so every record stays aligned.
+     */
+    static final int RECORD_SIZE = 48;
+
+    /**
+     * Size of the header before the first record, in bytes.
+     */
+    private static final int HEADER_SIZE = 64;
+
+    /**
+     * Header magic number of a mapped store, "TCM1", distinct from those of the journal and
+     * the snapshot so that none of the three files can be opened as another.
+     */
+    private static final int MAGIC = 0x54434D31;
+
+    /**
+     * Version of the layout written by this class.
+     */
+    private static final short VERSION = 1;
+
+    // Field offsets within the header.
+    private static final long HEADER_MAGIC = 0;
+    private static final long HEADER_VERSION = 4;
+    private static final long HEADER_CLEAN = 6;
+    private static final long HEADER_SIZE_FIELD = 8;
+    private static final long HEADER_SLOTS = 12;
+    private static final long HEADER_POOL_USED = 16;
+    private static final long HEADER_SYNCED = 24;
+
+    // Names of the files of a mapped store.
+    private static final String RECORDS_FILE = "records.bin";
+    private static final String POOL_FILE = "names.bin";
+    private static final String INDEX_FILE = "index.bin";
+
+    // Field offsets within a record.
+    private static final long VALUE_CENTS = 0;
+    private static final long BASE_UNSCALED = 8;
+    private static final long NAME_OFFSET = 16;
+    private static final long NAME_LENGTH = 24;
+    private static final long KEY_LENGTH = 28;
+    private static final long BASE_SCALE = 32;
+    private static final long COUNT = 36;
+    private static final long RARITY = 40;
+    private static final long VARIATION = 41;
+
+    /**
+     * Code stored for cards without a rarity.
+     */
+    private static final byte NO_RARITY = -1;
+
+    /**
+     * All rarities, in ordinal order.
+     */
+    private static final Rarity[] RARITIES = Rarity.values();
+
+    /**
+     * All variations, in ordinal order.
+     */
+    private static final Variation[] VARIATIONS = Variation.values();
+
+    /**
+     * Size of one index slot in bytes.
+     */
+    private static final int SLOT_SIZE = Long.BYTES;
+
+    /**
+     * Directory holding the files of a mapped store, or null if the store lives in native memory.
+     */
+    private final Path DIRECTORY;
+
+    /**
+     * Guards the regions and the sizes below.
+     */
+    private final ReentrantReadWriteLock LOCK = new ReentrantReadWriteLock();
+
+    /**
+     * Card records, by id.
+     */
+    private Region records;
+
+    /**
+     * Names and normalized names of the cards.
+     */
+    private Region pool;
+
+    /**
+     * Hash index from normalized name to record; a zero slot is empty.
+     */
+    private Region index;
+
+    /**
+     * Number of cards stored.
+     */
+    private int size;
+
+    /**
+     * Bytes of {@link #pool} in use.
+     */
+    private long poolUsed;
+
+    /**
+     * Number of slots in {@link #index}, a power of two.
+     */
+    private int slots;
+
+    /**
+     * Constructs an empty store in native memory.
+     *
+     * @param expectedCards the number of cards to make room for before the first growth; at least 1
+     */
+    public OffHeapCardStore(int expectedCards) {
+        int capacity = Math.max(1, expectedCards);
+        this.DIRECTORY = null;
+        this.slots = slotsFor(capacity);
+        this.records = Region.allocate(recordAt(capacity));
+        this.pool = Region.allocate((long) capacity * 32);
+        this.index = Region.allocate((long) slots * SLOT_SIZE);
+        writeHeader();
+    }
+
+    /**
+     * Maps the files of a store in a directory, creating them if needed.
+     *
+     * @param directory     the directory holding the files
+     * @param expectedCards the number of cards to make room for in new files; at least 1
+     * @throws IOException if the files cannot be mapped or are not a store
+     */
+    private OffHeapCardStore(Path directory, int expectedCards) throws IOException {
+        int capacity = Math.max(1, expectedCards);
+        this.DIRECTORY = directory;
+        Files.createDirectories(directory);
+        Path recordsFile = directory.resolve(RECORDS_FILE);
+        boolean created = Files.notExists(recordsFile) || Files.size(recordsFile) == 0;
+        this.records = Region.map(recordsFile, recordAt(capacity));
+        MemorySegment header = records.segment;
+        if (created) {
+            this.slots = slotsFor(capacity);
+            this.pool = Region.map(directory.resolve(POOL_FILE), (long) capacity * 32);
+            this.index = Region.map(directory.resolve(INDEX_FILE), (long) slots * SLOT_SIZE);
+            header.set(ValueLayout.JAVA_INT, HEADER_MAGIC, MAGIC);
+            header.set(ValueLayout.JAVA_SHORT, HEADER_VERSION, VERSION);
+        } else {
+            if (header.get(ValueLayout.JAVA_INT, HEADER_MAGIC) != MAGIC) {
+                records.close();
+                throw new IOException("Directory '" + directory + "' does not hold a card store.");
+            }
+            short version = header.get(ValueLayout.JAVA_SHORT, HEADER_VERSION);
+            if (version != VERSION) {
+                records.close();
+                throw new IOException("Unsupported card store version " + version + ".");
+            }
+            this.size = header.get(ValueLayout.JAVA_INT, HEADER_SIZE_FIELD);
+            this.slots = header.get(ValueLayout.JAVA_INT, HEADER_SLOTS);
+            this.poolUsed = header.get(ValueLayout.JAVA_LONG, HEADER_POOL_USED);
+            this.pool = Region.map(directory.resolve(POOL_FILE), poolUsed);
+            this.index = Region.map(directory.resolve(INDEX_FILE), (long) slots * SLOT_SIZE);
+            if (header.get(ValueLayout.JAVA_BYTE, HEADER_CLEAN) == 0) {
+                dropUnreadableCards(header.get(ValueLayout.JAVA_INT, HEADER_SYNCED));
+                rebuildIndex();
+            }
+        }
+        writeHeader();
+        header.set(ValueLayout.JAVA_BYTE, HEADER_CLEAN, (byte) 0);
+        header.asSlice(0, HEADER_SIZE).force();
+    }
+
+    /**
+     * Opens the store kept in a directory, creating an empty one if the directory holds none.
+     * The store's regions are the files in the directory, mapped into memory.
+     *
+     * @param directory     the directory holding the store's files
+     * @param expectedCards the number of cards to make room for when creating the store; at least 1
+     * @return the store
+     * @throws IOException if the files cannot be mapped or are not a store
+     */
+    public static OffHeapCardStore open(Path directory, int expectedCards) throws IOException {
+        return new OffHeapCardStore(directory, expectedCards);
+    }
+
+    /**
+     * @param capacity a number of cards
+     * @return the number of index slots that keeps that many cards at most half full, a power of two
+     */
+    private static int slotsFor(int capacity) {
+        return Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) * 2;
+    }
+
+    /**
+     * A block of native memory, or a mapped file, that can be grown keeping its contents.
+     */
+    private static final class Region {
+        /**
+         * The mapped file, or null for native memory.
+         */
+        private final FileChannel CHANNEL;
+
+        /**
+         * Arena owning {@link #segment}.
+         */
+        private Arena arena;
+
+        /**
+         * The memory; zeroed when allocated, and where a file is extended.
+         */
+        private MemorySegment segment;
+
+        /**
+         * @param channel the mapped file, or null
+         * @param arena   the arena owning the segment
+         * @param segment the memory
+         */
+        private Region(FileChannel channel, Arena arena, MemorySegment segment) {
+            this.CHANNEL = channel;
+            this.arena = arena;
+            this.segment = segment;
+        }
+
+        /**
+         * @param bytes the size
+         * @return a region of native memory
+         */
+        static Region allocate(long bytes) {
+            Arena arena = Arena.ofShared();
+            return new Region(null, arena, arena.allocate(bytes, Long.BYTES));
+        }
+
+        /**
+         * Maps a file, extending it if it is smaller than requested.
+         *
+         * @param path  the file, created if missing
+         * @param bytes the smallest size to map
+         * @return a region backed by the file
+         * @throws IOException if the file cannot be opened or mapped
+         */
+        static Region map(Path path, long bytes) throws IOException {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                Arena arena = Arena.ofShared();
+                long size = Math.max(Math.max(bytes, channel.size()), Long.BYTES);
+                return new Region(channel, arena, channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena));
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Replaces the memory with a larger block holding the same contents, and frees the old one.
+         * A mapped file is extended and mapped again.
+         *
+         * @param bytes the new size
+         */
+        void grow(long bytes) {
+            Arena larger = Arena.ofShared();
+            MemorySegment grown;
+            if (CHANNEL == null) {
+                grown = larger.allocate(bytes, Long.BYTES);
+                MemorySegment.copy(segment, 0, grown, 0, segment.byteSize());
+            } else {
+                try {
+                    grown = CHANNEL.map(FileChannel.MapMode.READ_WRITE, 0, bytes, larger);
+                } catch (IOException e) {
+                    larger.close();
+                    throw new UncheckedIOException(e);
+                }
+            }
+            arena.close();
+            arena = larger;
+            segment = grown;
+        }
+
+        /**
+         * Writes a mapped region's changes to its file; does nothing for native memory.
+         */
+        void force() {
+            if (CHANNEL != null) {
+                segment.force();
+            }
+        }
+
+        /**
+         * Frees the memory, or unmaps and closes the file.
+         */
+        void close() {
+            arena.close();
+            if (CHANNEL != null) {
+                try {
+                    CHANNEL.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Spreads a normalized name's hash code; never zero, so a slot's hash half is never empty.
+     *
+     * @param key the normalized name
+     * @return the hash
+     */
+    private static int hash(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        h ^= h >>> 16;
+        return h == 0 ? 1 : h;
+    }
+
+    /**
+     * @param id a card id
+     * @return the offset of the card's record
+     */
+    private static long recordAt(int id) {
+        return HEADER_SIZE + (long) id * RECORD_SIZE;
+    }
+
+    /**
+     * Copies the region sizes into the header. Callers hold the write lock, or are constructing the store.
+     */
+    private void writeHeader() {
+        MemorySegment header = records.segment;
+        header.set(ValueLayout.JAVA_INT, HEADER_SIZE_FIELD, size);
+        header.set(ValueLayout.JAVA_INT, HEADER_SLOTS, slots);
+        header.set(ValueLayout.JAVA_LONG, HEADER_POOL_USED, poolUsed);
+    }
+
+    /**
+     * Finds the record of a normalized name. Callers hold the read or write lock.
+     *
+     * @param keyBytes the normalized name in UTF-8
+     * @param hash     the name's {@link #hash(String)}
+     * @return the card id, or -1 if the name is not stored
+     */
+    private int find(byte[] keyBytes, int hash) {
+        MemorySegment table = index.segment;
+        MemorySegment rec = records.segment;
+        MemorySegment names = pool.segment;
+        MemorySegment query = MemorySegment.ofArray(keyBytes);
+        int mask = slots - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            long slot = table.get(ValueLayout.JAVA_LONG, (long) i * SLOT_SIZE);
+            if (slot == 0) {
+                return -1;
+            }
+            if ((int) (slot >>> 32) == hash) {
+                int id = (int) slot - 1;
+                long at = recordAt(id);
+                long keyStart = rec.get(ValueLayout.JAVA_LONG, at + NAME_OFFSET) + rec.get(ValueLayout.JAVA_INT, at + NAME_LENGTH);
+                int keyLength = rec.get(ValueLayout.JAVA_INT, at + KEY_LENGTH);
+                if (keyLength == keyBytes.length
+                        && MemorySegment.mismatch(names, keyStart, keyStart + keyLength, query, 0, keyBytes.length) < 0) {
+                    return id;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the record of a card name, failing if there is none. Callers hold the read or write lock.
+     *
+     * @param name the card name (case-insensitive, trimmed)
+     * @return the card id
+     * @throws NoSuchElementException if no card with that name is stored
+     */
+    private int require(String name) {
+        String key = Card.normalizeName(name);
+        int id = find(key.getBytes(StandardCharsets.UTF_8), hash(key));
+        if (id < 0) {
+            throw new NoSuchElementException("Card '" + name + "' not found in collection.");
+        }
+        return id;
+    }
+
+    /**
+     * Places a record in the index. Callers hold the write lock and have made room.
+     *
+     * @param table the index memory
+     * @param mask  the number of slots minus one
+     * @param hash  the name's hash
+     * @param id    the card id
+     */
+    private static void insertSlot(MemorySegment table, int mask, int hash, int id) {
+        int i = hash & mask;
+        while (table.get(ValueLayout.JAVA_LONG, (long) i * SLOT_SIZE) != 0) {
+            i = (i + 1) & mask;
+        }
+        table.set(ValueLayout.JAVA_LONG, (long) i * SLOT_SIZE, (long) hash << 32 | (id + 1L));
+    }
+
+    /**
+     * Doubles the index and re-inserts every slot. Callers hold the write lock.
+     */
+    private void growIndex() {
+        Region old = index;
+        int oldSlots = slots;
+        Region grown = newIndex(oldSlots * 2);
+        for (int i = 0; i < oldSlots; i++) {
+            long slot = old.segment.get(ValueLayout.JAVA_LONG, (long) i * SLOT_SIZE);
+            if (slot != 0) {
+                insertSlot(grown.segment, oldSlots * 2 - 1, (int) (slot >>> 32), (int) slot - 1);
+            }
+        }
+        replaceIndex(grown, oldSlots * 2);
+    }
+
+    /**
+     * Checks the records of the cards added since the last flush of a mapped store that was not
+     * closed cleanly, and stops counting cards from the first one that is unreadable: whose name
+     * does not follow the previous card's in the pool, whose normalized name does not match its
+     * name, or whose value does not follow from its base value and variation. Such a card's
+     * record or name did not reach the disk before the crash. Called while constructing the store.
+     *
+     * @param synced the number of cards the last flush made durable
+     */
+    private void dropUnreadableCards(int synced) {
+        MemorySegment rec = records.segment;
+        MemorySegment names = pool.segment;
+        int valid = Math.min(Math.max(synced, 0), size);
+        long expectedOffset = valid == 0 ? 0 : rec.get(ValueLayout.JAVA_LONG, recordAt(valid - 1) + NAME_OFFSET)
+                + rec.get(ValueLayout.JAVA_INT, recordAt(valid - 1) + NAME_LENGTH)
+                + rec.get(ValueLayout.JAVA_INT, recordAt(valid - 1) + KEY_LENGTH);
+        for (; valid < size; valid++) {
+            long at = recordAt(valid);
+            int nameLength = rec.get(ValueLayout.JAVA_INT, at + NAME_LENGTH);
+            int keyLength = rec.get(ValueLayout.JAVA_INT, at + KEY_LENGTH);
+            byte rarity = rec.get(ValueLayout.JAVA_BYTE, at + RARITY);
+            byte variation = rec.get(ValueLayout.JAVA_BYTE, at + VARIATION);
+            if (rec.get(ValueLayout.JAVA_LONG, at + NAME_OFFSET) != expectedOffset
+                    || nameLength <= 0 || keyLength <= 0
+                    || expectedOffset + nameLength + keyLength > poolUsed
+                    || rarity < NO_RARITY || rarity >= RARITIES.length
+                    || variation < 0 || variation >= VARIATIONS.length
+                    || rec.get(ValueLayout.JAVA_INT, at + COUNT) < 0) {
+                break;
+            }
+            String name = new String(names.asSlice(expectedOffset, nameLength).toArray(ValueLayout.JAVA_BYTE),
+                    StandardCharsets.UTF_8);
+            String key = new String(names.asSlice(expectedOffset + nameLength, keyLength).toArray(ValueLayout.JAVA_BYTE),
+                    StandardCharsets.UTF_8);
+            try {
+                Card card = new Card(name, rarity == NO_RARITY ? null : RARITIES[rarity], VARIATIONS[variation],
+                        BigDecimal.valueOf(rec.get(ValueLayout.JAVA_LONG, at + BASE_UNSCALED),
+                                rec.get(ValueLayout.JAVA_INT, at + BASE_SCALE)));
+                if (!card.getName().equals(name) || !card.getKey().equals(key)
+                        || card.getValueCents() != rec.get(ValueLayout.JAVA_LONG, at + VALUE_CENTS)) {
+                    break;
+                }
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                break;
+            }
+            expectedOffset += nameLength + keyLength;
+        }
+        size = valid;
+        poolUsed = expectedOffset;
+    }
+
+    /**
+     * Re-creates the index from the records, for a mapped store that was not closed cleanly.
+     * Callers hold the write lock, or are constructing the store.
+     */
+    private void rebuildIndex() {
+        Region rebuilt = newIndex(slots);
+        MemorySegment names = pool.segment;
+        for (int id = 0; id < size; id++) {
+            long at = recordAt(id);
+            long keyStart = records.segment.get(ValueLayout.JAVA_LONG, at + NAME_OFFSET)
+                    + records.segment.get(ValueLayout.JAVA_INT, at + NAME_LENGTH);
+            int keyLength = records.segment.get(ValueLayout.JAVA_INT, at + KEY_LENGTH);
+            String key = new String(names.asSlice(keyStart, keyLength).toArray(ValueLayout.JAVA_BYTE),
+                    StandardCharsets.UTF_8);
+            insertSlot(rebuilt.segment, slots - 1, hash(key), id);
+        }
+        replaceIndex(rebuilt, slots);
+    }
+
+    /**
+     * Creates an empty index, in native memory or, for a mapped store, in a temporary file
+     * next to the index file so that the current index stays intact until it is replaced.
+     *
+     * @param slotCount the number of slots
+     * @return the new index
+     */
+    private Region newIndex(int slotCount) {
+        if (DIRECTORY == null) {
+            return Region.allocate((long) slotCount * SLOT_SIZE);
+        }
+        try {
+            Path temp = DIRECTORY.resolve(INDEX_FILE + ".tmp");
+            Files.deleteIfExists(temp);
+            return Region.map(temp, (long) slotCount * SLOT_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Switches to an index made by {@link #newIndex(int)} and frees the old one. For a mapped
+     * store, the new file is synced and moved over the index file.
+     *
+     * @param replacement the filled index
+     * @param slotCount   its number of slots
+     */
+    private void replaceIndex(Region replacement, int slotCount) {
+        index.close();
+        if (DIRECTORY != null) {
+            replacement.force();
+            try {
+                Files.move(DIRECTORY.resolve(INDEX_FILE + ".tmp"), DIRECTORY.resolve(INDEX_FILE),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        index = replacement;
+        slots = slotCount;
+        writeHeader();
+    }
+
+    /**
+     * Stores a new card or merges copies into the stored card with the same name.
+     *
+     * @param c      the card to add
+     * @param copies the number of copies to merge into an existing identical card
+     * @throws IllegalArgumentException if a card with the same name but different attributes exists
+     * @throws ArithmeticException      if the existing card's count would overflow
+     */
+    private void merge(Card c, int copies) {
+        byte[] keyBytes = c.getKey().getBytes(StandardCharsets.UTF_8);
+        int hash = hash(c.getKey());
+        LOCK.writeLock().lock();
+        try {
+            int existing = find(keyBytes, hash);
+            if (existing >= 0) {
+                long at = recordAt(existing);
+                MemorySegment rec = records.segment;
+                if (rec.get(ValueLayout.JAVA_BYTE, at + RARITY) != rarityCode(c.getRarity())
+                        || rec.get(ValueLayout.JAVA_BYTE, at + VARIATION) != c.getVariation().ordinal()) {
+                    throw new IllegalArgumentException(
+                            "Card with name '" + c.getName() + "' has different attributes and cannot be merged.");
+                }
+                int count = rec.get(ValueLayout.JAVA_INT, at + COUNT);
+                rec.set(ValueLayout.JAVA_INT, at + COUNT, Math.addExact(count, copies));
+                return;
+            }
+            insert(c, keyBytes, hash);
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Appends a record for a new card and indexes it. Callers hold the write lock.
+     *
+     * @param c        the card
+     * @param keyBytes its normalized name in UTF-8
+     * @param hash     its name's hash
+     */
+    private void insert(Card c, byte[] keyBytes, int hash) {
+        BigDecimal base = c.getBaseValue();
+        long baseUnscaled = base.unscaledValue().longValueExact();
+        byte[] nameBytes = c.getName().getBytes(StandardCharsets.UTF_8);
+        long needed = poolUsed + nameBytes.length + keyBytes.length;
+        if (needed > pool.segment.byteSize()) {
+            pool.grow(Math.max(needed, pool.segment.byteSize() * 2));
+        }
+        MemorySegment.copy(nameBytes, 0, pool.segment, ValueLayout.JAVA_BYTE, poolUsed, nameBytes.length);
+        MemorySegment.copy(keyBytes, 0, pool.segment, ValueLayout.JAVA_BYTE, poolUsed + nameBytes.length, keyBytes.length);
+
+        if (recordAt(size + 1) > records.segment.byteSize()) {
+            records.grow(records.segment.byteSize() * 2);
+        }
+        long at = recordAt(size);
+        MemorySegment rec = records.segment;
+        rec.set(ValueLayout.JAVA_LONG, at + VALUE_CENTS, c.getValueCents());
+        rec.set(ValueLayout.JAVA_LONG, at + BASE_UNSCALED, baseUnscaled);
+        rec.set(ValueLayout.JAVA_LONG, at + NAME_OFFSET, poolUsed);
+        rec.set(ValueLayout.JAVA_INT, at + NAME_LENGTH, nameBytes.length);
+        rec.set(ValueLayout.JAVA_INT, at + KEY_LENGTH, keyBytes.length);
+        rec.set(ValueLayout.JAVA_INT, at + BASE_SCALE, base.scale());
+        rec.set(ValueLayout.JAVA_INT, at + COUNT, c.getCount());
+        rec.set(ValueLayout.JAVA_BYTE, at + RARITY, rarityCode(c.getRarity()));
+        rec.set(ValueLayout.JAVA_BYTE, at + VARIATION, (byte) c.getVariation().ordinal());
+        poolUsed = needed;
+
+        if ((size + 1L) * 2 > slots) {
+            growIndex();
+        }
+        insertSlot(index.segment, slots - 1, hash, size);
+        size++;
+        writeHeader();
+    }
+
+    /**
+     * @param rarity a rarity, or null
+     * @return the code stored for it
+     */
+    private static byte rarityCode(Rarity rarity) {
+        return rarity == null ? NO_RARITY : (byte) rarity.ordinal();
+    }
+
+    /**
+     * Builds a detached copy of a card from its record. Callers hold the read or write lock.
+     *
+     * @param id the card id
+     * @return a new card with the record's attributes and count
+     */
+    private Card materialize(int id) {
+        long at = recordAt(id);
+        MemorySegment rec = records.segment;
+        long nameOffset = rec.get(ValueLayout.JAVA_LONG, at + NAME_OFFSET);
+        int nameLength = rec.get(ValueLayout.JAVA_INT, at + NAME_LENGTH);
+        String name = new String(pool.segment.asSlice(nameOffset, nameLength).toArray(ValueLayout.JAVA_BYTE),
+                StandardCharsets.UTF_8);
+        byte rarity = rec.get(ValueLayout.JAVA_BYTE, at + RARITY);
+        BigDecimal base = BigDecimal.valueOf(rec.get(ValueLayout.JAVA_LONG, at + BASE_UNSCALED),
+                rec.get(ValueLayout.JAVA_INT, at + BASE_SCALE));
+        return new Card(name, rarity == NO_RARITY ? null : RARITIES[rarity],
+                VARIATIONS[rec.get(ValueLayout.JAVA_BYTE, at + VARIATION)], base,
+                rec.get(ValueLayout.JAVA_INT, at + COUNT));
+    }
+
+    /**
+     * Adds a card, or one copy of it if an identical card is already stored.
+     *
+     * @param c the Card to add or increment
+     * @throws IllegalArgumentException if a card with the same name but different attributes exists
+     * @throws ArithmeticException      if the base value does not fit in a long when unscaled
+     */
+    public void addCard(Card c) {
+        merge(c, 1);
+    }
+
+    /**
+     * Adds every copy carried by a card, merging them into an identical stored card.
+     *
+     * @param c the Card to add, whose count is the number of copies
+     * @throws IllegalArgumentException if a card with the same name but different attributes exists
+     * @throws ArithmeticException      if the existing card's count would overflow
+     */
+    public void addCopies(Card c) {
+        merge(c, c.getCount());
+    }
+
+    /**
+     * Finds a card by name.
+     *
+     * @param name the card name (case-insensitive, trimmed)
+     * @return a detached copy of the stored card, count included, or null if there is none
+     */
+    public Card findByCardName(String name) {
+        String key = Card.normalizeName(name);
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        LOCK.readLock().lock();
+        try {
+            int id = find(keyBytes, hash(key));
+            return id < 0 ? null : materialize(id);
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of copies of a card.
+     *
+     * @param name the card name (case-insensitive, trimmed)
+     * @return the count
+     * @throws NoSuchElementException if no card with that name exists
+     */
+    public int getCount(String name) {
+        LOCK.readLock().lock();
+        try {
+            return records.segment.get(ValueLayout.JAVA_INT, recordAt(require(name)) + COUNT);
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the value of one copy of a card.
+     *
+     * @param name the card name (case-insensitive, trimmed)
+     * @return the card's value
+     * @throws NoSuchElementException if no card with that name exists
+     */
+    public BigDecimal getCardValue(String name) {
+        LOCK.readLock().lock();
+        try {
+            return BigDecimal.valueOf(records.segment.get(ValueLayout.JAVA_LONG, recordAt(require(name)) + VALUE_CENTS), 2);
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
+
+    /**
+     * Increments the count of a card.
+     *
+     * @param name the card name (case-insensitive, trimmed)
+     * @throws NoSuchElementException if no card with that name exists
+     * @throws ArithmeticException    if the count would overflow
+     */
+    public void incrementCard(String name) {
+        LOCK.writeLock().lock();
+        try {
+            long at = recordAt(require(name)) + COUNT;
+            records.segment.set(ValueLayout.JAVA_INT, at,
+                    Math.incrementExact(records.segment.get(ValueLayout.JAVA_INT, at)));
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Decrements the count of a card, not allowing it to go below zero.
+     *
+     * @param name the card name (case-insensitive, trimmed)
+     * @throws NoSuchElementException if no card with that name exists
+     * @throws IllegalStateException  if the card's count is already zero
+     */
+    public void decrementCard(String name) {
+        LOCK.writeLock().lock();
+        try {
+            takeCopy(require(name), "Card '" + name + "' count is already zero.");
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes one copy of a card and returns it.
+     *
+     * @param name the card name (case-insensitive, trimmed)
+     * @return a new Card representing the removed copy (count = 1)
+     * @throws NoSuchElementException if no card with that name exists
+     * @throws IllegalStateException  if the store is empty or no copies remain
+     */
+    public Card removeCardByName(String name) {
+        LOCK.writeLock().lock();
+        try {
+            if (size == 0) {
+                throw new IllegalStateException("Collection is empty.");
+            }
+            int id = require(name);
+            takeCopy(id, "No copies left of card '" + name + "'.");
+            return Card.copyCard(materialize(id));
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sells one copy of a card.
+     *
+     * @param name the card name (case-insensitive, trimmed)
+     * @return the sale price, the card's value
+     * @throws NoSuchElementException if no card with that name exists
+     * @throws IllegalStateException  if no copies remain
+     */
+    public BigDecimal sellCardByName(String name) {
+        LOCK.writeLock().lock();
+        try {
+            int id = require(name);
+            takeCopy(id, "No copies left of card '" + name + "'.");
+            return BigDecimal.valueOf(records.segment.get(ValueLayout.JAVA_LONG, recordAt(id) + VALUE_CENTS), 2);
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Lowers a card's count by one. Callers hold the write lock.
+     *
+     * @param id      the card id
+     * @param message the message to fail with if the count is zero
+     * @throws IllegalStateException if the count is zero
+     */
+    private void takeCopy(int id, String message) {
+        long at = recordAt(id) + COUNT;
+        int count = records.segment.get(ValueLayout.JAVA_INT, at);
+        if (count == 0) {
+            throw new IllegalStateException(message);
+        }
+        records.segment.set(ValueLayout.JAVA_INT, at, count - 1);
+    }
+
+    /**
+     * Sums the value of every copy, reading the records in place.
+     *
+     * @return the total value in cents
+     * @throws ArithmeticException if the total does not fit in a long
+     */
+    public long getTotalValueCents() {
+        LOCK.readLock().lock();
+        try {
+            MemorySegment rec = records.segment;
+            long total = 0;
+            for (int id = 0; id < size; id++) {
+                long at = recordAt(id);
+                total = Math.addExact(total, Math.multiplyExact(rec.get(ValueLayout.JAVA_LONG, at + VALUE_CENTS),
+                        (long) rec.get(ValueLayout.JAVA_INT, at + COUNT)));
+            }
+            return total;
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
+
+    /**
+     * Hands every stored card to an action, in the order the cards were first added.
+     * Each card is a detached copy built for the call, so the action may keep it.
+     *
+     * @param action the action to run on each card
+     */
+    public void forEachCard(Consumer<Card> action) {
+        LOCK.readLock().lock();
+        try {
+            for (int id = 0; id < size; id++) {
+                action.accept(materialize(id));
+            }
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of distinct cards stored
+     */
+    public int size() {
+        LOCK.readLock().lock();
+        try {
+            return size;
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes all changes to a mapped store's files and waits for them to reach the device.
+     * Does nothing for a store in native memory.
+     */
+    public void flush() {
+        LOCK.writeLock().lock();
+        try {
+            sync();
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes all changes to a mapped store's files, then records in the header that every card
+     * stored is durable, so that only cards added later are checked after a crash. The header is
+     * written last, since the operating system may write the pages back in any order. Callers
+     * hold the write lock.
+     */
+    private void sync() {
+        pool.force();
+        index.force();
+        records.force();
+        records.segment.set(ValueLayout.JAVA_INT, HEADER_SYNCED, size);
+        records.force();
+    }
+
+    /**
+     * @return the native or mapped memory reserved by the store, in bytes
+     */
+    public long offHeapBytes() {
+        LOCK.readLock().lock();
+        try {
+            return records.segment.byteSize() + pool.segment.byteSize() + index.segment.byteSize();
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
+
+    /**
+     * Frees the store's native memory, or flushes a mapped store, marks it closed cleanly, and
+     * unmaps its files. The store must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        LOCK.writeLock().lock();
+        try {
+            if (DIRECTORY != null) {
+                sync();
+                records.segment.set(ValueLayout.JAVA_BYTE, HEADER_CLEAN, (byte) 1);
+                records.force();
+            }
+            records.close();
+            pool.close();
+            index.close();
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.Benchmark;
+
+import com.TradingCard.Card;
+import com.TradingCard.CardCollection;
+import com.TradingCard.Enums.Rarity;
+import com.TradingCard.Enums.Variation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks comparing an {@link OffHeapCardStore} with a {@link CardCollection} holding the
+ * same cards, spread evenly over every rarity and variation, one benchmark of each pair per
+ * structure.
+ * <p>
+ * The heap footprint is what the store is for, so the figures to read are the allocation rates
+ * of the GC profiler {@link BenchmarkMain} attaches: the fill benchmarks show what each
+ * structure allocates for the whole pool, and the lookups show that the store allocates only the
+ * lookup key to read a count, but a new card, name, and value every time it finds a card.
+ */
+@State(Scope.Thread)
+public class OffHeapCardStoreBenchmark extends CardPool {
+    /**
+     * All rarities, in ordinal order.
+     */
+    private static final Rarity[] RARITIES = Rarity.values();
+
+    /**
+     * All variations, in ordinal order.
+     */
+    private static final Variation[] VARIATIONS = Variation.values();
+
+    /**
+     * Copy count given to every card: enough that selling never runs a card out during a
+     * trial, and low enough that the total value of the largest pool fits in a long.
+     */
+    private static final int COUNT = 1 << 24;
+
+    /**
+     * Store holding one card per pool name.
+     */
+    private OffHeapCardStore store;
+
+    /**
+     * Collection holding the same cards as {@link #store}.
+     */
+    private CardCollection collection;
+
+    /**
+     * Fills the store and the collection with every pool name.
+     */
+    @Setup
+    public void setUp() {
+        generate();
+        store = new OffHeapCardStore(size);
+        collection = new CardCollection();
+        for (int i = 0; i < size; i++) {
+            Card card = newCard(i, RARITIES[i & 3], VARIATIONS[(i >> 2) & 3], COUNT);
+            store.addCopies(card);
+            collection.addCopies(card);
+        }
+    }
+
+    /**
+     * Frees the store's native memory.
+     */
+    @TearDown
+    public void tearDown() {
+        store.close();
+    }
+
+    /**
+     * Reads a card's count from its record in place.
+     *
+     * @return the count
+     */
+    @Benchmark
+    public int getCountOffHeap() {
+        return store.getCount(names[nextQuery()]);
+    }
+
+    /**
+     * Reads a card's count from the collection's card object.
+     *
+     * @return the count
+     */
+    @Benchmark
+    public int getCountHeap() {
+        return collection.findByCardName(names[nextQuery()]).getCount();
+    }
+
+    /**
+     * Finds a card in the store, which builds a detached copy from its record.
+     *
+     * @return the card found
+     */
+    @Benchmark
+    public Card findByCardNameOffHeap() {
+        return store.findByCardName(names[nextQuery()]);
+    }
+
+    /**
+     * Finds a card in the collection, which returns the stored card itself.
+     *
+     * @return the card found
+     */
+    @Benchmark
+    public Card findByCardNameHeap() {
+        return collection.findByCardName(names[nextQuery()]);
+    }
+
+    /**
+     * Adds one copy of a card in the store.
+     */
+    @Benchmark
+    public void incrementOffHeap() {
+        store.incrementCard(names[nextQuery()]);
+    }
+
+    /**
+     * Adds one copy of a card in the collection.
+     */
+    @Benchmark
+    public void incrementHeap() {
+        collection.incrementCard(names[nextQuery()]);
+    }
+
+    /**
+     * Sells one copy of a card from the store.
+     *
+     * @return the sale price
+     */
+    @Benchmark
+    public BigDecimal sellCardOffHeap() {
+        return store.sellCardByName(names[nextQuery()]);
+    }
+
+    /**
+     * Sells one copy of a card from the collection.
+     *
+     * @return the sale price
+     */
+    @Benchmark
+    public BigDecimal sellCardHeap() {
+        return collection.sellCardByName(names[nextQuery()]);
+    }
+
+    /**
+     * @return the total value of the store, summed over its records
+     */
+    @Benchmark
+    public long totalValueOffHeap() {
+        return store.getTotalValueCents();
+    }
+
+    /**
+     * @return the total value of the collection, summed over its card objects
+     */
+    @Benchmark
+    public long totalValueHeap() {
+        long total = 0;
+        for (Card card : collection.getSortedView()) {
+            total = Math.addExact(total, Math.multiplyExact(card.getValueCents(), (long) card.getCount()));
+        }
+        return total;
+    }
+
+    /**
+     * Builds a store of the whole pool from scratch, in pool order, one card at a time, and
+     * frees it.
+     *
+     * @return the native memory the store used, in bytes
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long fillOffHeap() {
+        try (OffHeapCardStore filled = new OffHeapCardStore(size)) {
+            for (int i = 0; i < size; i++) {
+                filled.addCard(newCard(i, Rarity.RARE, Variation.FULL_ART, 1));
+            }
+            return filled.offHeapBytes();
+        }
+    }
+
+    /**
+     * Builds a collection of the whole pool from scratch, in pool order, one card at a time.
+     *
+     * @return the filled collection
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public CardCollection fillHeap() {
+        CardCollection filled = new CardCollection();
+        for (int i = 0; i < size; i++) {
+            filled.addCard(newCard(i, Rarity.RARE, Variation.FULL_ART, 1));
+        }
+        return filled;
+    }
+}
@@ -0,0 +1,121 @@
+package com.Benchmark;
+
+import com.System.EnhancedTCIS;
+import com.TradingCard.Card;
+import com.TradingCard.Enums.BinderType;
+import com.TradingCard.Enums.Rarity;
+import com.TradingCard.Enums.Variation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Benchmarks for valuing the whole inventory, comparing the fork/join portfolio valuation at
+ * several pool sizes with a sequential sum of {@link BigDecimal} values.
+ * <p>
+ * Every pool name is in the collection with one to four copies, and one card in a thousand is
+ * moved into a sellable container: rares binders, luxury binders with a custom price, and
+ * sellable decks in turn, ten cards each. No journal is attached.
+ */
+@State(Scope.Benchmark)
+public class PortfolioBenchmark extends CardPool {
+    /**
+     * Cards placed in each container.
+     */
+    private static final int CARDS_PER_CONTAINER = 10;
+
+    /**
+     * Number of workers in the valuation pool.
+     */
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    /**
+     * The system under test.
+     */
+    private EnhancedTCIS system;
+
+    /**
+     * Pool the valuation runs in.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * Fills the collection and the containers and starts the pool.
+     */
+    @Setup
+    public void setUp() {
+        generate();
+        system = new EnhancedTCIS();
+        for (int i = 0; i < size; i++) {
+            system.addCopiesToCollection(newCard(i, Rarity.RARE, Variation.FULL_ART, 1 + (i & 3)));
+        }
+        int containers = Math.max(1, size / 1000 / CARDS_PER_CONTAINER);
+        for (int c = 0; c < containers; c++) {
+            String name = "portfolio-" + c;
+            switch (c % 3) {
+                case 0 -> system.createBinder(name, BinderType.RARES);
+                case 1 -> system.createBinder(name, BinderType.LUXURY);
+                default -> system.createDeck(name, true);
+            }
+            for (int j = 0; j < CARDS_PER_CONTAINER && c * CARDS_PER_CONTAINER + j < size; j++) {
+                String card = names[c * CARDS_PER_CONTAINER + j];
+                if (c % 3 == 2) {
+                    system.addCardToDeck(name, card);
+                } else {
+                    system.addCardToBinder(name, card);
+                }
+            }
+            if (c % 3 == 1) {
+                system.setBinderPrice(name, system.getBinderValue(name).add(BigDecimal.ONE));
+            }
+        }
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Stops the pool.
+     */
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Values the portfolio with the fork/join valuation.
+     *
+     * @return the portfolio value
+     */
+    @Benchmark
+    public BigDecimal portfolioValue() {
+        return system.getPortfolioValue(pool);
+    }
+
+    /**
+     * Values the collection one card at a time in {@link BigDecimal}, then adds each container's
+     * value looked up by name, as callers did before the portfolio valuation existed.
+     * Handling fees are left out, so this does less work than {@link #portfolioValue()}.
+     *
+     * @return the sum
+     */
+    @Benchmark
+    public BigDecimal sequentialBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Card card : system.getCardCollection().getSortedView()) {
+            total = total.add(card.getValue().multiply(BigDecimal.valueOf(card.getCount())));
+        }
+        for (String name : system.getBinderNames()) {
+            total = total.add(system.getBinderValue(name));
+        }
+        for (String name : system.getDeckNames()) {
+            total = total.add(system.getDeckValue(name));
+        }
+        return total;
+    }
+}
@@ -1,26 +1,138 @@
+import com.System.CommandServer;
 import com.System.Controller;
 import com.System.EnhancedTCIS;
+import com.System.InventoryExporter;
+import com.System.InventorySnapshot;
+import com.System.OperationJournal;
 import com.System.View;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 /**
  * Entry point for the Trading Card Inventory System application.
  * <p>
  * Initializes the model, view, and controller, then starts the main loop.
  */
 public class Main {
+    /**
+     * File name of the operation journal inside the data directory.
+     */
+    private static final String JOURNAL_FILE = "tcis.journal";
+
+    /**
+     * File name of the state snapshot inside the data directory.
+     */
+    private static final String SNAPSHOT_FILE = "tcis.snapshot";
 
     /**
      * Application launcher.
      * <p>
-     * Creates the {@link EnhancedTCIS} model, the {@link View} for I/O,
-     * and the {@link Controller} to drive the CLI, then invokes {@code run()}.
+     * Restores the {@link EnhancedTCIS} model from the snapshot in the data directory, if any,
+     * and replays the operation journal on top of it. Then creates the {@link View} for I/O and
+     * the {@link Controller} to drive the CLI, and invokes {@code run()}. Every change made
+     * during the session is appended to the journal; on exit a fresh snapshot is written and
+     * the journal is reset.
+     * <p>
+     * With {@code --export <file>}, the restored inventory is instead exported, with values and
+     * container membership, as JSON lines if the file name ends in {@code .jsonl} and as CSV
+     * otherwise, and the program exits without starting the CLI.
+     * <p>
+     * With {@code --serve <port>}, no CLI is started either; a {@link CommandServer} serves the
+     * inventory on the given local port until the process is interrupted, after which the
+     * snapshot is written as usual.
+     *
+     * @param args command-line arguments: {@code --data <dir>} selects the data directory
+     *             (defaults to the working directory), {@code --export <file>} exports the inventory,
+     *             {@code --serve <port>} runs the headless command server
+     * @throws IOException if the snapshot or journal cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        Path dataDir = Path.of(".");
+        Path exportPath = null;
+        int servePort = -1;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--data" -> dataDir = Path.of(optionValue(args, i++));
+                case "--export" -> exportPath = Path.of(optionValue(args, i++));
+                case "--serve" -> servePort = Integer.parseInt(optionValue(args, i++));
+                default -> throw new IllegalArgumentException("unknown argument: " + args[i]);
+            }
+        }
+
+        Path snapshotPath = dataDir.resolve(SNAPSHOT_FILE);
+        try (OperationJournal journal = new OperationJournal(dataDir.resolve(JOURNAL_FILE))) {
+            EnhancedTCIS inventorySystem;
+            if (Files.exists(snapshotPath)) {
+                InventorySnapshot snapshot = InventorySnapshot.load(snapshotPath);
+                inventorySystem = snapshot.getSystem();
+                journal.replay(inventorySystem, snapshot);
+            } else {
+                inventorySystem = new EnhancedTCIS();
+                journal.replay(inventorySystem);
+            }
+            if (exportPath != null) {
+                InventoryExporter.Format format = exportPath.getFileName().toString().endsWith(".jsonl")
+                        ? InventoryExporter.Format.JSON_LINES
+                        : InventoryExporter.Format.CSV;
+                long records = new InventoryExporter(inventorySystem, format, true, true).export(exportPath);
+                System.out.println("exported " + records + " records to " + exportPath);
+                return;
+            }
+            inventorySystem.setJournal(journal);
+            if (servePort >= 0) {
+                serve(inventorySystem, servePort);
+            } else {
+                View view = new View();
+                Controller controller = new Controller(view, inventorySystem);
+                controller.run();
+            }
+
+            InventorySnapshot.write(inventorySystem, snapshotPath, journal);
+            journal.reset();
+        }
+    }
+
+    /**
+     * Reads the value following a command-line option.
+     *
+     * @param args  the command-line arguments
+     * @param index the position of the option
+     * @return the argument after the option
+     * @throws IllegalArgumentException if the option is the last argument
+     */
+    private static String optionValue(String[] args, int index) {
+        if (index + 1 >= args.length) {
+            throw new IllegalArgumentException("missing value for " + args[index]
+                    + "; usage: [--data <dir>] [--export <file>] [--serve <port>]");
+        }
+        return args[index + 1];
+    }
+
+    /**
+     * Serves the inventory over the command server until the process is interrupted.
+     * The shutdown hook closes the server, which returns from serving only once every
+     * connection thread has finished, and then waits for the main thread to finish writing
+     * the snapshot, so the JVM does not exit halfway through it and no request runs against
+     * the system while it is written.
      *
-     * @param args command-line arguments (ignored)
+     * @param inventorySystem the system to serve
+     * @param port            the local port to listen on
+     * @throws IOException if the port cannot be bound
      */
-    public static void main(String[] args) {
-        EnhancedTCIS inventorySystem = new EnhancedTCIS();
-        View view = new View();
-        Controller controller = new Controller(view, inventorySystem);
-        controller.run();
+    private static void serve(EnhancedTCIS inventorySystem, int port) throws IOException {
+        CommandServer server = new CommandServer(inventorySystem, port);
+        Thread mainThread = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+                mainThread.join();
+            } catch (IOException | InterruptedException ignored) {
+                // exiting anyway
+            }
+        }));
+        System.out.println("serving on port " + server.getPort());
+        server.serve();
     }
 }
@@ -0,0 +1,258 @@
+package com.System;
+
+import java.util.Arrays;
+
+/**
+ * An ordered list of single-card operations to apply to an {@link InventorySystem} in one call,
+ * through {@link InventorySystem#applyBatch(CardBatch)}.
+ * <p>
+ * Each operation mirrors one of the single-call methods, such as
+ * {@link InventorySystem#addCardToBinder(String, String)} or
+ * {@link InventorySystem#incrementCardInCollection(String)}, and fails or succeeds on its own.
+ * The operations are stored column-wise in growable arrays, so a batch of thousands of
+ * operations does not allocate an object per operation. A batch can be cleared and reused.
+ */
+public class CardBatch {
+    /**
+     * The kinds of operation a batch can hold.
+     */
+    public enum Kind {
+        ADD_TO_BINDER,
+        REMOVE_FROM_BINDER,
+        ADD_TO_DECK,
+        REMOVE_FROM_DECK,
+        INCREMENT,
+        DECREMENT
+    }
+
+    /**
+     * Initial capacity of the operation arrays.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Kind of each operation.
+     */
+    private Kind[] kinds;
+
+    /**
+     * Binder or deck name of each operation, or null for collection operations.
+     */
+    private String[] containers;
+
+    /**
+     * Card name of each operation.
+     */
+    private String[] cards;
+
+    /**
+     * Number of operations in the batch.
+     */
+    private int size;
+
+    /**
+     * Constructs an empty batch.
+     */
+    public CardBatch() {
+        this.kinds = new Kind[INITIAL_CAPACITY];
+        this.containers = new String[INITIAL_CAPACITY];
+        this.cards = new String[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Appends an operation, growing the arrays as needed.
+     *
+     * @param kind      the kind of operation
+     * @param container the binder or deck name, or null
+     * @param card      the card name
+     * @return this batch
+     * @throws IllegalArgumentException if the card name is null
+     */
+    private CardBatch add(Kind kind, String container, String card) {
+        if (card == null) {
+            throw new IllegalArgumentException("card name cannot be null");
+        }
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+            cards = Arrays.copyOf(cards, capacity);
+        }
+        kinds[size] = kind;
+        containers[size] = container;
+        cards[size] = card;
+        size++;
+        return this;
+    }
+
+    /**
+     * Appends a move of one copy of a card from the collection into a binder.
+     *
+     * @param binderName name of the binder
+     * @param cardName   name of the card to move
+     * @return this batch
+     */
+    public CardBatch addCardToBinder(String binderName, String cardName) {
+        return add(Kind.ADD_TO_BINDER, binderName, cardName);
+    }
+
+    /**
+     * Appends a move of a card from a binder back into the collection.
+     *
+     * @param binderName name of the binder
+     * @param cardName   name of the card to move
+     * @return this batch
+     */
+    public CardBatch removeCardFromBinder(String binderName, String cardName) {
+        return add(Kind.REMOVE_FROM_BINDER, binderName, cardName);
+    }
+
+    /**
+     * Appends a move of one copy of a card from the collection into a deck.
+     *
+     * @param deckName name of the deck
+     * @param cardName name of the card to move
+     * @return this batch
+     */
+    public CardBatch addCardToDeck(String deckName, String cardName) {
+        return add(Kind.ADD_TO_DECK, deckName, cardName);
+    }
+
+    /**
+     * Appends a move of a card from a deck back into the collection.
+     *
+     * @param deckName name of the deck
+     * @param cardName name of the card to move
+     * @return this batch
+     */
+    public CardBatch removeCardFromDeck(String deckName, String cardName) {
+        return add(Kind.REMOVE_FROM_DECK, deckName, cardName);
+    }
+
+    /**
+     * Appends an increment of a card's count in the collection.
+     *
+     * @param cardName name of the card
+     * @return this batch
+     */
+    public CardBatch incrementCardInCollection(String cardName) {
+        return add(Kind.INCREMENT, null, cardName);
+    }
+
+    /**
+     * Appends a decrement of a card's count in the collection.
+     *
+     * @param cardName name of the card
+     * @return this batch
+     */
+    public CardBatch decrementCardInCollection(String cardName) {
+        return add(Kind.DECREMENT, null, cardName);
+    }
+
+    /**
+     * Removes every operation, keeping the arrays for reuse.
+     */
+    public void clear() {
+        Arrays.fill(containers, 0, size, null);
+        Arrays.fill(cards, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * @return the number of operations in the batch
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index the operation's position in the batch
+     * @return the kind of the operation
+     */
+    public Kind getKind(int index) {
+        return kinds[index];
+    }
+
+    /**
+     * @param index the operation's position in the batch
+     * @return the binder or deck name of the operation, or null for collection operations
+     */
+    public String getContainerName(int index) {
+        return containers[index];
+    }
+
+    /**
+     * @param index the operation's position in the batch
+     * @return the card name of the operation
+     */
+    public String getCardName(int index) {
+        return cards[index];
+    }
+
+    /**
+     * The outcome of each operation of an applied batch.
+     */
+    public static final class Result {
+        /**
+         * The exception each failed operation raised, or null where it succeeded.
+         */
+        private final RuntimeException[] ERRORS;
+
+        /**
+         * Number of failed operations.
+         */
+        private int failed;
+
+        /**
+         * Creates a result in which every operation succeeded.
+         *
+         * @param size the number of operations
+         */
+        Result(int size) {
+            this.ERRORS = new RuntimeException[size];
+        }
+
+        /**
+         * Records the failure of an operation.
+         *
+         * @param index the operation's position in the batch
+         * @param error the exception it raised
+         */
+        void fail(int index, RuntimeException error) {
+            if (ERRORS[index] == null) {
+                failed++;
+            }
+            ERRORS[index] = error;
+        }
+
+        /**
+         * @param index the operation's position in the batch
+         * @return {@code true} if the operation was applied
+         */
+        public boolean isSuccess(int index) {
+            return ERRORS[index] == null;
+        }
+
+        /**
+         * @param index the operation's position in the batch
+         * @return the exception the single-call method would have thrown, or null if it succeeded
+         */
+        public RuntimeException getError(int index) {
+            return ERRORS[index];
+        }
+
+        /**
+         * @return the number of operations that were applied
+         */
+        public int getSucceededCount() {
+            return ERRORS.length - failed;
+        }
+
+        /**
+         * @return the number of operations that failed
+         */
+        public int getFailedCount() {
+            return failed;
+        }
+    }
+}
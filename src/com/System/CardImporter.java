@@ -0,0 +1,465 @@
+package com.System;
+
+import com.TradingCard.Card;
+import com.TradingCard.Enums.Rarity;
+import com.TradingCard.Enums.Variation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Streaming bulk importer that reads cards from CSV into the collection of an {@link InventorySystem}.
+ * <p>
+ * Each row holds {@code name,rarity,variation,base value,count}. The variation may be left
+ * empty for {@code NORMAL}, and a first row naming the columns is skipped as a header.
+ * Names may be quoted to contain commas, with {@code ""} standing for a literal quote.
+ * <p>
+ * The input is read one line at a time and parsed rows are applied in fixed-size batches, so
+ * memory use does not depend on the size of the file. Each batch goes through
+ * {@link InventorySystem#addCopiesToCollection(Card[], int)}, which locks each collection stripe
+ * and writes one journal record per stripe of a batch rather than one per row. Rows follow the same merge rules as
+ * adding a card by hand: an identical card has its count raised, and a card whose name is
+ * taken by a card with other attributes is rejected. Malformed and conflicting rows are
+ * skipped and reported in the returned {@link Report}.
+ */
+public class CardImporter {
+    /**
+     * Number of parsed rows applied to the collection at a time.
+     */
+    public static final int BATCH_SIZE = 4096;
+
+    /**
+     * Maximum number of rejected rows kept in a report; later rejections are only counted.
+     */
+    public static final int MAX_REPORTED_REJECTIONS = 1000;
+
+    /**
+     * Number of columns in a row.
+     */
+    private static final int COLUMNS = 5;
+
+    /**
+     * All rarities, looked up by name for every row.
+     */
+    private static final Rarity[] RARITIES = Rarity.values();
+
+    /**
+     * All variations, looked up by name for every row.
+     */
+    private static final Variation[] VARIATIONS = Variation.values();
+
+    /**
+     * The system whose collection receives the cards.
+     */
+    private final InventorySystem SYSTEM;
+
+    /**
+     * Parsed rows waiting to be applied.
+     */
+    private final Card[] BATCH;
+
+    /**
+     * Line number of each row in {@link #BATCH}, for reporting conflicts.
+     */
+    private final long[] BATCH_LINES;
+
+    /**
+     * Number of copies in each row of {@link #BATCH}, read before the rows are added, since
+     * rows of the same card are merged into the first one's instance.
+     */
+    private final int[] BATCH_COPIES;
+
+    /**
+     * Reusable buffer holding the fields of the row being parsed.
+     */
+    private final String[] FIELDS;
+
+    /**
+     * Reusable buffer for unescaping quoted fields.
+     */
+    private final StringBuilder QUOTED;
+
+    /**
+     * Number of rows currently in {@link #BATCH}.
+     */
+    private int batchSize;
+
+    /**
+     * Reason the last call to {@link #toCard()} returned null.
+     */
+    private String rowError;
+
+    /**
+     * Creates an importer that adds cards to the collection of the given system.
+     *
+     * @param system the system to import into
+     */
+    public CardImporter(InventorySystem system) {
+        this.SYSTEM = system;
+        this.BATCH = new Card[BATCH_SIZE];
+        this.BATCH_LINES = new long[BATCH_SIZE];
+        this.BATCH_COPIES = new int[BATCH_SIZE];
+        this.FIELDS = new String[COLUMNS];
+        this.QUOTED = new StringBuilder();
+    }
+
+    /**
+     * Imports a UTF-8 encoded CSV file.
+     *
+     * @param path the file to read
+     * @return the outcome of the import
+     * @throws IOException if the file cannot be read
+     */
+    public Report importCsv(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return importCsv(reader);
+        }
+    }
+
+    /**
+     * Imports CSV rows from a reader, which is left open.
+     * <p>
+     * Rows read before an I/O error have already been added to the collection.
+     *
+     * @param input the CSV source
+     * @return the outcome of the import
+     * @throws IOException if reading fails
+     */
+    public Report importCsv(Reader input) throws IOException {
+        BufferedReader reader = input instanceof BufferedReader buffered
+                ? buffered
+                : new BufferedReader(input, 1 << 16);
+        Report report = new Report();
+        batchSize = 0;
+        try {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || lineNumber == 1 && isHeader(line)) {
+                    continue;
+                }
+                String error = parseRow(line);
+                if (error != null) {
+                    report.reject(lineNumber, line, error);
+                    continue;
+                }
+                BATCH[batchSize] = toCard();
+                if (BATCH[batchSize] == null) {
+                    report.reject(lineNumber, line, rowError);
+                    continue;
+                }
+                BATCH_LINES[batchSize] = lineNumber;
+                BATCH_COPIES[batchSize] = BATCH[batchSize].getCount();
+                if (++batchSize == BATCH_SIZE) {
+                    flush(report);
+                }
+            }
+        } finally {
+            flush(report);
+        }
+        return report;
+    }
+
+    /**
+     * Adds the batched rows to the collection in one bulk call and empties the batch.
+     *
+     * @param report the report to record the results in
+     */
+    private void flush(Report report) {
+        if (batchSize == 0) {
+            return;
+        }
+        CardBatch.Result result = SYSTEM.addCopiesToCollection(BATCH, batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            if (result.isSuccess(i)) {
+                report.rows++;
+                report.copies += BATCH_COPIES[i];
+            } else {
+                report.reject(BATCH_LINES[i], null, result.getError(i).getMessage());
+            }
+            BATCH[i] = null;
+        }
+        batchSize = 0;
+    }
+
+    /**
+     * Checks whether a line is a header row rather than a card.
+     *
+     * @param line the first line of the input
+     * @return true if the line starts with the {@code name} column title
+     */
+    private static boolean isHeader(String line) {
+        return line.stripLeading().regionMatches(true, 0, "name", 0, 4)
+                && line.toLowerCase().contains("rarity");
+    }
+
+    /**
+     * Splits a line into {@link #FIELDS}, trimming unquoted fields.
+     *
+     * @param line the line to split
+     * @return null on success, or the reason the line is malformed
+     */
+    private String parseRow(String line) {
+        int field = 0;
+        int i = 0;
+        int length = line.length();
+        while (true) {
+            if (field == COLUMNS) {
+                return "expected " + COLUMNS + " columns";
+            }
+            while (i < length && line.charAt(i) == ' ') {
+                i++;
+            }
+            if (i < length && line.charAt(i) == '"') {
+                QUOTED.setLength(0);
+                i++;
+                while (true) {
+                    if (i >= length) {
+                        return "unterminated quoted field";
+                    }
+                    char c = line.charAt(i++);
+                    if (c == '"') {
+                        if (i < length && line.charAt(i) == '"') {
+                            QUOTED.append('"');
+                            i++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        QUOTED.append(c);
+                    }
+                }
+                while (i < length && line.charAt(i) == ' ') {
+                    i++;
+                }
+                if (i < length && line.charAt(i) != ',') {
+                    return "unexpected text after quoted field";
+                }
+                FIELDS[field++] = QUOTED.toString();
+            } else {
+                int end = line.indexOf(',', i);
+                if (end < 0) {
+                    end = length;
+                }
+                FIELDS[field++] = line.substring(i, end).trim();
+                i = end;
+            }
+            if (i >= length) {
+                break;
+            }
+            i++; // skip the comma
+        }
+        return field == COLUMNS ? null : "expected " + COLUMNS + " columns";
+    }
+
+    /**
+     * Builds a card from the parsed {@link #FIELDS}.
+     *
+     * @return the card carrying the row's count, or null with {@link #rowError} set if a field is invalid
+     */
+    private Card toCard() {
+        String name = FIELDS[0];
+        if (name.isBlank()) {
+            rowError = "card name is empty";
+            return null;
+        }
+        Rarity rarity = parseEnum(RARITIES, FIELDS[1]);
+        if (rarity == null) {
+            rowError = "invalid rarity: " + FIELDS[1];
+            return null;
+        }
+        Variation variation = FIELDS[2].isEmpty() ? Variation.NORMAL : parseEnum(VARIATIONS, FIELDS[2]);
+        if (variation == null) {
+            rowError = "invalid variation: " + FIELDS[2];
+            return null;
+        }
+        if (variation != Variation.NORMAL && rarity != Rarity.RARE && rarity != Rarity.LEGENDARY) {
+            rowError = "only rare and legendary cards can have variation " + variation;
+            return null;
+        }
+        BigDecimal baseValue;
+        int count;
+        try {
+            baseValue = new BigDecimal(FIELDS[3]);
+            count = Integer.parseInt(FIELDS[4]);
+        } catch (NumberFormatException e) {
+            rowError = "invalid number in base value or count";
+            return null;
+        }
+        if (baseValue.signum() < 0) {
+            rowError = "base value cannot be negative";
+            return null;
+        }
+        if (count < 1) {
+            rowError = "count must be at least 1";
+            return null;
+        }
+        try {
+            return new Card(name, rarity, variation, baseValue, count);
+        } catch (ArithmeticException e) {
+            rowError = "base value is too large";
+            return null;
+        }
+    }
+
+    /**
+     * Looks up an enum constant by name, ignoring case, without throwing for unknown names.
+     *
+     * @param values the constants to search
+     * @param name   the name to look up
+     * @param <E>    the enum type
+     * @return the matching constant, or null if there is none
+     */
+    private static <E extends Enum<E>> E parseEnum(E[] values, String name) {
+        for (E value : values) {
+            if (value.name().equalsIgnoreCase(name)) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A row that could not be imported.
+     */
+    public static final class Rejection {
+        /**
+         * One-based line number of the row in the input.
+         */
+        private final long LINE_NUMBER;
+
+        /**
+         * The text of the row, or null if it was rejected after parsing.
+         */
+        private final String LINE;
+
+        /**
+         * Why the row was rejected.
+         */
+        private final String REASON;
+
+        /**
+         * Creates a rejection.
+         *
+         * @param lineNumber one-based line number of the row
+         * @param line       the text of the row, or null
+         * @param reason     why the row was rejected
+         */
+        private Rejection(long lineNumber, String line, String reason) {
+            this.LINE_NUMBER = lineNumber;
+            this.LINE = line;
+            this.REASON = reason;
+        }
+
+        /**
+         * @return the one-based line number of the row in the input
+         */
+        public long getLineNumber() {
+            return LINE_NUMBER;
+        }
+
+        /**
+         * @return the text of the row, or null if it was rejected while being added to the collection
+         */
+        public String getLine() {
+            return LINE;
+        }
+
+        /**
+         * @return why the row was rejected
+         */
+        public String getReason() {
+            return REASON;
+        }
+
+        /**
+         * @return a one-line description of the rejection
+         */
+        @Override
+        public String toString() {
+            return "line " + LINE_NUMBER + ": " + REASON;
+        }
+    }
+
+    /**
+     * Outcome of an import: how many rows and copies were added, and which rows were rejected.
+     */
+    public static final class Report {
+        /**
+         * The first rejected rows, up to {@link #MAX_REPORTED_REJECTIONS}.
+         */
+        private final ArrayList<Rejection> REJECTIONS = new ArrayList<>();
+
+        /**
+         * Number of rows added to the collection.
+         */
+        private long rows;
+
+        /**
+         * Number of card copies added to the collection.
+         */
+        private long copies;
+
+        /**
+         * Number of rows rejected, including those not kept in {@link #REJECTIONS}.
+         */
+        private long rejected;
+
+        /**
+         * Creates an empty report.
+         */
+        private Report() {
+        }
+
+        /**
+         * Records a rejected row.
+         *
+         * @param lineNumber one-based line number of the row
+         * @param line       the text of the row, or null
+         * @param reason     why the row was rejected
+         */
+        private void reject(long lineNumber, String line, String reason) {
+            if (REJECTIONS.size() < MAX_REPORTED_REJECTIONS) {
+                REJECTIONS.add(new Rejection(lineNumber, line, reason));
+            }
+            rejected++;
+        }
+
+        /**
+         * @return the number of rows added to the collection
+         */
+        public long getImportedRows() {
+            return rows;
+        }
+
+        /**
+         * @return the number of card copies added to the collection
+         */
+        public long getImportedCopies() {
+            return copies;
+        }
+
+        /**
+         * @return the total number of rejected rows
+         */
+        public long getRejectedRows() {
+            return rejected;
+        }
+
+        /**
+         * @return the first rejected rows in input order, up to {@link #MAX_REPORTED_REJECTIONS}
+         */
+        public List<Rejection> getRejections() {
+            return Collections.unmodifiableList(REJECTIONS);
+        }
+    }
+}
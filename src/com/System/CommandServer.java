@@ -0,0 +1,490 @@
+package com.System;
+
+import com.TradingCard.Card;
+import com.TradingCard.Enums.BinderType;
+import com.TradingCard.Enums.Rarity;
+import com.TradingCard.Enums.Variation;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless front end that serves {@link EnhancedTCIS} operations over a line-delimited text
+ * protocol on a local TCP port, for terminals and batch tools that share one long-lived process.
+ * <p>
+ * Each request is one line of tab-separated fields, the command first, for example
+ * {@code ADD_TO_BINDER<TAB>trades<TAB>Black Lotus}. Each response is one line: {@code OK},
+ * optionally followed by a tab and the result, or {@code ERR}, a tab and the error message.
+ * A client may send any number of requests without waiting; they are executed in order and
+ * the responses come back in the same order. Responses are buffered and only flushed once no
+ * further request is waiting to be read, so a pipelined batch costs a few writes rather than
+ * one per request.
+ * <p>
+ * Every connection is served by its own virtual thread. Requests from different connections
+ * run concurrently against the shared system, which does its own locking.
+ * <p>
+ * The server counts requests and records the time spent executing each one in a power-of-two
+ * histogram, reported by the {@code STATS} command as throughput and latency percentiles.
+ * <p>
+ * Commands, with their fields:
+ * <ul>
+ *     <li>{@code PING}</li>
+ *     <li>{@code STATS}</li>
+ *     <li>{@code QUIT}: closes the connection after responding</li>
+ *     <li>{@code ADD_CARD name rarity variation value [count]}</li>
+ *     <li>{@code REMOVE_CARD name}, {@code INCREMENT_CARD name}, {@code DECREMENT_CARD name},
+ *     {@code SELL_CARD name}</li>
+ *     <li>{@code FIND_CARD name}, {@code CARD_VALUE name}, {@code COMPLETE prefix limit},
+ *     {@code SIMILAR name limit}, {@code LOCATE name}</li>
+ *     <li>{@code CREATE_BINDER name type}, {@code DELETE_BINDER name}, {@code SELL_BINDER name},
+ *     {@code BINDER_VALUE name}, {@code SET_BINDER_PRICE name price}, {@code BINDERS}</li>
+ *     <li>{@code ADD_TO_BINDER binder card}, {@code REMOVE_FROM_BINDER binder card}</li>
+ *     <li>{@code TRADE binder outgoing name rarity variation value force}</li>
+ *     <li>{@code CREATE_DECK name sellable}, {@code DELETE_DECK name}, {@code SELL_DECK name},
+ *     {@code DECK_VALUE name}, {@code DECKS}</li>
+ *     <li>{@code ADD_TO_DECK deck card}, {@code REMOVE_FROM_DECK deck card}</li>
+ *     <li>{@code EARNINGS}, {@code PORTFOLIO_VALUE}</li>
+ * </ul>
+ */
+public class CommandServer implements Closeable {
+    /**
+     * Separator between the fields of a request or response.
+     */
+    private static final char SEPARATOR = '\t';
+
+    /**
+     * Number of latency buckets; bucket {@code i} holds times below {@code 2^i} nanoseconds.
+     */
+    private static final int LATENCY_BUCKETS = Long.SIZE;
+
+    /**
+     * The system the commands are executed against.
+     */
+    private final EnhancedTCIS SYSTEM;
+
+    /**
+     * The listening socket.
+     */
+    private final ServerSocket SERVER_SOCKET;
+
+    /**
+     * Open client connections, closed together with the server.
+     */
+    private final Set<Socket> CONNECTIONS;
+
+    /**
+     * Runs each connection on its own virtual thread, so that {@link #serve()} can wait for them.
+     */
+    private final ExecutorService CONNECTION_THREADS;
+
+    /**
+     * Number of requests executed, including failed ones.
+     */
+    private final LongAdder REQUESTS;
+
+    /**
+     * Number of requests that failed.
+     */
+    private final LongAdder ERRORS;
+
+    /**
+     * Request execution times, counted per power-of-two bucket of nanoseconds.
+     */
+    private final LongAdder[] LATENCIES;
+
+    /**
+     * Time the server started, from {@link System#nanoTime()}.
+     */
+    private final long STARTED_NANOS;
+
+    /**
+     * Opens a server for the given system, listening on the loopback interface.
+     *
+     * @param system the system to serve
+     * @param port   the TCP port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public CommandServer(EnhancedTCIS system, int port) throws IOException {
+        this.SYSTEM = system;
+        this.SERVER_SOCKET = new ServerSocket();
+        this.SERVER_SOCKET.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        this.CONNECTIONS = ConcurrentHashMap.newKeySet();
+        this.CONNECTION_THREADS = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("tcis-connection-", 0).factory());
+        this.REQUESTS = new LongAdder();
+        this.ERRORS = new LongAdder();
+        this.LATENCIES = new LongAdder[LATENCY_BUCKETS];
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            LATENCIES[i] = new LongAdder();
+        }
+        this.STARTED_NANOS = System.nanoTime();
+    }
+
+    /**
+     * @return the port the server is listening on
+     */
+    public int getPort() {
+        return SERVER_SOCKET.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until the server is closed, serving each on its own virtual thread.
+     * Returns only once every connection thread has finished, so no request is still running
+     * against the system when the caller goes on to save it.
+     *
+     * @throws IOException if accepting fails for a reason other than the server being closed
+     */
+    public void serve() throws IOException {
+        try {
+            while (!SERVER_SOCKET.isClosed()) {
+                Socket socket;
+                try {
+                    socket = SERVER_SOCKET.accept();
+                } catch (SocketException e) {
+                    if (SERVER_SOCKET.isClosed()) {
+                        return;
+                    }
+                    throw e;
+                }
+                socket.setTcpNoDelay(true);
+                CONNECTIONS.add(socket);
+                if (SERVER_SOCKET.isClosed()) {
+                    // close() may have missed a connection accepted while it ran
+                    socket.close();
+                }
+                CONNECTION_THREADS.execute(() -> handle(socket));
+            }
+        } finally {
+            // shuts down and waits for the connection threads, which end once their sockets close
+            CONNECTION_THREADS.close();
+        }
+    }
+
+    /**
+     * Stops accepting connections and closes every open connection. A request already running
+     * finishes, and {@link #serve()} returns once it has.
+     *
+     * @throws IOException if the listening socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        SERVER_SOCKET.close();
+        for (Socket socket : CONNECTIONS) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // the connection is being torn down anyway
+            }
+        }
+    }
+
+    /**
+     * Serves one connection until the client disconnects or sends {@code QUIT}.
+     *
+     * @param socket the client connection
+     */
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] fields = line.split(String.valueOf(SEPARATOR), -1);
+                if (fields[0].equals("QUIT")) {
+                    out.write("OK\n");
+                    break;
+                }
+                out.write(respond(fields));
+                out.write('\n');
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException ignored) {
+            // the client went away; nothing is left to answer
+        } finally {
+            CONNECTIONS.remove(socket);
+        }
+    }
+
+    /**
+     * Executes one request, timing it, and formats the response line.
+     *
+     * @param fields the request fields, command first
+     * @return the response line, without the line terminator
+     */
+    private String respond(String[] fields) {
+        long start = System.nanoTime();
+        String response;
+        try {
+            String result = execute(fields);
+            response = result == null ? "OK" : "OK" + SEPARATOR + result;
+        } catch (RuntimeException e) {
+            ERRORS.increment();
+            String message = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            response = "ERR" + SEPARATOR + message.replace('\n', ' ');
+        }
+        long elapsed = System.nanoTime() - start;
+        REQUESTS.increment();
+        LATENCIES[LATENCY_BUCKETS - Long.numberOfLeadingZeros(Math.max(elapsed, 1))].increment();
+        return response;
+    }
+
+    /**
+     * Executes one command against the system.
+     *
+     * @param fields the request fields, command first
+     * @return the result to send back, or null if there is none
+     * @throws IllegalArgumentException if the command is unknown or its fields are malformed
+     */
+    private String execute(String[] fields) {
+        String command = fields[0];
+        switch (command) {
+            case "PING" -> {
+                expect(fields, 1);
+                return "PONG";
+            }
+            case "STATS" -> {
+                expect(fields, 1);
+                return stats();
+            }
+            case "ADD_CARD" -> {
+                if (fields.length != 5 && fields.length != 6) {
+                    throw new IllegalArgumentException("ADD_CARD expects 4 or 5 fields");
+                }
+                int count = fields.length == 6 ? Integer.parseInt(fields[5]) : 1;
+                SYSTEM.addCopiesToCollection(parseCard(fields, 1, count));
+                return null;
+            }
+            case "REMOVE_CARD" -> {
+                expect(fields, 2);
+                SYSTEM.removeSingleCardFromCollection(fields[1]);
+                return null;
+            }
+            case "INCREMENT_CARD" -> {
+                expect(fields, 2);
+                SYSTEM.incrementCardInCollection(fields[1]);
+                return null;
+            }
+            case "DECREMENT_CARD" -> {
+                expect(fields, 2);
+                SYSTEM.decrementCardInCollection(fields[1]);
+                return null;
+            }
+            case "SELL_CARD" -> {
+                expect(fields, 2);
+                SYSTEM.sellCard(fields[1]);
+                return null;
+            }
+            case "FIND_CARD" -> {
+                expect(fields, 2);
+                Card card = SYSTEM.findCardByNameInCollection(fields[1]);
+                return card == null ? "NOT_FOUND" : card.toString();
+            }
+            case "COMPLETE" -> {
+                expect(fields, 3);
+                return String.join(String.valueOf(SEPARATOR),
+                        SYSTEM.completeCardName(fields[1], Integer.parseInt(fields[2].trim())));
+            }
+            case "SIMILAR" -> {
+                expect(fields, 3);
+                return String.join(String.valueOf(SEPARATOR),
+                        SYSTEM.suggestCardNames(fields[1], Integer.parseInt(fields[2].trim())));
+            }
+            case "LOCATE" -> {
+                expect(fields, 2);
+                ArrayList<String> located = new ArrayList<>();
+                located.add("loose=" + SYSTEM.countLooseCopies(fields[1]));
+                located.add("contained=" + SYSTEM.countCopiesInContainers(fields[1]));
+                located.addAll(SYSTEM.findCardLocations(fields[1]));
+                return String.join(String.valueOf(SEPARATOR), located);
+            }
+            case "CARD_VALUE" -> {
+                expect(fields, 2);
+                return SYSTEM.getCardValue(fields[1]).toPlainString();
+            }
+            case "CREATE_BINDER" -> {
+                expect(fields, 3);
+                SYSTEM.createBinder(fields[1], BinderType.valueOf(fields[2].trim().toUpperCase()));
+                return null;
+            }
+            case "DELETE_BINDER" -> {
+                expect(fields, 2);
+                SYSTEM.deleteBinder(fields[1]);
+                return null;
+            }
+            case "SELL_BINDER" -> {
+                expect(fields, 2);
+                SYSTEM.sellBinder(fields[1]);
+                return null;
+            }
+            case "BINDER_VALUE" -> {
+                expect(fields, 2);
+                return SYSTEM.getBinderValue(fields[1]).toPlainString();
+            }
+            case "SET_BINDER_PRICE" -> {
+                expect(fields, 3);
+                SYSTEM.setBinderPrice(fields[1], new BigDecimal(fields[2].trim()));
+                return null;
+            }
+            case "BINDERS" -> {
+                expect(fields, 1);
+                return String.join(String.valueOf(SEPARATOR), SYSTEM.getBinderNames());
+            }
+            case "ADD_TO_BINDER" -> {
+                expect(fields, 3);
+                SYSTEM.addCardToBinder(fields[1], fields[2]);
+                return null;
+            }
+            case "REMOVE_FROM_BINDER" -> {
+                expect(fields, 3);
+                SYSTEM.removeCardFromBinder(fields[1], fields[2]);
+                return null;
+            }
+            case "TRADE" -> {
+                expect(fields, 8);
+                Card incoming = parseCard(fields, 3, 1);
+                return Boolean.toString(SYSTEM.tradeCard(fields[1], fields[2], incoming,
+                        Boolean.parseBoolean(fields[7].trim())));
+            }
+            case "CREATE_DECK" -> {
+                expect(fields, 3);
+                SYSTEM.createDeck(fields[1], Boolean.parseBoolean(fields[2].trim()));
+                return null;
+            }
+            case "DELETE_DECK" -> {
+                expect(fields, 2);
+                SYSTEM.deleteDeck(fields[1]);
+                return null;
+            }
+            case "SELL_DECK" -> {
+                expect(fields, 2);
+                SYSTEM.sellDeck(fields[1]);
+                return null;
+            }
+            case "DECK_VALUE" -> {
+                expect(fields, 2);
+                return SYSTEM.getDeckValue(fields[1]).toPlainString();
+            }
+            case "DECKS" -> {
+                expect(fields, 1);
+                return String.join(String.valueOf(SEPARATOR), SYSTEM.getDeckNames());
+            }
+            case "ADD_TO_DECK" -> {
+                expect(fields, 3);
+                SYSTEM.addCardToDeck(fields[1], fields[2]);
+                return null;
+            }
+            case "REMOVE_FROM_DECK" -> {
+                expect(fields, 3);
+                SYSTEM.removeCardFromDeck(fields[1], fields[2]);
+                return null;
+            }
+            case "EARNINGS" -> {
+                expect(fields, 1);
+                return SYSTEM.getCollectorEarnings().toPlainString();
+            }
+            case "PORTFOLIO_VALUE" -> {
+                expect(fields, 1);
+                return SYSTEM.getPortfolioValue().toPlainString();
+            }
+            default -> throw new IllegalArgumentException("unknown command: " + command);
+        }
+    }
+
+    /**
+     * Checks that a request has exactly the expected number of fields, command included.
+     *
+     * @param fields   the request fields
+     * @param expected the expected number of fields
+     * @throws IllegalArgumentException if the number of fields differs
+     */
+    private static void expect(String[] fields, int expected) {
+        if (fields.length != expected) {
+            throw new IllegalArgumentException(fields[0] + " expects " + (expected - 1) + " fields");
+        }
+    }
+
+    /**
+     * Builds a card from four consecutive fields: name, rarity, variation, and base value.
+     *
+     * @param fields the request fields
+     * @param from   the position of the name field
+     * @param count  the card's initial count
+     * @return the new card
+     * @throws IllegalArgumentException if a field is malformed
+     */
+    private static Card parseCard(String[] fields, int from, int count) {
+        Rarity rarity = Rarity.valueOf(fields[from + 1].trim().toUpperCase());
+        Variation variation = Variation.valueOf(fields[from + 2].trim().toUpperCase());
+        return new Card(fields[from], rarity, variation, new BigDecimal(fields[from + 3].trim()), count);
+    }
+
+    /**
+     * Formats the request counters and latency percentiles.
+     *
+     * @return the statistics as tab-separated {@code key=value} pairs
+     */
+    private String stats() {
+        long requests = REQUESTS.sum();
+        double seconds = (System.nanoTime() - STARTED_NANOS) / 1e9;
+        return "requests=" + requests
+                + SEPARATOR + "errors=" + ERRORS.sum()
+                + SEPARATOR + "connections=" + CONNECTIONS.size()
+                + SEPARATOR + "throughput_per_s=" + Math.round(requests / seconds)
+                + SEPARATOR + "p50_us=" + percentileMicros(0.50)
+                + SEPARATOR + "p99_us=" + percentileMicros(0.99)
+                + SEPARATOR + "p999_us=" + percentileMicros(0.999);
+    }
+
+    /**
+     * Estimates a latency percentile as the upper bound of the bucket it falls into,
+     * so the estimate is at most twice the true value.
+     *
+     * @param fraction the percentile, between 0 and 1
+     * @return the estimated latency in microseconds, or 0 if no request was executed
+     */
+    private double percentileMicros(double fraction) {
+        long[] counts = new long[LATENCY_BUCKETS];
+        long total = 0;
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            counts[i] = LATENCIES[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.scalb(1.0, i) / 1000;
+            }
+        }
+        return Math.scalb(1.0, LATENCY_BUCKETS - 1) / 1000;
+    }
+}
@@ -5,7 +5,10 @@ import com.TradingCard.Enums.BinderType;
 import com.TradingCard.Enums.Rarity;
 import com.TradingCard.Enums.Variation;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
 
 /**
  * Controller for the Trading Card Inventory System (TCIS).
@@ -14,6 +17,11 @@ import java.math.BigDecimal;
  * Handles user input, invokes model operations, and delegates display to the View.
  */
 public class Controller {
+    /**
+     * The most completions listed for a partly typed card name.
+     */
+    private static final int MAX_COMPLETIONS = 10;
+
     /**
      * The View component handling all CLI input/output.
      */
@@ -43,7 +51,7 @@ public class Controller {
     public void run() {
         boolean exitFlag = false;
         while (!exitFlag) {
-            boolean hasCards = !INVENTORY_SYSTEM.getCardCollection().getSortedCopy().isEmpty();
+            boolean hasCards = !INVENTORY_SYSTEM.getCardCollection().isEmpty();
             boolean hasBinders = !INVENTORY_SYSTEM.getBinderNames().isEmpty();
             boolean hasDecks = !INVENTORY_SYSTEM.getDeckNames().isEmpty();
             VIEW.showMainMenu(hasCards, hasBinders, hasDecks, INVENTORY_SYSTEM.getCollectorEarnings());
@@ -54,9 +62,10 @@ public class Controller {
                     case "1" -> handleAddCard();
                     case "2" -> { if (!hasBinders) handleCreateBinder(); else handleManageBinderMenu(); }
                     case "3" -> { if (!hasDecks) handleCreateDeck(); else handleManageDeckMenu(); }
-                    case "4" -> { if (hasCards) handleViewCollection(); else exitFlag = true; }
-                    case "5" -> { if (hasCards) handleAdjustCount(); else invalid(); }
-                    case "6" -> { if (hasCards) exitFlag = true; else invalid(); }
+                    case "4" -> { if (hasCards) handleViewCollection(); else handleImportCards(); }
+                    case "5" -> { if (hasCards) handleAdjustCount(); else exitFlag = true; }
+                    case "6" -> { if (hasCards) handleImportCards(); else invalid(); }
+                    case "7" -> { if (hasCards) exitFlag = true; else invalid(); }
                     default  -> invalid();
                 }
             } catch (Exception e) {
@@ -146,6 +155,27 @@ public class Controller {
         return c.getName();
     }
 
+    /**
+     * Prompts for a CSV file and imports its rows into the collection,
+     * then reports how many rows were added and which were rejected.
+     *
+     * @throws IOException if the file cannot be read
+     */
+    private void handleImportCards() throws IOException {
+        String path = promptInput("input csv file path (or 'cancel' to abort): ");
+        if (path == null || path.trim().equalsIgnoreCase("cancel")) {
+            return;
+        }
+        CardImporter.Report report = new CardImporter(INVENTORY_SYSTEM).importCsv(Path.of(path.trim()));
+        VIEW.showMessage("imported " + report.getImportedRows() + " rows (" + report.getImportedCopies() + " copies)");
+        if (report.getRejectedRows() > 0) {
+            VIEW.showError(report.getRejectedRows() + " rows rejected");
+            for (CardImporter.Rejection rejection : report.getRejections()) {
+                VIEW.showError(rejection.toString());
+            }
+        }
+    }
+
     /**
      * Prompts to create a new Binder by name and type.
      */
@@ -203,7 +233,7 @@ public class Controller {
      */
     private void handleAdjustCount() {
         VIEW.showCollection(INVENTORY_SYSTEM.getCardCollection());
-        String name = promptInput("card name: ").trim().toLowerCase();
+        String name = promptCardName().trim().toLowerCase();
         if (INVENTORY_SYSTEM.findCardByNameInCollection(name) == null) {
             throw new IllegalArgumentException("card \"" + name + "\" not found in collection!");
         }
@@ -230,16 +260,21 @@ public class Controller {
             choice = prompt();
             switch (choice) {
                 case "1" -> {
-                    cardName = promptInput("card name: ");
+                    cardName = promptCardName();
                     c = INVENTORY_SYSTEM.findCardByNameInCollection(cardName);
                     if (c == null) {
                         invalid();
                     } else {
                         VIEW.showCardDetails(c.toString());
+                        ArrayList<String> locations = INVENTORY_SYSTEM.findCardLocations(c.getName());
+                        if (!locations.isEmpty()) {
+                            VIEW.showMessage(INVENTORY_SYSTEM.countCopiesInContainers(c.getName())
+                                    + " more in: " + String.join(", ", locations));
+                        }
                     }
                 }
                 case "2" -> {
-                    cardName = promptInput("card name: ");
+                    cardName = promptCardName();
                     VIEW.showMessage("card value: $" + INVENTORY_SYSTEM.getCardValue(cardName));
                     if(VIEW.confirm("Are you sure you want to sell this card? (yes/no): ")) {
                         INVENTORY_SYSTEM.sellCard(cardName);
@@ -380,6 +415,50 @@ public class Controller {
         return VIEW.readLine(msg);
     }
 
+    /**
+     * Prompts for the name of a card in the collection, completing partly typed names.
+     * A prefix of exactly one card's name selects that card; a prefix of several lists
+     * them and prompts again. Input that is not a prefix of any name is taken as a typo,
+     * and the closest names are offered instead.
+     *
+     * @return the completed or corrected name, or the input as typed if nothing in the collection matches it
+     */
+    private String promptCardName() {
+        String name = promptInput("card name: ");
+        while (name != null && !name.isBlank() && INVENTORY_SYSTEM.findCardByNameInCollection(name) == null) {
+            ArrayList<String> completions = INVENTORY_SYSTEM.completeCardName(name, MAX_COMPLETIONS);
+            if (completions.isEmpty()) {
+                return promptCorrection(name);
+            }
+            if (completions.size() == 1) {
+                VIEW.showMessage("card: " + completions.get(0));
+                return completions.get(0);
+            }
+            VIEW.showCompletions(completions);
+            name = promptInput("card name: ");
+        }
+        return name;
+    }
+
+    /**
+     * Offers the collection names closest to a misspelled card name.
+     *
+     * @param name the name as typed
+     * @return the name the user picked, or the input as typed if they picked none
+     */
+    private String promptCorrection(String name) {
+        ArrayList<String> suggestions = INVENTORY_SYSTEM.suggestCardNames(name, MAX_COMPLETIONS);
+        if (suggestions.isEmpty()) {
+            return name;
+        }
+        if (suggestions.size() == 1) {
+            return VIEW.confirm("did you mean " + suggestions.get(0) + "? (yes/no): ") ? suggestions.get(0) : name;
+        }
+        VIEW.showCompletions(suggestions);
+        String choice = promptInput("card name: ");
+        return choice == null || choice.isBlank() ? name : choice;
+    }
+
     /**
      * Displays an error for invalid menu choices.
      */
@@ -393,7 +472,7 @@ public class Controller {
      * @param bName the name of the binder
      */
     private void addCardToBinder(String bName) {
-        String cName = promptInput("card name: ");
+        String cName = promptCardName();
         INVENTORY_SYSTEM.addCardToBinder(bName, cName);
         VIEW.showMessage("added to binder");
     }
@@ -447,7 +526,7 @@ public class Controller {
      * @param deckName the name of the deck
      */
     private void addCardToDeck(String deckName) {
-        String name = promptInput("card name: ");
+        String name = promptCardName();
         INVENTORY_SYSTEM.addCardToDeck(deckName, name);
         VIEW.showMessage("added to deck");
     }
@@ -480,7 +559,7 @@ public class Controller {
             int idx = Integer.parseInt(choice) - 1;
             c = d.getCardAtIndex(idx);
         } else {
-            c = d.findByCardName(choice);
+            c = d.findByCardName(choice, INVENTORY_SYSTEM.getCardCollection(), InventorySystem.MAX_TYPO_DISTANCE);
         }
         VIEW.showCardDetails(c.toString());
     }
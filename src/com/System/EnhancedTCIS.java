@@ -1,28 +1,34 @@
 package com.System;
 
+import com.TradingCard.Binder;
+import com.TradingCard.Deck;
 import com.TradingCard.Sellable;
 import java.math.BigDecimal;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * EnhancedTCIS extends the core InventorySystem to provide functionality
  * for tracking and accumulating total earnings from selling cards, decks, and binders.
  * <p>
  * This subclass introduces a collectorEarnings field which reflects the total value
- * gained through all sales operations made through this instance.
+ * gained through all sales operations made through this instance. Earnings from sales
+ * made on several threads at once are all counted.
  */
 public class EnhancedTCIS extends InventorySystem {
     /**
      * Used to store the user's earnings when selling cards, decks or binders.
      */
-    private BigDecimal collectorEarnings;
+    private final AtomicReference<BigDecimal> collectorEarnings;
 
     /**
      * Constructs a new EnhancedTCIS with zero collector earnings.
      */
     public EnhancedTCIS() {
         super();
-        this.collectorEarnings = BigDecimal.ZERO;
+        this.collectorEarnings = new AtomicReference<>(BigDecimal.ZERO);
     }
 
     /**
@@ -33,8 +39,22 @@ public class EnhancedTCIS extends InventorySystem {
      * @throws IllegalStateException if the binder is not sellable
      */
     public void sellBinder(String binderName) {
-        BigDecimal earnings = BINDER_MANAGER.sellBinder(binderName);
-        this.collectorEarnings = this.collectorEarnings.add(earnings);
+        ReentrantLock names = BINDER_MANAGER.getLock();
+        names.lock();
+        try {
+            Binder binder = lockBinder(binderName);
+            try {
+                BigDecimal earnings = BINDER_MANAGER.sellBinder(binderName);
+                this.collectorEarnings.accumulateAndGet(earnings, BigDecimal::add);
+                if (journal != null) {
+                    journal.recordName(OperationJournal.SELL_BINDER, binderName);
+                }
+            } finally {
+                binder.getLock().unlock();
+            }
+        } finally {
+            names.unlock();
+        }
     }
 
     /**
@@ -45,8 +65,22 @@ public class EnhancedTCIS extends InventorySystem {
      * @throws IllegalStateException if the deck is not sellable
      */
     public void sellDeck(String deckName) {
-        BigDecimal earnings = DECK_MANAGER.sellDeck(deckName);
-        this.collectorEarnings = this.collectorEarnings.add(earnings);
+        ReentrantLock names = DECK_MANAGER.getLock();
+        names.lock();
+        try {
+            Deck deck = lockDeck(deckName);
+            try {
+                BigDecimal earnings = DECK_MANAGER.sellDeck(deckName);
+                this.collectorEarnings.accumulateAndGet(earnings, BigDecimal::add);
+                if (journal != null) {
+                    journal.recordName(OperationJournal.SELL_DECK, deckName);
+                }
+            } finally {
+                deck.getLock().unlock();
+            }
+        } finally {
+            names.unlock();
+        }
     }
 
     /**
@@ -59,7 +93,15 @@ public class EnhancedTCIS extends InventorySystem {
      * @throws ClassCastException     if the binder is not a {@code LuxuryBinder}
      */
     public void setBinderPrice(String name, BigDecimal value) {
-        BINDER_MANAGER.setCustomPrice(name, value);
+        Binder binder = lockBinder(name);
+        try {
+            BINDER_MANAGER.setCustomPrice(name, value);
+            if (journal != null) {
+                journal.recordBinderPrice(name, value);
+            }
+        } finally {
+            binder.getLock().unlock();
+        }
     }
 
     /**
@@ -92,10 +134,19 @@ public class EnhancedTCIS extends InventorySystem {
      *
      * @param cardName name of the card to sell
      * @throws NoSuchElementException if no card with the given name exists
+     * @throws IllegalStateException  if no copies of the card remain
      */
     public void sellCard(String cardName) {
-        BigDecimal earnings = CARD_COLLECTION.sellCardByName(cardName);
-        this.collectorEarnings = this.collectorEarnings.add(earnings);
+        long stripes = CARD_COLLECTION.lockStripe(cardName);
+        try {
+            BigDecimal earnings = CARD_COLLECTION.sellCardByName(cardName);
+            this.collectorEarnings.accumulateAndGet(earnings, BigDecimal::add);
+            if (journal != null) {
+                journal.recordName(OperationJournal.SELL_CARD, cardName);
+            }
+        } finally {
+            CARD_COLLECTION.unlockStripes(stripes);
+        }
     }
 
     /**
@@ -104,7 +155,48 @@ public class EnhancedTCIS extends InventorySystem {
      * @return the current collector earnings
      */
     public BigDecimal getCollectorEarnings() {
-        return this.collectorEarnings;
+        return this.collectorEarnings.get();
+    }
+
+    /**
+     * Replaces the accumulated earnings, used when restoring saved state.
+     *
+     * @param earnings the earnings to restore
+     */
+    void restoreCollectorEarnings(BigDecimal earnings) {
+        this.collectorEarnings.set(earnings);
+    }
+
+    /**
+     * Computes the total net worth of the inventory in the common fork/join pool.
+     *
+     * @return the portfolio value
+     * @see #getPortfolioValue(ForkJoinPool)
+     */
+    public BigDecimal getPortfolioValue() {
+        return getPortfolioValue(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the total net worth of the inventory: the value of every copy in the collection,
+     * plus what every sellable binder and deck would sell for right now, handling fees and
+     * luxury custom prices included. Binders and decks that cannot be sold are left out.
+     * <p>
+     * The collection, the binders, and the decks are each split over the pool's workers and
+     * summed as fixed-point longs, so no {@link BigDecimal} is created per card or container.
+     * Changes made while the valuation runs may or may not be included.
+     *
+     * @param pool the pool to run the valuation in
+     * @return the portfolio value, with two decimal places unless a fee or custom price needs more
+     * @throws ArithmeticException if the total does not fit in a long
+     */
+    public BigDecimal getPortfolioValue(ForkJoinPool pool) {
+        long collection = Math.multiplyExact(CARD_COLLECTION.getTotalValueCents(pool), 100L);
+        long total = Math.addExact(collection,
+                Math.addExact(BINDER_MANAGER.sumSalePrices(pool), DECK_MANAGER.sumSalePrices(pool)));
+        return total % 100 == 0
+                ? BigDecimal.valueOf(total / 100, 2)
+                : BigDecimal.valueOf(total, Sellable.SALE_PRICE_SCALE);
     }
 
     /**
@@ -0,0 +1,489 @@
+package com.System;
+
+import com.TradingCard.Binder;
+import com.TradingCard.Card;
+import com.TradingCard.Deck;
+import com.TradingCard.Sellable;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Streaming exporter that writes the inventory of an {@link InventorySystem} as CSV or JSON lines.
+ * <p>
+ * Every collection card becomes a {@code card} record, and every binder and deck a
+ * {@code binder} or {@code deck} record with its type and number of cards. With membership
+ * enabled, each container record is followed by {@code binder_card} or {@code deck_card}
+ * records for the cards it holds; identical binder cards are merged into one record with a
+ * count. With values enabled, records also carry the card's adjusted value or the
+ * container's value.
+ * <p>
+ * CSV output has a header row and the columns {@code record, container, container_type, name,
+ * rarity, variation, base_value, count} and, with values enabled, {@code value}. JSON-lines
+ * output has one object per line and leaves out fields that do not apply to a record.
+ * <p>
+ * Records are encoded straight from the live collections into one fixed-size buffer that is
+ * drained to a channel whenever it fills, so memory use does not depend on the size of the
+ * inventory. The system must not be modified while an export is running.
+ */
+public class InventoryExporter {
+    /**
+     * Output formats supported by the exporter.
+     */
+    public enum Format {
+        /**
+         * Comma-separated values with a header row.
+         */
+        CSV,
+
+        /**
+         * One JSON object per line.
+         */
+        JSON_LINES
+    }
+
+    /**
+     * Size of the output buffer in bytes.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Column names, in CSV column order and used as JSON keys.
+     */
+    private static final String[] COLUMNS = {
+            "record", "container", "container_type", "name", "rarity", "variation", "base_value", "count", "value"
+    };
+
+    /**
+     * Hexadecimal digits for JSON control-character escapes.
+     */
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The system whose inventory is exported.
+     */
+    private final InventorySystem SYSTEM;
+
+    /**
+     * The output format.
+     */
+    private final Format FORMAT;
+
+    /**
+     * Whether records carry card and container values.
+     */
+    private final boolean INCLUDE_VALUES;
+
+    /**
+     * Whether container records are followed by the cards they hold.
+     */
+    private final boolean INCLUDE_MEMBERSHIP;
+
+    /**
+     * Reusable output buffer, drained to {@link #channel} whenever it fills.
+     */
+    private final ByteBuffer BUFFER;
+
+    /**
+     * Channel being written by the current export.
+     */
+    private WritableByteChannel channel;
+
+    /**
+     * Index of the next column of the record being written.
+     */
+    private int column;
+
+    /**
+     * Creates an exporter for the given system.
+     *
+     * @param system            the system to export
+     * @param format            the output format
+     * @param includeValues     whether to include card and container values
+     * @param includeMembership whether to list the cards held by each binder and deck
+     * @throws IllegalArgumentException if format is null
+     */
+    public InventoryExporter(InventorySystem system, Format format, boolean includeValues, boolean includeMembership) {
+        if (format == null) {
+            throw new IllegalArgumentException("Export format cannot be null");
+        }
+        this.SYSTEM = system;
+        this.FORMAT = format;
+        this.INCLUDE_VALUES = includeValues;
+        this.INCLUDE_MEMBERSHIP = includeMembership;
+        this.BUFFER = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    /**
+     * Exports the inventory to a file, replacing any existing content.
+     *
+     * @param path the file to write
+     * @return the number of records written, not counting the CSV header
+     * @throws IOException if the file cannot be written
+     */
+    public long export(Path path) throws IOException {
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            return export(file);
+        }
+    }
+
+    /**
+     * Exports the inventory to a channel, which is left open.
+     *
+     * @param out the channel to write to
+     * @return the number of records written, not counting the CSV header
+     * @throws IOException if writing fails
+     */
+    public long export(WritableByteChannel out) throws IOException {
+        channel = out;
+        BUFFER.clear();
+        long records = 0;
+        try {
+            if (FORMAT == Format.CSV) {
+                int columns = INCLUDE_VALUES ? COLUMNS.length : COLUMNS.length - 1;
+                for (int i = 0; i < columns; i++) {
+                    if (i > 0) {
+                        put((byte) ',');
+                    }
+                    putText(COLUMNS[i]);
+                }
+                put((byte) '\n');
+            }
+
+            for (Card card : SYSTEM.CARD_COLLECTION.getSortedView()) {
+                writeCard("card", null, card, card.getCount());
+                records++;
+            }
+
+            for (Binder binder : SYSTEM.BINDER_MANAGER.getBinders()) {
+                List<Card> cards = binder.getSortedView();
+                writeContainer("binder", binder.getName(), binder.getType().name(), cards.size(),
+                        binder instanceof Sellable sellable ? sellable.getValue() : cents(binder.getTotalValueCents()));
+                records++;
+                if (INCLUDE_MEMBERSHIP) {
+                    // the binder is sorted by name, so identical cards are adjacent
+                    for (int i = 0; i < cards.size(); ) {
+                        Card card = cards.get(i);
+                        int end = i + 1;
+                        while (end < cards.size() && cards.get(end).equals(card)) {
+                            end++;
+                        }
+                        writeCard("binder_card", binder.getName(), card, end - i);
+                        records++;
+                        i = end;
+                    }
+                }
+            }
+
+            for (Deck deck : SYSTEM.DECK_MANAGER.getDecks()) {
+                List<Card> cards = deck.getCardsView();
+                writeContainer("deck", deck.getName(), deck instanceof Sellable ? "SELLABLE" : "STANDARD",
+                        cards.size(),
+                        deck instanceof Sellable sellable ? sellable.getValue() : cents(deck.getTotalValueCents()));
+                records++;
+                if (INCLUDE_MEMBERSHIP) {
+                    for (Card card : cards) {
+                        writeCard("deck_card", deck.getName(), card, 1);
+                        records++;
+                    }
+                }
+            }
+            drain();
+        } finally {
+            channel = null;
+        }
+        return records;
+    }
+
+    /**
+     * Writes a record describing a card.
+     *
+     * @param record    the record kind
+     * @param container the binder or deck holding the card, or null for the collection
+     * @param card      the card
+     * @param count     the number of copies described by the record
+     * @throws IOException if writing fails
+     */
+    private void writeCard(String record, String container, Card card, int count) throws IOException {
+        beginRecord(record);
+        textField(container);
+        textField(null);
+        textField(card.getName());
+        textField(card.getRarity() == null ? null : card.getRarity().name());
+        textField(card.getVariation().name());
+        numberField(card.getBaseValue().toPlainString());
+        numberField(Integer.toString(count));
+        if (INCLUDE_VALUES) {
+            numberField(card.getValue().toPlainString());
+        }
+        endRecord();
+    }
+
+    /**
+     * Writes a record describing a binder or deck.
+     *
+     * @param record    the record kind
+     * @param name      the container name
+     * @param type      the container type
+     * @param cardCount the number of cards in the container
+     * @param value     the container's value
+     * @throws IOException if writing fails
+     */
+    private void writeContainer(String record, String name, String type, int cardCount, BigDecimal value)
+            throws IOException {
+        beginRecord(record);
+        textField(name);
+        textField(type);
+        textField(null);
+        textField(null);
+        textField(null);
+        numberField(null);
+        numberField(Integer.toString(cardCount));
+        if (INCLUDE_VALUES) {
+            numberField(value.toPlainString());
+        }
+        endRecord();
+    }
+
+    /**
+     * Converts a whole number of cents into a decimal amount.
+     *
+     * @param cents the amount in cents
+     * @return the amount with two decimal places
+     */
+    private static BigDecimal cents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Starts a record and writes its kind as the first column.
+     *
+     * @param record the record kind
+     * @throws IOException if writing fails
+     */
+    private void beginRecord(String record) throws IOException {
+        column = 0;
+        if (FORMAT == Format.JSON_LINES) {
+            put((byte) '{');
+        }
+        textField(record);
+    }
+
+    /**
+     * Ends the current record and its line.
+     *
+     * @throws IOException if writing fails
+     */
+    private void endRecord() throws IOException {
+        if (FORMAT == Format.JSON_LINES) {
+            put((byte) '}');
+        }
+        put((byte) '\n');
+    }
+
+    /**
+     * Writes the next column as text, escaped for the output format.
+     *
+     * @param value the text, or null if the column does not apply to this record
+     * @throws IOException if writing fails
+     */
+    private void textField(String value) throws IOException {
+        if (!beginField(value)) {
+            return;
+        }
+        if (FORMAT == Format.JSON_LINES) {
+            put((byte) '"');
+            putJsonEscaped(value);
+            put((byte) '"');
+        } else if (needsCsvQuotes(value)) {
+            put((byte) '"');
+            for (int i = 0; i < value.length(); ) {
+                if (value.charAt(i) == '"') {
+                    put((byte) '"');
+                }
+                i += putChar(value, i);
+            }
+            put((byte) '"');
+        } else {
+            putText(value);
+        }
+    }
+
+    /**
+     * Writes the next column as a number, which needs no escaping in either format.
+     *
+     * @param value the number's text, or null if the column does not apply to this record
+     * @throws IOException if writing fails
+     */
+    private void numberField(String value) throws IOException {
+        if (beginField(value)) {
+            putText(value);
+        }
+    }
+
+    /**
+     * Writes the separator and, for JSON, the key that precede the next column.
+     *
+     * @param value the column value, or null if it does not apply to this record
+     * @return true if the value itself should now be written
+     * @throws IOException if writing fails
+     */
+    private boolean beginField(String value) throws IOException {
+        int index = column++;
+        if (FORMAT == Format.CSV) {
+            if (index > 0) {
+                put((byte) ',');
+            }
+            return value != null;
+        }
+        if (value == null) {
+            return false;
+        }
+        if (index > 0) {
+            put((byte) ',');
+        }
+        put((byte) '"');
+        putText(COLUMNS[index]);
+        put((byte) '"');
+        put((byte) ':');
+        return true;
+    }
+
+    /**
+     * Checks whether a CSV field must be quoted.
+     *
+     * @param value the field text
+     * @return true if the text contains a separator, quote, or line break
+     */
+    private static boolean needsCsvQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes text with JSON string escapes applied.
+     *
+     * @param value the text to write
+     * @throws IOException if writing fails
+     */
+    private void putJsonEscaped(String value) throws IOException {
+        for (int i = 0; i < value.length(); ) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                put((byte) '\\');
+                put((byte) c);
+                i++;
+            } else if (c < 0x20) {
+                put((byte) '\\');
+                put((byte) 'u');
+                put((byte) '0');
+                put((byte) '0');
+                put(HEX[c >> 4]);
+                put(HEX[c & 0xF]);
+                i++;
+            } else {
+                i += putChar(value, i);
+            }
+        }
+    }
+
+    /**
+     * Writes text as UTF-8 without escaping.
+     *
+     * @param value the text to write
+     * @throws IOException if writing fails
+     */
+    private void putText(String value) throws IOException {
+        for (int i = 0; i < value.length(); ) {
+            i += putChar(value, i);
+        }
+    }
+
+    /**
+     * Writes the character at a position as UTF-8, together with the next one if they form
+     * a surrogate pair. Unpaired surrogates are written as {@code ?}, as by {@link String#getBytes}.
+     *
+     * @param value the text to write from
+     * @param index the position of the character
+     * @return the number of characters consumed, 1 or 2
+     * @throws IOException if writing fails
+     */
+    private int putChar(String value, int index) throws IOException {
+        char c = value.charAt(index);
+        if (c < 0x80) {
+            put((byte) c);
+        } else if (c < 0x800) {
+            ensure(2);
+            BUFFER.put((byte) (0xC0 | c >> 6));
+            BUFFER.put((byte) (0x80 | c & 0x3F));
+        } else if (!Character.isSurrogate(c)) {
+            ensure(3);
+            BUFFER.put((byte) (0xE0 | c >> 12));
+            BUFFER.put((byte) (0x80 | c >> 6 & 0x3F));
+            BUFFER.put((byte) (0x80 | c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1))) {
+            int codePoint = Character.toCodePoint(c, value.charAt(index + 1));
+            ensure(4);
+            BUFFER.put((byte) (0xF0 | codePoint >> 18));
+            BUFFER.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+            BUFFER.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+            BUFFER.put((byte) (0x80 | codePoint & 0x3F));
+            return 2;
+        } else {
+            put((byte) '?');
+        }
+        return 1;
+    }
+
+    /**
+     * Writes a single byte.
+     *
+     * @param b the byte to write
+     * @throws IOException if draining the buffer fails
+     */
+    private void put(byte b) throws IOException {
+        if (!BUFFER.hasRemaining()) {
+            drain();
+        }
+        BUFFER.put(b);
+    }
+
+    /**
+     * Makes room for the given number of bytes in the buffer.
+     *
+     * @param bytes the number of bytes about to be written
+     * @throws IOException if draining the buffer fails
+     */
+    private void ensure(int bytes) throws IOException {
+        if (BUFFER.remaining() < bytes) {
+            drain();
+        }
+    }
+
+    /**
+     * Writes the buffered bytes to the channel and empties the buffer.
+     *
+     * @throws IOException if writing fails
+     */
+    private void drain() throws IOException {
+        BUFFER.flip();
+        while (BUFFER.hasRemaining()) {
+            channel.write(BUFFER);
+        }
+        BUFFER.clear();
+    }
+}
@@ -0,0 +1,450 @@
+package com.System;
+
+import com.TradingCard.Binder;
+import com.TradingCard.Card;
+import com.TradingCard.Deck;
+import com.TradingCard.LuxuryBinder;
+import com.TradingCard.Sellable;
+import com.TradingCard.Enums.BinderType;
+import com.TradingCard.Enums.Rarity;
+import com.TradingCard.Enums.Variation;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Versioned, checksummed binary snapshot of the complete state of an {@link EnhancedTCIS}.
+ * <p>
+ * The snapshot holds the card collection with its counts, every binder (including the custom
+ * price of a {@link LuxuryBinder}), every deck, and the collector earnings. Each distinct card
+ * definition (name, rarity, variation, base value) is stored once in a dictionary, and the
+ * collection, binders, and decks refer to it by index. Monetary values are stored as a scale
+ * and a fixed-point {@code long} unscaled value.
+ * <p>
+ * Snapshots are written to a temporary file and atomically moved into place, and are loaded
+ * through a memory-mapped {@link FileChannel}. Each snapshot also remembers the generation and
+ * length of the {@link OperationJournal} it covers, so that only newer journal records need to
+ * be replayed on top of it.
+ */
+public class InventorySnapshot {
+    /**
+     * File header magic number, "TCS1".
+     */
+    private static final int MAGIC = 0x54435331;
+
+    /**
+     * Version of the snapshot format written by this class.
+     */
+    private static final short VERSION = 1;
+
+    /**
+     * Size of the header: magic, version, journal generation, journal offset, body length, body checksum.
+     */
+    private static final int HEADER_SIZE = Integer.BYTES + Short.BYTES + Long.BYTES * 3 + Integer.BYTES;
+
+    /**
+     * Marker stored instead of a rarity ordinal for cards without a rarity.
+     */
+    private static final byte NO_RARITY = -1;
+
+    /**
+     * Rarities by ordinal, shared by all loads.
+     */
+    private static final Rarity[] RARITIES = Rarity.values();
+
+    /**
+     * Variations by ordinal, shared by all loads.
+     */
+    private static final Variation[] VARIATIONS = Variation.values();
+
+    /**
+     * The system restored from the snapshot.
+     */
+    private final EnhancedTCIS SYSTEM;
+
+    /**
+     * Generation of the journal the snapshot was taken against.
+     */
+    private final long JOURNAL_GENERATION;
+
+    /**
+     * Length of the journal covered by the snapshot.
+     */
+    private final long JOURNAL_OFFSET;
+
+    /**
+     * Creates the result of loading a snapshot.
+     *
+     * @param system            the restored system
+     * @param journalGeneration generation of the journal the snapshot covers
+     * @param journalOffset     length of the journal the snapshot covers
+     */
+    private InventorySnapshot(EnhancedTCIS system, long journalGeneration, long journalOffset) {
+        this.SYSTEM = system;
+        this.JOURNAL_GENERATION = journalGeneration;
+        this.JOURNAL_OFFSET = journalOffset;
+    }
+
+    /**
+     * @return the system restored from the snapshot, with no journal attached
+     */
+    public EnhancedTCIS getSystem() {
+        return SYSTEM;
+    }
+
+    /**
+     * @return the generation of the journal the snapshot was taken against, or 0 if none
+     */
+    public long getJournalGeneration() {
+        return JOURNAL_GENERATION;
+    }
+
+    /**
+     * @return the length of the journal covered by the snapshot, or 0 if none
+     */
+    public long getJournalOffset() {
+        return JOURNAL_OFFSET;
+    }
+
+    /**
+     * Writes a snapshot of the given system, replacing any existing file atomically.
+     * <p>
+     * If a journal is given, it is synced first and its current generation and length are
+     * stored, marking every record appended so far as covered by this snapshot. The system
+     * must not be modified while the snapshot is being written.
+     *
+     * @param system  the system to save
+     * @param path    the snapshot file to write
+     * @param journal the journal attached to the system, or null if there is none
+     * @throws IOException         if the snapshot cannot be written
+     * @throws ArithmeticException if a monetary value does not fit in a fixed-point long
+     */
+    public static void write(EnhancedTCIS system, Path path, OperationJournal journal) throws IOException {
+        long generation = journal == null ? 0 : journal.getGeneration();
+        long offset = journal == null ? 0 : journal.checkpointOffset();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_SIZE);
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(channel), crc), 1 << 16));
+            writeBody(system, out);
+            out.flush();
+            long bodyLength = channel.position() - HEADER_SIZE;
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putShort(VERSION)
+                    .putLong(generation)
+                    .putLong(offset)
+                    .putLong(bodyLength)
+                    .putInt((int) crc.getValue())
+                    .flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Encodes the dictionary, collection, binders, decks, and earnings.
+     * <p>
+     * The collection cards open the dictionary, in name order and followed by their counts.
+     * Since the collection holds each name once, they need no deduplication. Binder and deck
+     * cards are then mapped to the collection entry with the same definition, and only the
+     * definitions the collection lacks are appended to the dictionary.
+     *
+     * @param system the system to save
+     * @param out    the destination stream
+     * @throws IOException if writing fails
+     */
+    private static void writeBody(EnhancedTCIS system, DataOutputStream out) throws IOException {
+        ArrayList<Binder> binders = system.BINDER_MANAGER.getBinders();
+        ArrayList<Deck> decks = system.DECK_MANAGER.getDecks();
+        HashMap<Definition, Integer> ids = new HashMap<>();
+        for (Binder binder : binders) {
+            for (Card card : binder.getSortedView()) {
+                ids.put(new Definition(card), -1);
+            }
+        }
+        for (Deck deck : decks) {
+            for (Card card : deck.getCopyOfCards()) {
+                ids.put(new Definition(card), -1);
+            }
+        }
+
+        int next = 0;
+        out.writeInt(system.CARD_COLLECTION.size());
+        for (Card card : system.CARD_COLLECTION.getSortedView()) {
+            if (!ids.isEmpty()) {
+                ids.replace(new Definition(card), next);
+            }
+            writeDefinition(out, card);
+            out.writeInt(card.getCount());
+            next++;
+        }
+
+        ArrayList<Card> extra = new ArrayList<>();
+        for (var entry : ids.entrySet()) {
+            if (entry.getValue() < 0) {
+                entry.setValue(next++);
+                extra.add(entry.getKey().CARD);
+            }
+        }
+        out.writeInt(extra.size());
+        for (Card card : extra) {
+            writeDefinition(out, card);
+        }
+
+        out.writeInt(binders.size());
+        for (Binder binder : binders) {
+            writeString(out, binder.getName());
+            out.writeByte(binder.getType().ordinal());
+            if (binder instanceof LuxuryBinder luxuryBinder) {
+                writeDecimal(out, luxuryBinder.getCustomPrice());
+            }
+            out.writeInt(binder.getSortedView().size());
+            for (Card card : binder.getSortedView()) {
+                out.writeInt(ids.get(new Definition(card)));
+            }
+        }
+
+        out.writeInt(decks.size());
+        for (Deck deck : decks) {
+            ArrayList<Card> cards = deck.getCopyOfCards();
+            writeString(out, deck.getName());
+            out.writeBoolean(deck instanceof Sellable);
+            out.writeInt(cards.size());
+            for (Card card : cards) {
+                out.writeInt(ids.get(new Definition(card)));
+            }
+        }
+
+        writeDecimal(out, system.getCollectorEarnings());
+    }
+
+    /**
+     * Writes a card's name, rarity, variation, and base value.
+     *
+     * @param out  the destination stream
+     * @param card the card to write
+     * @throws IOException if writing fails
+     */
+    private static void writeDefinition(DataOutputStream out, Card card) throws IOException {
+        writeString(out, card.getName());
+        out.writeByte(card.getRarity() == null ? NO_RARITY : card.getRarity().ordinal());
+        out.writeByte(card.getVariation().ordinal());
+        writeDecimal(out, card.getBaseValue());
+    }
+
+    /**
+     * Loads a snapshot through a memory-mapped view of the file.
+     *
+     * @param path the snapshot file to read
+     * @return the loaded snapshot, including the restored system
+     * @throws IOException if the file cannot be read, has an unknown format, or fails its checksum
+     */
+    public static InventorySnapshot load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("\"" + path + "\" is not a snapshot file");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("\"" + path + "\" is not a snapshot file");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("unsupported snapshot version " + version);
+            }
+            long generation = buffer.getLong();
+            long offset = buffer.getLong();
+            long bodyLength = buffer.getLong();
+            int expected = buffer.getInt();
+            if (bodyLength != channel.size() - HEADER_SIZE) {
+                throw new IOException("snapshot \"" + path + "\" is truncated");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate());
+            if ((int) crc.getValue() != expected) {
+                throw new IOException("snapshot \"" + path + "\" failed its checksum");
+            }
+            try {
+                return new InventorySnapshot(readBody(buffer), generation, offset);
+            } catch (RuntimeException e) {
+                throw new IOException("snapshot \"" + path + "\" could not be restored: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Decodes the body written by {@link #writeBody(EnhancedTCIS, DataOutputStream)}.
+     *
+     * @param in the body, positioned after the header
+     * @return the restored system
+     */
+    private static EnhancedTCIS readBody(ByteBuffer in) {
+        EnhancedTCIS system = new EnhancedTCIS();
+        BinderType[] binderTypes = BinderType.values();
+
+        int collectionSize = in.getInt();
+        ArrayList<Card> collection = new ArrayList<>(collectionSize);
+        for (int i = 0; i < collectionSize; i++) {
+            collection.add(readDefinition(in, -1));
+        }
+        system.CARD_COLLECTION.addAllSorted(collection);
+
+        int extraCount = in.getInt();
+        Card[] dictionary = collection.toArray(new Card[collectionSize + extraCount]);
+        for (int i = collectionSize; i < dictionary.length; i++) {
+            dictionary[i] = readDefinition(in, 1);
+        }
+
+        int binderCount = in.getInt();
+        for (int i = 0; i < binderCount; i++) {
+            String name = readString(in);
+            BinderType type = binderTypes[in.get()];
+            system.BINDER_MANAGER.createBinder(name, type);
+            Binder binder = system.BINDER_MANAGER.findBinderByName(name);
+            if (binder instanceof LuxuryBinder luxuryBinder) {
+                // set while the binder is still empty, since its value may have grown past the price since
+                luxuryBinder.setCustomPrice(readDecimal(in));
+            }
+            int cardCount = in.getInt();
+            for (int j = 0; j < cardCount; j++) {
+                if (!binder.addCard(Card.copyCard(dictionary[in.getInt()]))) {
+                    throw new IllegalStateException("binder \"" + name + "\" rejected a saved card");
+                }
+            }
+        }
+
+        int deckCount = in.getInt();
+        for (int i = 0; i < deckCount; i++) {
+            String name = readString(in);
+            system.DECK_MANAGER.createDeck(name, in.get() != 0);
+            Deck deck = system.DECK_MANAGER.findDeckByName(name);
+            int cardCount = in.getInt();
+            for (int j = 0; j < cardCount; j++) {
+                if (!deck.addCard(Card.copyCard(dictionary[in.getInt()]))) {
+                    throw new IllegalStateException("deck \"" + name + "\" rejected a saved card");
+                }
+            }
+        }
+
+        system.restoreCollectorEarnings(readDecimal(in));
+        return system;
+    }
+
+    /**
+     * Reads a card written by {@link #writeDefinition(DataOutputStream, Card)}.
+     *
+     * @param in    the source buffer
+     * @param count the count to give the card, or a negative value to read it after the definition
+     * @return the decoded card
+     */
+    private static Card readDefinition(ByteBuffer in, int count) {
+        String name = readString(in);
+        byte rarity = in.get();
+        Variation variation = VARIATIONS[in.get()];
+        BigDecimal baseValue = readDecimal(in);
+        return new Card(name, rarity == NO_RARITY ? null : RARITIES[rarity], variation, baseValue,
+                count < 0 ? in.getInt() : count);
+    }
+
+    /**
+     * Writes a length-prefixed UTF-8 string.
+     *
+     * @param out   the destination stream
+     * @param value the string to write
+     * @throws IOException if writing fails
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+     *
+     * @param in the source buffer
+     * @return the decoded string
+     */
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a decimal as its scale followed by its fixed-point unscaled value.
+     *
+     * @param out   the destination stream
+     * @param value the value to write
+     * @throws IOException         if writing fails
+     * @throws ArithmeticException if the unscaled value does not fit in a long
+     */
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        out.writeInt(value.scale());
+        out.writeLong(value.unscaledValue().longValueExact());
+    }
+
+    /**
+     * Reads a decimal written by {@link #writeDecimal(DataOutputStream, BigDecimal)}.
+     *
+     * @param in the source buffer
+     * @return the decoded value
+     */
+    private static BigDecimal readDecimal(ByteBuffer in) {
+        int scale = in.getInt();
+        return BigDecimal.valueOf(in.getLong(), scale);
+    }
+
+    /**
+     * Dictionary key that identifies a card definition by its exact name, rarity, variation,
+     * and base value, ignoring the count.
+     */
+    private static final class Definition {
+        private final Card CARD;
+
+        Definition(Card card) {
+            this.CARD = card;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Definition other)) return false;
+            return CARD.getName().equals(other.CARD.getName())
+                    && CARD.getRarity() == other.CARD.getRarity()
+                    && CARD.getVariation() == other.CARD.getVariation()
+                    && CARD.getBaseValue().equals(other.CARD.getBaseValue());
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = CARD.getName().hashCode();
+            hash = 31 * hash + Objects.hashCode(CARD.getRarity());
+            hash = 31 * hash + CARD.getVariation().hashCode();
+            return 31 * hash + CARD.getBaseValue().hashCode();
+        }
+    }
+}
@@ -6,15 +6,33 @@ import com.TradingCard.Enums.Rarity;
 import com.TradingCard.Enums.Variation;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * InventorySystem serves as the core model for the Trading Card Inventory System (TCIS).
  * <p>
  * It manages a collection of cards, multiple decks, and multiple binders.
  * All business logic for adding, removing, trading, and selling cards flows through this class.
+ * <p>
+ * The system may be shared by several threads; there is no global lock. Operations that touch
+ * both a container and the collection lock the binder or deck first, then the collection
+ * stripe of the card name, so that any two such operations acquire their locks in the same order.
+ * Creating, deleting and selling binders and decks first take the lock of their manager.
+ * <p>
+ * Every mutation is journaled before the locks it took are released: the stripe of each card
+ * whose count it changed, the binder or deck it changed, and the manager lock when it creates,
+ * deletes or sells a container. Two operations touching the same card, container or container
+ * name are therefore journaled in the order they took effect, which is the order replay
+ * applies them in.
  */
 public class InventorySystem {
+    /**
+     * The most edits between a misspelled card name and the names suggested for it.
+     */
+    public static final int MAX_TYPO_DISTANCE = 2;
+
     /**
      * The main collection of cards managed by the system.
      */
@@ -30,13 +48,61 @@ public class InventorySystem {
      */
     protected final BinderManager BINDER_MANAGER;
 
+    /**
+     * Reverse index from card names to the binders and decks holding them, shared by both managers.
+     */
+    protected final CardLocations CARD_LOCATIONS;
+
+    /**
+     * Journal that successful mutations are recorded to, or null if journaling is off.
+     */
+    protected volatile OperationJournal journal;
+
+    /**
+     * Each thread's reusable transaction, created by its first {@link #beginTransaction()}.
+     */
+    private final ThreadLocal<Transaction> TRANSACTIONS;
+
     /**
      * Constructs a new InventorySystem with empty collection, decks, and binders.
      */
     public InventorySystem() {
         this.CARD_COLLECTION = new CardCollection(); // primary card collection
-        this.DECK_MANAGER = new DeckManager();       // deck manager containing a list of decks
-        this.BINDER_MANAGER = new BinderManager();   // binder manager containing a list of binders
+        this.CARD_LOCATIONS = new CardLocations();   // where the cards in binders and decks are
+        this.DECK_MANAGER = new DeckManager(CARD_LOCATIONS, CARD_COLLECTION);       // deck manager containing a list of decks
+        this.BINDER_MANAGER = new BinderManager(CARD_LOCATIONS, CARD_COLLECTION);   // binder manager containing a list of binders
+        this.TRANSACTIONS = new ThreadLocal<>();
+    }
+
+    /**
+     * Begins a transaction on the calling thread, in which several collection, binder and deck
+     * mutations commit or roll back as a unit. Each thread reuses a single transaction object.
+     * While it runs, the thread makes its changes through the transaction and must not call the
+     * other mutators of this system, apart from {@link #tradeCard}, which joins it.
+     *
+     * @return the thread's transaction, now running
+     * @throws IllegalStateException if the thread already has a transaction running
+     */
+    public Transaction beginTransaction() {
+        Transaction transaction = TRANSACTIONS.get();
+        if (transaction == null) {
+            transaction = new Transaction(this);
+            TRANSACTIONS.set(transaction);
+        }
+        transaction.begin();
+        return transaction;
+    }
+
+    /**
+     * Attaches a journal that every subsequent successful mutation is recorded to.
+     * <p>
+     * Internal steps of compound operations (such as the collection changes made while
+     * moving a card into a binder) are not recorded separately; only the public call is.
+     *
+     * @param journal the journal to record to, or null to stop journaling
+     */
+    public void setJournal(OperationJournal journal) {
+        this.journal = journal;
     }
 
     /**
@@ -58,20 +124,194 @@ public class InventorySystem {
         return this.CARD_COLLECTION.findByCardName(name);
     }
 
+    /**
+     * Finds the binders and decks holding copies of a card, without searching any of them.
+     *
+     * @param cardName the card name (case-insensitive, trimmed)
+     * @return the names of the binders and decks holding the card, in the order they first received it
+     */
+    public ArrayList<String> findCardLocations(String cardName) {
+        ArrayList<String> names = new ArrayList<>();
+        for (long id : CARD_LOCATIONS.findContainerIds(cardName)) {
+            Binder binder = BINDER_MANAGER.findBinderById(id);
+            if (binder != null) {
+                names.add(binder.getName());
+                continue;
+            }
+            Deck deck = DECK_MANAGER.findDeckById(id);
+            if (deck != null) {
+                names.add(deck.getName());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Counts the copies of a card held by binders and decks, in constant time.
+     *
+     * @param cardName the card name (case-insensitive, trimmed)
+     * @return the number of copies across all binders and decks
+     */
+    public int countCopiesInContainers(String cardName) {
+        return CARD_LOCATIONS.countCopiesInContainers(cardName);
+    }
+
+    /**
+     * Counts the copies of a card left loose in the collection, in constant time.
+     *
+     * @param cardName the card name (case-insensitive, trimmed)
+     * @return the card's count in the collection, or 0 if the collection never held it
+     */
+    public int countLooseCopies(String cardName) {
+        Card card = CARD_COLLECTION.findByCardName(cardName);
+        return card == null ? 0 : card.getCount();
+    }
+
+    /**
+     * Suggests names from the collection for a possibly misspelled card name,
+     * at most {@link #MAX_TYPO_DISTANCE} edits away.
+     *
+     * @param name  the name as typed (case-insensitive, trimmed)
+     * @param limit the most names to suggest
+     * @return the names of up to {@code limit} cards, closest first
+     * @throws IllegalArgumentException if {@code limit} is negative
+     */
+    public ArrayList<String> suggestCardNames(String name, int limit) {
+        ArrayList<String> names = new ArrayList<>();
+        for (Card card : CARD_COLLECTION.findSimilar(name, MAX_TYPO_DISTANCE, limit)) {
+            names.add(card.getName());
+        }
+        return names;
+    }
+
+    /**
+     * Completes a partly typed card name from the names in the collection.
+     *
+     * @param prefix the start of the name (case-insensitive, trimmed)
+     * @param limit  the most completions to return
+     * @return the names of up to {@code limit} cards starting with the prefix, in alphabetical order
+     * @throws IllegalArgumentException if {@code limit} is negative
+     */
+    public ArrayList<String> completeCardName(String prefix, int limit) {
+        ArrayList<String> names = new ArrayList<>();
+        for (Card card : CARD_COLLECTION.findByPrefix(prefix, limit)) {
+            names.add(card.getName());
+        }
+        return names;
+    }
+
+    /**
+     * Lists the cards in the collection of a rarity and variation.
+     * Either filter may be null to match every rarity or every variation.
+     *
+     * @param rarity    the rarity to match, or null for any
+     * @param variation the variation to match, or null for any
+     * @return the matching cards that have at least one copy, in the order they were added
+     */
+    public ArrayList<Card> findCardsInCollection(Rarity rarity, Variation variation) {
+        ArrayList<Card> matches = CARD_COLLECTION.findCards(rarity, variation);
+        matches.removeIf(card -> card.getCount() == 0);
+        return matches;
+    }
+
+    /**
+     * Lists the cards in the collection worth between two values, from least to most valuable.
+     * The bounds are rounded inward to whole cents.
+     *
+     * @param min the lowest value to include
+     * @param max the highest value to include
+     * @return the matching cards that have at least one copy
+     * @throws ArithmeticException if a bound does not fit in a {@code long} number of cents
+     */
+    public ArrayList<Card> findCardsByValueInCollection(BigDecimal min, BigDecimal max) {
+        long minCents = min.setScale(2, RoundingMode.CEILING).unscaledValue().longValueExact();
+        long maxCents = max.setScale(2, RoundingMode.FLOOR).unscaledValue().longValueExact();
+        return CARD_COLLECTION.findCardsByValue(minCents, maxCents);
+    }
+
+    /**
+     * Lists the most valuable cards in the collection, most valuable first.
+     *
+     * @param k the number of cards to list
+     * @return up to {@code k} cards that have at least one copy
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    public ArrayList<Card> findMostValuableInCollection(int k) {
+        return CARD_COLLECTION.findMostValuable(k);
+    }
+
+    /**
+     * Lists the cards in the collection that a binder's acceptance rules allow,
+     * reading only the rarity and variation combinations the binder accepts.
+     *
+     * @param binderName name of the binder
+     * @return the eligible cards that have at least one copy in the collection
+     * @throws NoSuchElementException if no binder with that name exists
+     */
+    public ArrayList<Card> findCardsEligibleForBinder(String binderName) {
+        Binder binder = BINDER_MANAGER.findBinderByName(binderName);
+        ArrayList<Card> eligible = new ArrayList<>();
+        for (Rarity rarity : Rarity.values()) {
+            for (Variation variation : Variation.values()) {
+                if (binder.accepts(rarity, variation)) {
+                    eligible.addAll(findCardsInCollection(rarity, variation));
+                }
+            }
+        }
+        return eligible;
+    }
+
     /**
      * Helper function that returns a list of cards back into the main collection.
-     * Ignores any null entries in the provided list.
+     * Ignores any null entries in the provided list. Callers that journal the return
+     * hold the stripes of the cards' names.
      *
      * @param cards list of Card instances to return
      */
     protected void returnCardsToCollection(ArrayList<Card> cards) {
         for (Card card : cards) {
             if (card != null) {
-                addCardToCollection(card);
+                CARD_COLLECTION.addCard(card);
             }
         }
     }
 
+    /**
+     * Finds a binder by name and locks it, making sure it was not deleted or sold in between.
+     * The caller unlocks the binder's lock when done.
+     *
+     * @param name name of the binder to lock
+     * @return the locked Binder instance
+     * @throws NoSuchElementException if no binder with that name exists
+     */
+    protected Binder lockBinder(String name) {
+        Binder binder = BINDER_MANAGER.findBinderByName(name);
+        binder.getLock().lock();
+        if (!BINDER_MANAGER.isManaged(binder)) {
+            binder.getLock().unlock();
+            throw new NoSuchElementException("binder \"" + name + "\" not found");
+        }
+        return binder;
+    }
+
+    /**
+     * Finds a deck by name and locks it, making sure it was not deleted or sold in between.
+     * The caller unlocks the deck's lock when done.
+     *
+     * @param name name of the deck to lock
+     * @return the locked Deck instance
+     * @throws NoSuchElementException if no deck with that name exists
+     */
+    protected Deck lockDeck(String name) {
+        Deck deck = DECK_MANAGER.findDeckByName(name);
+        deck.getLock().lock();
+        if (!DECK_MANAGER.isManaged(deck)) {
+            deck.getLock().unlock();
+            throw new NoSuchElementException("deck \"" + name + "\" not found");
+        }
+        return deck;
+    }
+
     /**
      * Finds a Binder by its name.
      *
@@ -102,7 +342,23 @@ public class InventorySystem {
      * @throws IllegalStateException if a binder with the same name already exists
      */
     public void createBinder(String name, BinderType type) {
-        BINDER_MANAGER.createBinder(name, type);
+        ReentrantLock names = BINDER_MANAGER.getLock();
+        names.lock();
+        try {
+            // lock the binder before it can be found, so that nothing done to it is journaled first
+            Binder binder = BINDER_MANAGER.newBinder(name, type);
+            binder.getLock().lock();
+            try {
+                BINDER_MANAGER.register(binder);
+                if (journal != null) {
+                    journal.recordCreateBinder(name, type);
+                }
+            } finally {
+                binder.getLock().unlock();
+            }
+        } finally {
+            names.unlock();
+        }
     }
 
     /**
@@ -112,7 +368,27 @@ public class InventorySystem {
      * @throws NoSuchElementException if no binder with that name exists
      */
     public void deleteBinder(String name) {
-        returnCardsToCollection(BINDER_MANAGER.deleteBinder(name));
+        ReentrantLock names = BINDER_MANAGER.getLock();
+        names.lock();
+        try {
+            Binder binder = lockBinder(name);
+            try {
+                ArrayList<Card> cards = BINDER_MANAGER.deleteBinder(name);
+                long stripes = CARD_COLLECTION.lockStripes(cards);
+                try {
+                    returnCardsToCollection(cards);
+                    if (journal != null) {
+                        journal.recordName(OperationJournal.DELETE_BINDER, name);
+                    }
+                } finally {
+                    CARD_COLLECTION.unlockStripes(stripes);
+                }
+            } finally {
+                binder.getLock().unlock();
+            }
+        } finally {
+            names.unlock();
+        }
     }
 
     /**
@@ -123,7 +399,23 @@ public class InventorySystem {
      * @throws IllegalStateException if a deck with the same name already exists
      */
     public void createDeck(String name, boolean sellable) {
-        DECK_MANAGER.createDeck(name, sellable);
+        ReentrantLock names = DECK_MANAGER.getLock();
+        names.lock();
+        try {
+            // lock the deck before it can be found, so that nothing done to it is journaled first
+            Deck deck = DECK_MANAGER.newDeck(name, sellable);
+            deck.getLock().lock();
+            try {
+                DECK_MANAGER.register(deck);
+                if (journal != null) {
+                    journal.recordCreateDeck(name, sellable);
+                }
+            } finally {
+                deck.getLock().unlock();
+            }
+        } finally {
+            names.unlock();
+        }
     }
 
     /**
@@ -133,7 +425,27 @@ public class InventorySystem {
      * @throws NoSuchElementException if no deck with that name exists
      */
     public void deleteDeck(String name) {
-        returnCardsToCollection(DECK_MANAGER.deleteDeck(name));
+        ReentrantLock names = DECK_MANAGER.getLock();
+        names.lock();
+        try {
+            Deck deck = lockDeck(name);
+            try {
+                ArrayList<Card> cards = DECK_MANAGER.deleteDeck(name);
+                long stripes = CARD_COLLECTION.lockStripes(cards);
+                try {
+                    returnCardsToCollection(cards);
+                    if (journal != null) {
+                        journal.recordName(OperationJournal.DELETE_DECK, name);
+                    }
+                } finally {
+                    CARD_COLLECTION.unlockStripes(stripes);
+                }
+            } finally {
+                deck.getLock().unlock();
+            }
+        } finally {
+            names.unlock();
+        }
     }
 
     /**
@@ -144,8 +456,18 @@ public class InventorySystem {
      * @throws NoSuchElementException if the binder or card is not found
      */
     public void removeCardFromBinder(String binderName, String cardName) {
-        Card tCard = BINDER_MANAGER.removeCardFromBinder(binderName, cardName);
-        addCardToCollection(tCard);
+        Binder tBinder = lockBinder(binderName);
+        long stripes = CARD_COLLECTION.lockStripe(cardName);
+        try {
+            Card tCard = tBinder.removeCardByName(cardName);
+            CARD_COLLECTION.addCard(tCard);
+            if (journal != null) {
+                journal.recordNames(OperationJournal.REMOVE_CARD_FROM_BINDER, binderName, cardName);
+            }
+        } finally {
+            CARD_COLLECTION.unlockStripes(stripes);
+            tBinder.getLock().unlock();
+        }
     }
 
     /**
@@ -158,11 +480,90 @@ public class InventorySystem {
      * @throws IllegalStateException if the binder cannot accept the card
      */
     public void addCardToBinder(String binderName, String cardName) {
-        Card tCard = removeSingleCardFromCollection(cardName);
-        Card returnValue = BINDER_MANAGER.addCardToBinder(binderName, tCard);
-        if(returnValue != null) {
-            addCardToCollection(returnValue);
-            throw new IllegalStateException("unable to add to binder because it is full");
+        Binder tBinder = lockBinder(binderName);
+        long stripes = CARD_COLLECTION.lockStripe(cardName);
+        try {
+            Card tCard = CARD_COLLECTION.removeCardByName(cardName);
+            boolean added;
+            try {
+                added = tBinder.addCard(tCard);
+            } catch (RuntimeException e) {
+                CARD_COLLECTION.addCard(tCard);
+                throw e;
+            }
+            if (!added) {
+                CARD_COLLECTION.addCard(tCard);
+                throw new IllegalStateException("unable to add to binder because it is full");
+            }
+            if (journal != null) {
+                journal.recordNames(OperationJournal.ADD_CARD_TO_BINDER, binderName, cardName);
+            }
+        } finally {
+            CARD_COLLECTION.unlockStripes(stripes);
+            tBinder.getLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a single card from a binder and returns it to the collection, given the id the
+     * collection gave the card.
+     *
+     * @param binderName name of the binder to remove from
+     * @param cardId   id of the card to remove
+     * @throws NoSuchElementException if the binder or card is not found
+     */
+    public void removeCardFromBinder(String binderName, int cardId) {
+        Card card = requireCard(cardId);
+        Binder tBinder = lockBinder(binderName);
+        long stripes = CARD_COLLECTION.lockStripe(card);
+        try {
+            // a card traded in from outside the collection carries no id
+            Card tCard = tBinder.findById(cardId) != null
+                    ? tBinder.removeCardById(cardId)
+                    : tBinder.removeCardByName(card.getName());
+            returnCopy(card, tCard);
+            if (journal != null) {
+                journal.recordNames(OperationJournal.REMOVE_CARD_FROM_BINDER, binderName, card.getName());
+            }
+        } finally {
+            CARD_COLLECTION.unlockStripes(stripes);
+            tBinder.getLock().unlock();
+        }
+    }
+
+    /**
+     * Moves a card from the collection into a binder slot, given the id the collection gave the
+     * card, so the card is found without hashing its name.
+     * Rolls back if the binder cannot accept the card.
+     *
+     * @param binderName name of the binder
+     * @param cardId   id of the card to move
+     * @throws NoSuchElementException if the card or binder does not exist
+     * @throws IllegalStateException  if no copies are left or the binder cannot accept the card
+     */
+    public void addCardToBinder(String binderName, int cardId) {
+        Card card = requireCard(cardId);
+        Binder tBinder = lockBinder(binderName);
+        long stripes = CARD_COLLECTION.lockStripe(card);
+        try {
+            Card tCard = takeCopy(card, card.getName());
+            boolean added;
+            try {
+                added = tBinder.addCard(tCard);
+            } catch (RuntimeException e) {
+                returnCopy(card, tCard);
+                throw e;
+            }
+            if (!added) {
+                returnCopy(card, tCard);
+                throw new IllegalStateException("unable to add to binder because it is full");
+            }
+            if (journal != null) {
+                journal.recordNames(OperationJournal.ADD_CARD_TO_BINDER, binderName, card.getName());
+            }
+        } finally {
+            CARD_COLLECTION.unlockStripes(stripes);
+            tBinder.getLock().unlock();
         }
     }
 
@@ -174,8 +575,18 @@ public class InventorySystem {
      * @throws NoSuchElementException if the deck or card is not found
      */
     public void removeCardFromDeck(String deckName, String cardName) {
-        Card tCard = DECK_MANAGER.removeCardFromDeck(deckName, cardName);
-        addCardToCollection(tCard);
+        Deck tDeck = lockDeck(deckName);
+        long stripes = CARD_COLLECTION.lockStripe(cardName);
+        try {
+            Card tCard = tDeck.removeCardByName(cardName);
+            CARD_COLLECTION.addCard(tCard);
+            if (journal != null) {
+                journal.recordNames(OperationJournal.REMOVE_CARD_FROM_DECK, deckName, cardName);
+            }
+        } finally {
+            CARD_COLLECTION.unlockStripes(stripes);
+            tDeck.getLock().unlock();
+        }
     }
 
     /**
@@ -188,16 +599,99 @@ public class InventorySystem {
      * @throws IllegalStateException if the deck cannot accept the card
      */
     public void addCardToDeck(String deckName, String cardName) {
-        Card tCard = removeSingleCardFromCollection(cardName);
-        Card returnValue = DECK_MANAGER.addCardToDeck(deckName, tCard);
-        if (returnValue != null) {
-            addCardToCollection(tCard);
-            throw new IllegalStateException("unable to add to deck (full or duplicate)");
+        Deck tDeck = lockDeck(deckName);
+        long stripes = CARD_COLLECTION.lockStripe(cardName);
+        try {
+            Card tCard = CARD_COLLECTION.removeCardByName(cardName);
+            boolean added;
+            try {
+                added = tDeck.addCard(tCard);
+            } catch (RuntimeException e) {
+                CARD_COLLECTION.addCard(tCard);
+                throw e;
+            }
+            if (!added) {
+                CARD_COLLECTION.addCard(tCard);
+                throw new IllegalStateException("unable to add to deck (full or duplicate)");
+            }
+            if (journal != null) {
+                journal.recordNames(OperationJournal.ADD_CARD_TO_DECK, deckName, cardName);
+            }
+        } finally {
+            CARD_COLLECTION.unlockStripes(stripes);
+            tDeck.getLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a single card from a deck and returns it to the collection, given the id the
+     * collection gave the card.
+     *
+     * @param deckName name of the deck to remove from
+     * @param cardId   id of the card to remove
+     * @throws NoSuchElementException if the deck or card is not found
+     */
+    public void removeCardFromDeck(String deckName, int cardId) {
+        Card card = requireCard(cardId);
+        Deck tDeck = lockDeck(deckName);
+        long stripes = CARD_COLLECTION.lockStripe(card);
+        try {
+            // a card traded in from outside the collection carries no id
+            Card tCard = tDeck.findById(cardId) != null
+                    ? tDeck.removeCardById(cardId)
+                    : tDeck.removeCardByName(card.getName());
+            returnCopy(card, tCard);
+            if (journal != null) {
+                journal.recordNames(OperationJournal.REMOVE_CARD_FROM_DECK, deckName, card.getName());
+            }
+        } finally {
+            CARD_COLLECTION.unlockStripes(stripes);
+            tDeck.getLock().unlock();
+        }
+    }
+
+    /**
+     * Moves a card from the collection into a deck slot, given the id the collection gave the
+     * card, so the card is found without hashing its name.
+     * Rolls back if the deck cannot accept the card.
+     *
+     * @param deckName name of the deck
+     * @param cardId   id of the card to move
+     * @throws NoSuchElementException if the card or deck does not exist
+     * @throws IllegalStateException  if no copies are left or the deck cannot accept the card
+     */
+    public void addCardToDeck(String deckName, int cardId) {
+        Card card = requireCard(cardId);
+        Deck tDeck = lockDeck(deckName);
+        long stripes = CARD_COLLECTION.lockStripe(card);
+        try {
+            Card tCard = takeCopy(card, card.getName());
+            boolean added;
+            try {
+                added = tDeck.addCard(tCard);
+            } catch (RuntimeException e) {
+                returnCopy(card, tCard);
+                throw e;
+            }
+            if (!added) {
+                returnCopy(card, tCard);
+                throw new IllegalStateException("unable to add to deck (full or duplicate)");
+            }
+            if (journal != null) {
+                journal.recordNames(OperationJournal.ADD_CARD_TO_DECK, deckName, card.getName());
+            }
+        } finally {
+            CARD_COLLECTION.unlockStripes(stripes);
+            tDeck.getLock().unlock();
         }
     }
 
     /**
      * Trades an outgoing card from a binder for an incoming one.
+     * <p>
+     * Called while the thread has a transaction running, the trade joins it and is committed
+     * or rolled back with the rest of that transaction; otherwise it runs in a transaction of
+     * its own.
      *
      * @param binderName    name of the binder to trade in
      * @param outgoingName  name of the card to remove
@@ -208,34 +702,248 @@ public class InventorySystem {
      * @throws IllegalStateException    if the binder can not be used in trading or ingoing card is rejected by binder
      */
     public boolean tradeCard(String binderName, String outgoingName, Card incomingCard, boolean force) {
-        // Locate and validate binder
-        Binder tBinder = findBinderByName(binderName);
-        if (tBinder instanceof Sellable) {
-            throw new IllegalStateException("Binder \"" + binderName + "\" cannot be used for trading");
+        Transaction running = TRANSACTIONS.get();
+        if (running != null && running.isActive()) {
+            return running.tradeCard(binderName, outgoingName, incomingCard, force);
         }
+        try (Transaction transaction = beginTransaction()) {
+            boolean traded = transaction.tradeCard(binderName, outgoingName, incomingCard, force);
+            transaction.commit();
+            return traded;
+        }
+    }
 
-        // Remove outgoing card
-        Card outgoingCard = tBinder.removeCardByName(outgoingName);
-        // Add incoming card temporarily to collection
-        addCardToCollection(incomingCard);
+    /**
+     * Applies a batch of card moves and count changes, returning the outcome of each one.
+     * <p>
+     * Each operation succeeds or fails exactly as the matching single-call method would,
+     * without affecting the others. The operations are grouped by the binder or deck they
+     * name, with the collection operations forming a group of their own, and each group is
+     * applied under a single acquisition of its container's lock and of the collection stripes
+     * of its cards, taken in that order as in the single-call methods. Operations of a group
+     * keep their batch order, and the groups are applied in the order of their first operation,
+     * so an operation may run before an earlier operation on another container.
+     * <p>
+     * The applied operations of each group are journaled together, before the group's locks
+     * are released, and are replayed as if each had been made through its single-call method.
+     *
+     * @param batch the operations to apply
+     * @return the outcome of each operation, by position in the batch
+     */
+    public CardBatch.Result applyBatch(CardBatch batch) {
+        int size = batch.size();
+        CardBatch.Result result = new CardBatch.Result(size);
 
-        // Value difference check
-        BigDecimal diff = incomingCard.getValue().subtract(outgoingCard.getValue()).abs();
-        if (diff.compareTo(BigDecimal.ONE) >= 0 && !force) {
-            // Rollback
-            removeSingleCardFromCollection(incomingCard.getName());
-            tBinder.addCard(outgoingCard);
-            return false;
+        // Number the groups in order of first use and sort the positions by group, keeping the batch order
+        int[] groups = new int[size];
+        int[] starts = new int[size + 2];
+        HashMap<String, Integer> binderGroups = new HashMap<>();
+        HashMap<String, Integer> deckGroups = new HashMap<>();
+        int groupCount = 1;
+        for (int i = 0; i < size; i++) {
+            HashMap<String, Integer> numbers = switch (batch.getKind(i)) {
+                case ADD_TO_BINDER, REMOVE_FROM_BINDER -> binderGroups;
+                case ADD_TO_DECK, REMOVE_FROM_DECK -> deckGroups;
+                default -> null;
+            };
+            if (numbers != null) {
+                Integer group = numbers.putIfAbsent(batch.getContainerName(i), groupCount);
+                groups[i] = group != null ? group : groupCount++;
+            }
+            starts[groups[i] + 1]++;
+        }
+        for (int group = 0; group < groupCount; group++) {
+            starts[group + 1] += starts[group];
+        }
+        int[] order = new int[size];
+        int[] next = Arrays.copyOf(starts, groupCount);
+        for (int i = 0; i < size; i++) {
+            order[next[groups[i]]++] = i;
         }
 
-        // Perform trade: remove from collection and attempt to add
-        Card toTrade = removeSingleCardFromCollection(incomingCard.getName());
-        if (!tBinder.addCard(toTrade)) {
-            // Rollback on add failure
-            tBinder.addCard(outgoingCard);
-            throw new IllegalStateException("Incoming card \"" + toTrade.getName() + "\" is not allowed in binder \"" + binderName + "\"");
+        byte[] ops = journal != null ? new byte[size] : null;
+        String[] containerNames = journal != null ? new String[size] : null;
+        String[] cardNames = journal != null ? new String[size] : null;
+        for (int group = 0; group < groupCount; group++) {
+            int from = starts[group];
+            int to = starts[group + 1];
+            if (from == to) {
+                continue;
+            }
+            int first = order[from];
+            ReentrantLock containerLock = null;
+            Object container = null;
+            try {
+                switch (batch.getKind(first)) {
+                    case ADD_TO_BINDER, REMOVE_FROM_BINDER -> {
+                        Binder binder = lockBinder(batch.getContainerName(first));
+                        container = binder;
+                        containerLock = binder.getLock();
+                    }
+                    case ADD_TO_DECK, REMOVE_FROM_DECK -> {
+                        Deck deck = lockDeck(batch.getContainerName(first));
+                        container = deck;
+                        containerLock = deck.getLock();
+                    }
+                    default -> {
+                    }
+                }
+            } catch (RuntimeException e) {
+                for (int k = from; k < to; k++) {
+                    result.fail(order[k], e);
+                }
+                continue;
+            }
+            try {
+                long stripes = 0;
+                for (int k = from; k < to; k++) {
+                    stripes |= CARD_COLLECTION.stripeMask(batch.getCardName(order[k]));
+                }
+                CARD_COLLECTION.lockStripes(stripes);
+                try {
+                    int applied = 0;
+                    for (int k = from; k < to; k++) {
+                        int i = order[k];
+                        try {
+                            Card card = CARD_COLLECTION.findByCardName(batch.getCardName(i));
+                            byte op = applyBatchOperation(batch, i, container, card);
+                            if (journal != null) {
+                                ops[applied] = op;
+                                // collection operations are journaled under the card name alone
+                                containerNames[applied] = container != null ? batch.getContainerName(i) : batch.getCardName(i);
+                                cardNames[applied++] = batch.getCardName(i);
+                            }
+                        } catch (RuntimeException e) {
+                            result.fail(i, e);
+                        }
+                    }
+                    if (journal != null) {
+                        journal.recordBatch(ops, containerNames, cardNames, applied);
+                    }
+                } finally {
+                    CARD_COLLECTION.unlockStripes(stripes);
+                }
+            } finally {
+                if (containerLock != null) {
+                    containerLock.unlock();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Applies one resolved batch operation, with its binder or deck and its card's stripe
+     * already locked.
+     *
+     * @param batch     the batch holding the operation
+     * @param index     the operation's position in the batch
+     * @param container the locked binder or deck, or null for collection operations
+     * @param card      the collection card, or null if the collection has none by that name
+     * @return the journal operation code of the single-call method the operation matches
+     * @throws RuntimeException the exception the matching single-call method would throw
+     */
+    private byte applyBatchOperation(CardBatch batch, int index, Object container, Card card) {
+        String cardName = batch.getCardName(index);
+        CardBatch.Kind kind = batch.getKind(index);
+        if (card == null && kind != CardBatch.Kind.REMOVE_FROM_BINDER && kind != CardBatch.Kind.REMOVE_FROM_DECK) {
+            throw new NoSuchElementException("Card '" + cardName + "' not found in collection.");
+        }
+        switch (kind) {
+            case ADD_TO_BINDER -> {
+                Card tCard = takeCopy(card, cardName);
+                boolean added;
+                try {
+                    added = ((Binder) container).addCard(tCard);
+                } catch (RuntimeException e) {
+                    card.incrementCount();
+                    throw e;
+                }
+                if (!added) {
+                    card.incrementCount();
+                    throw new IllegalStateException("unable to add to binder because it is full");
+                }
+                return OperationJournal.ADD_CARD_TO_BINDER;
+            }
+            case REMOVE_FROM_BINDER -> {
+                returnCopy(card, ((Binder) container).removeCardByName(cardName));
+                return OperationJournal.REMOVE_CARD_FROM_BINDER;
+            }
+            case ADD_TO_DECK -> {
+                Card tCard = takeCopy(card, cardName);
+                boolean added;
+                try {
+                    added = ((Deck) container).addCard(tCard);
+                } catch (RuntimeException e) {
+                    card.incrementCount();
+                    throw e;
+                }
+                if (!added) {
+                    card.incrementCount();
+                    throw new IllegalStateException("unable to add to deck (full or duplicate)");
+                }
+                return OperationJournal.ADD_CARD_TO_DECK;
+            }
+            case REMOVE_FROM_DECK -> {
+                returnCopy(card, ((Deck) container).removeCardByName(cardName));
+                return OperationJournal.REMOVE_CARD_FROM_DECK;
+            }
+            case INCREMENT -> {
+                card.incrementCount();
+                return OperationJournal.INCREMENT_CARD;
+            }
+            default -> {
+                if (!card.tryDecrementCount()) {
+                    throw new IllegalStateException("Card '" + cardName + "' count is already zero.");
+                }
+                return OperationJournal.DECREMENT_CARD;
+            }
+        }
+    }
+
+    /**
+     * Takes one copy of a resolved collection card, as {@link CardCollection#removeCardByName(String)} does.
+     *
+     * @param card     the collection card
+     * @param cardName the name the card was requested by
+     * @return a new Card instance representing the removed copy (count = 1)
+     * @throws IllegalStateException if no copies remain
+     */
+    private static Card takeCopy(Card card, String cardName) {
+        if (!card.tryDecrementCount()) {
+            throw new IllegalStateException("No copies left of card '" + cardName + "'.");
+        }
+        return Card.copyCard(card);
+    }
+
+    /**
+     * Finds a collection card by id, failing if there is none.
+     *
+     * @param cardId the card's id
+     * @return the collection card
+     * @throws NoSuchElementException if no card has that id
+     */
+    private Card requireCard(int cardId) {
+        Card card = CARD_COLLECTION.findById(cardId);
+        if (card == null) {
+            throw new NoSuchElementException("Card #" + cardId + " not found in collection.");
+        }
+        return card;
+    }
+
+    /**
+     * Returns a card taken out of a container to the collection, incrementing the resolved
+     * collection card when it is the same card and falling back to a regular add otherwise.
+     *
+     * @param card     the resolved collection card, or null if there was none
+     * @param returned the card taken out of the container
+     */
+    private void returnCopy(Card card, Card returned) {
+        if (card != null && card.equals(returned)) {
+            card.incrementCount();
+        } else {
+            CARD_COLLECTION.addCard(returned);
         }
-        return true;
     }
 
     /**
@@ -259,7 +967,95 @@ public class InventorySystem {
      * @param c the Card to add
      */
     public void addCardToCollection(Card c) {
-        this.CARD_COLLECTION.addCard(c);
+        long stripes = CARD_COLLECTION.lockStripe(c);
+        try {
+            this.CARD_COLLECTION.addCard(c);
+            if (journal != null) {
+                journal.recordAddCard(c);
+            }
+        } finally {
+            CARD_COLLECTION.unlockStripes(stripes);
+        }
+    }
+
+    /**
+     * Add every copy carried by a card into the collection, merging with an identical card.
+     * @param c the Card to add, whose count is the number of copies
+     * @throws IllegalArgumentException if a card with the same name but different attributes exists
+     */
+    public void addCopiesToCollection(Card c) {
+        long stripes = CARD_COLLECTION.lockStripe(c);
+        try {
+            this.CARD_COLLECTION.addCopies(c);
+            if (journal != null) {
+                journal.recordAddCopies(c);
+            }
+        } finally {
+            CARD_COLLECTION.unlockStripes(stripes);
+        }
+    }
+
+    /**
+     * Adds every copy carried by each of several cards into the collection, as
+     * {@link #addCopiesToCollection(Card)} does for each one, returning the outcome of each.
+     * <p>
+     * The cards are grouped by the collection stripe of their name, and each stripe is locked
+     * once for its whole group, which is journaled as one record before the stripe is released. Cards sharing a name are added in the order given; cards of
+     * different stripes may be added in a different order.
+     *
+     * @param cards the cards to add, whose counts are the numbers of copies
+     * @param count the number of cards to add, from the start of the array
+     * @return the outcome of each card, by position in the array
+     */
+    public CardBatch.Result addCopiesToCollection(Card[] cards, int count) {
+        CardBatch.Result result = new CardBatch.Result(count);
+
+        // Counting sort of the positions by stripe, keeping the given order within a stripe
+        int[] stripes = new int[count];
+        int[] starts = new int[Long.SIZE + 1];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = Long.numberOfTrailingZeros(CARD_COLLECTION.stripeMask(cards[i]));
+            starts[stripes[i] + 1]++;
+        }
+        for (int stripe = 0; stripe < Long.SIZE; stripe++) {
+            starts[stripe + 1] += starts[stripe];
+        }
+        int[] order = new int[count];
+        int[] next = Arrays.copyOf(starts, Long.SIZE);
+        for (int i = 0; i < count; i++) {
+            order[next[stripes[i]]++] = i;
+        }
+
+        Card[] added = new Card[count];
+        int[] copies = new int[count];
+        for (int stripe = 0; stripe < Long.SIZE; stripe++) {
+            if (starts[stripe] == starts[stripe + 1]) {
+                continue;
+            }
+            long mask = 1L << stripe;
+            CARD_COLLECTION.lockStripes(mask);
+            try {
+                int addedCount = 0;
+                for (int k = starts[stripe]; k < starts[stripe + 1]; k++) {
+                    int i = order[k];
+                    try {
+                        // read before adding: a new card is stored as is and later rows merge into it
+                        int rowCopies = cards[i].getCount();
+                        CARD_COLLECTION.addCopies(cards[i]);
+                        added[addedCount] = cards[i];
+                        copies[addedCount++] = rowCopies;
+                    } catch (IllegalArgumentException | ArithmeticException e) {
+                        result.fail(i, e);
+                    }
+                }
+                if (journal != null) {
+                    journal.recordAddCopies(added, copies, addedCount);
+                }
+            } finally {
+                CARD_COLLECTION.unlockStripes(mask);
+            }
+        }
+        return result;
     }
 
     /**
@@ -274,6 +1070,37 @@ public class InventorySystem {
     }
 
 
+    /**
+     * Returns the value of a card in the collection given its id.
+     *
+     * @param cardId the id of the card
+     * @return the monetary value of the card
+     * @throws NoSuchElementException if no card has that id
+     */
+    public BigDecimal getCardValue(int cardId) {
+        return CARD_COLLECTION.getCardValue(cardId);
+    }
+
+    /**
+     * Finds the id the collection gave a card, for callers that refer to the same card repeatedly.
+     *
+     * @param name the card name (case-insensitive, trimmed)
+     * @return the card's id, or {@link Card#NO_ID} if the collection has no card by that name
+     */
+    public int getCardId(String name) {
+        return CARD_COLLECTION.getId(name);
+    }
+
+    /**
+     * Finds a card in the collection by id.
+     *
+     * @param cardId the id of the card
+     * @return the card, or null if no card has that id
+     */
+    public Card findCardById(int cardId) {
+        return CARD_COLLECTION.findById(cardId);
+    }
+
     /**
      * Remove and return a single card from the collection.
      * @param name name of card to remove
@@ -282,7 +1109,16 @@ public class InventorySystem {
      * @throws IllegalStateException   if the collection is empty or no copies remain
      */
     public Card removeSingleCardFromCollection(String name) {
-        return this.CARD_COLLECTION.removeCardByName(name);
+        long stripes = CARD_COLLECTION.lockStripe(name);
+        try {
+            Card removed = this.CARD_COLLECTION.removeCardByName(name);
+            if (journal != null) {
+                journal.recordName(OperationJournal.REMOVE_CARD, name);
+            }
+            return removed;
+        } finally {
+            CARD_COLLECTION.unlockStripes(stripes);
+        }
     }
 
     /**
@@ -291,7 +1127,15 @@ public class InventorySystem {
      * @throws NoSuchElementException if no card with the given name exists
      */
     public void incrementCardInCollection(String name) {
-        this.CARD_COLLECTION.incrementCard(name);
+        long stripes = CARD_COLLECTION.lockStripe(name);
+        try {
+            this.CARD_COLLECTION.incrementCard(name);
+            if (journal != null) {
+                journal.recordName(OperationJournal.INCREMENT_CARD, name);
+            }
+        } finally {
+            CARD_COLLECTION.unlockStripes(stripes);
+        }
     }
 
     /**
@@ -300,8 +1144,54 @@ public class InventorySystem {
      * @throws IllegalStateException  if the card's count is already zero
      */
     public void decrementCardInCollection(String name) {
-        this.CARD_COLLECTION.decrementCard(name);
+        long stripes = CARD_COLLECTION.lockStripe(name);
+        try {
+            this.CARD_COLLECTION.decrementCard(name);
+            if (journal != null) {
+                journal.recordName(OperationJournal.DECREMENT_CARD, name);
+            }
+        } finally {
+            CARD_COLLECTION.unlockStripes(stripes);
+        }
+    }
+
+    /**
+     * Increment the count of a card in the collection by id.
+     * @param cardId id of card to increment
+     * @throws NoSuchElementException if no card has that id
+     */
+    public void incrementCardInCollection(int cardId) {
+        Card card = requireCard(cardId);
+        long stripes = CARD_COLLECTION.lockStripe(card);
+        try {
+            this.CARD_COLLECTION.incrementCard(cardId);
+            if (journal != null) {
+                journal.recordName(OperationJournal.INCREMENT_CARD, card.getName());
+            }
+        } finally {
+            CARD_COLLECTION.unlockStripes(stripes);
+        }
     }
+
+    /**
+     * Decrement the count of a card in the collection by id.
+     * @param cardId id of card to decrement
+     * @throws NoSuchElementException if no card has that id
+     * @throws IllegalStateException  if the card's count is already zero
+     */
+    public void decrementCardInCollection(int cardId) {
+        Card card = requireCard(cardId);
+        long stripes = CARD_COLLECTION.lockStripe(card);
+        try {
+            this.CARD_COLLECTION.decrementCard(cardId);
+            if (journal != null) {
+                journal.recordName(OperationJournal.DECREMENT_CARD, card.getName());
+            }
+        } finally {
+            CARD_COLLECTION.unlockStripes(stripes);
+        }
+    }
+
     /**
      * Returns a list of all rarity enum names as strings.
      *
@@ -0,0 +1,1257 @@
+package com.System;
+
+import com.TradingCard.Card;
+import com.TradingCard.Enums.BinderType;
+import com.TradingCard.Enums.Rarity;
+import com.TradingCard.Enums.Variation;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, binary write-ahead journal of the mutations applied to an {@link EnhancedTCIS}.
+ * <p>
+ * Every successful mutating call on an inventory system that has this journal attached is
+ * encoded as a compact record and appended here. Callers only encode the record into an
+ * in-memory buffer; a background writer thread drains the buffer to disk and calls
+ * {@code fsync} in groups, either once {@code fsyncBatchSize} records are pending or once
+ * {@code fsyncIntervalMillis} has passed since the last sync. {@link #sync()} blocks until
+ * everything appended so far is durable.
+ * <p>
+ * On startup, {@link #replay(EnhancedTCIS)} re-applies the recorded operations in order to
+ * rebuild the in-memory state. A torn record at the end of the file, left behind by a crash
+ * mid-write, is detected through its checksum and truncated away.
+ * <p>
+ * The file header carries a random generation number that changes whenever the journal is
+ * {@link #reset()}. An {@link InventorySnapshot} stores the generation and file length it
+ * covers, so that only the records appended after it are replayed on top of it.
+ * <p>
+ * Each record is framed as {@code [int length][byte op][fields...][int crc32]}, where the
+ * checksum covers the op and its fields. A committed {@link Transaction} is a single record
+ * holding the op and fields of each of its operations in turn, so a crash that tears it leaves
+ * none of the transaction to replay rather than only its first operations. The operations of a
+ * {@link CardBatch} group, or of a bulk add of copies, are grouped into records the same way.
+ * <p>
+ * Card, binder, and deck names are dictionary-encoded: the first record to use a name gives it
+ * the next small integer id and carries the name inline, and later records write only the id
+ * as a variable-length integer. Replay rebuilds the dictionary as it reads. The dictionary is
+ * cleared at every {@link #checkpointOffset() checkpoint} and {@link #reset() reset}, and starts
+ * empty whenever the file is opened, so the records after a snapshot's offset never refer to
+ * names encoded before it. Files written in
+ * version 2, which spelled every name out, are still replayed and appended to in that format
+ * until they are reset.
+ */
+public class OperationJournal implements Closeable {
+    /**
+     * Default number of records written before an fsync is forced.
+     */
+    public static final int DEFAULT_FSYNC_BATCH_SIZE = 256;
+
+    /**
+     * Default maximum time, in milliseconds, a written record may wait for an fsync.
+     */
+    public static final long DEFAULT_FSYNC_INTERVAL_MILLIS = 50;
+
+    /**
+     * File header magic number, "TCJ1".
+     */
+    private static final int MAGIC = 0x54434A31;
+
+    /**
+     * Version of the record format written by this class.
+     */
+    private static final short VERSION = 3;
+
+    /**
+     * Oldest record format still read, and appended to, by this class: names spelled out in full.
+     */
+    private static final short UTF_NAMES_VERSION = 2;
+
+    /**
+     * Size of the file header in bytes: magic, version, and generation.
+     */
+    private static final int HEADER_SIZE = Integer.BYTES + Short.BYTES + Long.BYTES;
+
+    /**
+     * Pending bytes above which appending callers wait for the writer to catch up.
+     */
+    private static final int MAX_PENDING_BYTES = 8 * 1024 * 1024;
+
+    /**
+     * Largest record payload written or accepted on replay. Single operations stay far below it,
+     * and a transaction whose record would exceed it cannot commit. A length field above it can
+     * only be garbage, so replay treats it as corruption rather than as a record torn at the end
+     * of the file.
+     */
+    private static final int MAX_RECORD_SIZE = 4 * 1024 * 1024;
+
+    // Operation codes. These values are part of the on-disk format and must never change.
+    static final byte ADD_CARD = 1;
+    static final byte INCREMENT_CARD = 2;
+    static final byte DECREMENT_CARD = 3;
+    static final byte REMOVE_CARD = 4;
+    static final byte CREATE_BINDER = 5;
+    static final byte DELETE_BINDER = 6;
+    static final byte ADD_CARD_TO_BINDER = 7;
+    static final byte REMOVE_CARD_FROM_BINDER = 8;
+    static final byte CREATE_DECK = 9;
+    static final byte DELETE_DECK = 10;
+    static final byte ADD_CARD_TO_DECK = 11;
+    static final byte REMOVE_CARD_FROM_DECK = 12;
+    static final byte TRADE_CARD = 13;
+    static final byte SELL_BINDER = 14;
+    static final byte SELL_DECK = 15;
+    static final byte SELL_CARD = 16;
+    static final byte SET_BINDER_PRICE = 17;
+    static final byte ADD_COPIES = 18;
+    static final byte TRANSACTION = 19;
+
+    /**
+     * Location of the journal file.
+     */
+    private final Path PATH;
+
+    /**
+     * Channel used by the writer thread to append records.
+     */
+    private final FileChannel CHANNEL;
+
+    /**
+     * Number of records after which the writer forces an fsync.
+     */
+    private final int FSYNC_BATCH_SIZE;
+
+    /**
+     * Maximum time, in nanoseconds, written records may wait for an fsync.
+     */
+    private final long FSYNC_INTERVAL_NANOS;
+
+    /**
+     * Guards the pending buffer and the sequence counters below.
+     */
+    private final ReentrantLock LOCK = new ReentrantLock();
+
+    /**
+     * Signalled when there is something for the writer thread to do.
+     */
+    private final Condition HAS_WORK = LOCK.newCondition();
+
+    /**
+     * Signalled whenever the writer thread has written or synced more records.
+     */
+    private final Condition PROGRESS = LOCK.newCondition();
+
+    /**
+     * Scratch buffer used to encode a single record before it is framed.
+     */
+    private final RecordBuffer RECORD = new RecordBuffer();
+
+    /**
+     * Data view over {@link #RECORD}.
+     */
+    private final DataOutputStream RECORD_OUT = new DataOutputStream(RECORD);
+
+    /**
+     * Checksum calculator for record payloads.
+     */
+    private final CRC32 CRC = new CRC32();
+
+    /**
+     * Ids of the names encoded since the last checkpoint or reset. Guarded by {@link #LOCK}.
+     */
+    private final HashMap<String, Integer> NAME_IDS = new HashMap<>();
+
+    /**
+     * Background thread that writes and syncs appended records.
+     */
+    private final Thread WRITER;
+
+    /**
+     * Records appended by callers but not yet handed to the writer thread.
+     */
+    private RecordBuffer pending = new RecordBuffer();
+
+    /**
+     * Buffer currently owned by the writer thread.
+     */
+    private RecordBuffer writing = new RecordBuffer();
+
+    /**
+     * Number of records appended since the journal was opened.
+     */
+    private long appendedCount;
+
+    /**
+     * Number of appended records that are durable on disk.
+     */
+    private long durableCount;
+
+    /**
+     * Number of callers blocked in {@link #sync()}.
+     */
+    private int syncWaiters;
+
+    /**
+     * Whether {@link #close()} has been called.
+     */
+    private boolean closed;
+
+    /**
+     * Whether replay is still allowed, i.e. nothing has been appended yet.
+     */
+    private boolean replayable = true;
+
+    /**
+     * First failure hit by the writer thread, reported to later callers.
+     */
+    private IOException failure;
+
+    /**
+     * Random identifier of the current journal contents, renewed on every reset.
+     */
+    private long generation;
+
+    /**
+     * Record format of the open file, either {@link #VERSION} or {@link #UTF_NAMES_VERSION}.
+     */
+    private short version;
+
+    /**
+     * File offset at which the next appended record will start, counting records not yet written.
+     */
+    private long appendedEnd;
+
+    /**
+     * Id the next new name in the dictionary receives.
+     */
+    private int nextNameId;
+
+    /**
+     * Opens a journal with the given group-commit settings, creating the file if needed.
+     *
+     * @param path                 location of the journal file
+     * @param fsyncBatchSize       number of records written before an fsync is forced (at least 1)
+     * @param fsyncIntervalMillis  maximum time a written record may wait for an fsync (0 to sync every write)
+     * @throws IOException              if the file cannot be opened or has an unknown format
+     * @throws IllegalArgumentException if the batch size or interval is out of range
+     */
+    public OperationJournal(Path path, int fsyncBatchSize, long fsyncIntervalMillis) throws IOException {
+        if (fsyncBatchSize < 1) {
+            throw new IllegalArgumentException("fsync batch size must be at least 1");
+        }
+        if (fsyncIntervalMillis < 0) {
+            throw new IllegalArgumentException("fsync interval cannot be negative");
+        }
+        this.PATH = path;
+        this.FSYNC_BATCH_SIZE = fsyncBatchSize;
+        this.FSYNC_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMillis);
+        this.CHANNEL = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            initHeader();
+        } catch (IOException e) {
+            CHANNEL.close();
+            throw e;
+        }
+        this.WRITER = new Thread(this::runWriter, "tcis-journal-writer");
+        this.WRITER.setDaemon(true);
+        this.WRITER.start();
+    }
+
+    /**
+     * Opens a journal with the default group-commit settings.
+     *
+     * @param path location of the journal file
+     * @throws IOException if the file cannot be opened or has an unknown format
+     */
+    public OperationJournal(Path path) throws IOException {
+        this(path, DEFAULT_FSYNC_BATCH_SIZE, DEFAULT_FSYNC_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Writes the header to a new file, or validates the header of an existing one,
+     * and positions the channel at the end of the file.
+     *
+     * @throws IOException if the existing header is missing or unknown
+     */
+    private void initHeader() throws IOException {
+        if (CHANNEL.size() == 0) {
+            writeNewHeader();
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && CHANNEL.read(header, header.position()) >= 0) {
+                // keep reading until the header is complete or the file ends
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("\"" + PATH + "\" is not a journal file");
+            }
+            version = header.getShort();
+            if (version != VERSION && version != UTF_NAMES_VERSION) {
+                throw new IOException("unsupported journal version " + version);
+            }
+            generation = header.getLong();
+        }
+        appendedEnd = CHANNEL.size();
+        CHANNEL.position(appendedEnd);
+    }
+
+    /**
+     * Writes a header with a fresh generation number to the start of an empty file.
+     *
+     * @throws IOException if the header cannot be written
+     */
+    private void writeNewHeader() throws IOException {
+        long next;
+        do {
+            next = ThreadLocalRandom.current().nextLong();
+        } while (next == 0 || next == generation);
+        generation = next;
+        version = VERSION;
+        NAME_IDS.clear();
+        nextNameId = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION).putLong(generation).flip();
+        while (header.hasRemaining()) {
+            CHANNEL.write(header, header.position());
+        }
+        CHANNEL.force(true);
+    }
+
+    /**
+     * @return the random identifier of the current journal contents, renewed on every reset
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Blocks until everything appended so far is durable, then returns the offset where the next
+     * record will start. A snapshot taken at this point covers every record before that offset.
+     * The name dictionary starts over at the offset, so replaying from it needs no earlier record.
+     *
+     * @return the offset of the next record in bytes, including the header
+     * @throws IOException if the writer thread failed
+     */
+    public long checkpointOffset() throws IOException {
+        long offset;
+        LOCK.lock();
+        try {
+            NAME_IDS.clear();
+            nextNameId = 0;
+            offset = appendedEnd;
+        } finally {
+            LOCK.unlock();
+        }
+        sync();
+        return offset;
+    }
+
+    /**
+     * Re-applies every record in the journal to the given system, in the order they were written.
+     * <p>
+     * Must be called before anything is appended, and before this journal is attached to the
+     * target, so that replayed operations are not recorded a second time. A torn or corrupt
+     * last record, left by a crash mid-write, ends the replay and is truncated from the file;
+     * a corrupt record followed by further records, or a length no record can have, fails the
+     * replay instead, leaving the file untouched.
+     *
+     * @param target the system to rebuild
+     * @return the number of records replayed
+     * @throws IOException           if the journal cannot be read, or a record other than the last is corrupt
+     * @throws IllegalStateException if records were already appended, the target already has a journal,
+     *                               or a record cannot be applied to the target
+     */
+    public long replay(EnhancedTCIS target) throws IOException {
+        return replayFrom(target, HEADER_SIZE);
+    }
+
+    /**
+     * Re-applies the records appended after the given snapshot was taken.
+     * <p>
+     * If the snapshot was taken against this generation of the journal, replay starts at the
+     * offset it covers; otherwise the journal was reset after the snapshot and is replayed
+     * from the start. The same restrictions as {@link #replay(EnhancedTCIS)} apply.
+     *
+     * @param target   the system restored from the snapshot
+     * @param snapshot the snapshot the target was restored from
+     * @return the number of records replayed
+     * @throws IOException           if the journal cannot be read, or a record other than the last is corrupt
+     * @throws IllegalStateException if records were already appended, the target already has a journal,
+     *                               or a record cannot be applied to the target
+     */
+    public long replay(EnhancedTCIS target, InventorySnapshot snapshot) throws IOException {
+        boolean sameGeneration = snapshot.getJournalGeneration() == generation
+                && snapshot.getJournalOffset() >= HEADER_SIZE
+                && snapshot.getJournalOffset() <= CHANNEL.size();
+        return replayFrom(target, sameGeneration ? snapshot.getJournalOffset() : HEADER_SIZE);
+    }
+
+    /**
+     * Re-applies every record starting at the given file offset.
+     *
+     * @param target the system to rebuild
+     * @param start  offset of the first record to apply
+     * @return the number of records replayed
+     * @throws IOException if the journal cannot be read, or a record other than the last is corrupt
+     */
+    private long replayFrom(EnhancedTCIS target, long start) throws IOException {
+        LOCK.lock();
+        try {
+            if (!replayable) {
+                throw new IllegalStateException("journal can only be replayed before anything is appended");
+            }
+            if (target.journal != null) {
+                throw new IllegalStateException("detach the journal from the target before replaying");
+            }
+            replayable = false;
+        } finally {
+            LOCK.unlock();
+        }
+
+        long validEnd = start;
+        long replayed = 0;
+        long fileSize = CHANNEL.size();
+        // end of the first record that failed its checks, or fileSize if it runs into the end of the file
+        long badEnd = fileSize;
+        try (FileChannel reader = FileChannel.open(PATH, StandardOpenOption.READ)) {
+            reader.position(start);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(reader), 1 << 16));
+            byte[] payload = new byte[256];
+            CRC32 crc = new CRC32();
+            ArrayList<String> names = version == UTF_NAMES_VERSION ? null : new ArrayList<>();
+            while (validEnd < fileSize) {
+                int length;
+                try {
+                    length = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD_SIZE) {
+                        if (length != 0 || !isZeroFilled(reader, validEnd, fileSize)) {
+                            badEnd = -1; // garbage length, the following records cannot be found
+                        }
+                        break; // a zero-filled tail is left by a crash after the file was extended
+                    }
+                    if (validEnd + Integer.BYTES * 2L + length > fileSize) {
+                        break; // the rest of the file is shorter than this record: torn at the tail
+                    }
+                    if (payload.length < length) {
+                        payload = new byte[Math.max(length, payload.length * 2)];
+                    }
+                    in.readFully(payload, 0, length);
+                    int expected = in.readInt();
+                    crc.reset();
+                    crc.update(payload, 0, length);
+                    if ((int) crc.getValue() != expected) {
+                        badEnd = validEnd + Integer.BYTES * 2L + length;
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+                try {
+                    apply(target, new DataInputStream(new ByteArrayInputStream(payload, 0, length)), names);
+                } catch (RuntimeException e) {
+                    throw new IllegalStateException("journal record " + (replayed + 1) + " could not be replayed: "
+                            + e.getMessage(), e);
+                }
+                validEnd += Integer.BYTES * 2L + length;
+                replayed++;
+            }
+        }
+        if (validEnd < fileSize && badEnd != fileSize) {
+            throw new IOException("journal record " + (replayed + 1) + " at offset " + validEnd
+                    + " is corrupt and is not the last record of \"" + PATH + "\"");
+        }
+        if (validEnd < fileSize) {
+            CHANNEL.truncate(validEnd);
+            CHANNEL.force(true);
+        }
+        CHANNEL.position(validEnd);
+        appendedEnd = validEnd;
+        return replayed;
+    }
+
+    /**
+     * Checks whether a region of the journal file holds nothing but zero bytes.
+     *
+     * @param reader a channel over the file
+     * @param from   offset of the first byte to check
+     * @param to     offset after the last byte to check
+     * @return true if every byte in the region is zero
+     * @throws IOException if the file cannot be read
+     */
+    private static boolean isZeroFilled(FileChannel reader, long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        long position = from;
+        while (position < to) {
+            buffer.clear();
+            int read = reader.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) != 0) {
+                    return false;
+                }
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    /**
+     * Decodes one record payload and applies it to the target system.
+     *
+     * @param target the system to apply the operation to
+     * @param in     the record payload
+     * @param names  the names read so far, by id, or null if names are spelled out in full
+     * @throws IOException if the payload is malformed
+     */
+    private static void apply(EnhancedTCIS target, DataInputStream in, ArrayList<String> names) throws IOException {
+        byte op = in.readByte();
+        switch (op) {
+            case ADD_CARD -> target.addCardToCollection(readCard(in, names));
+            case ADD_COPIES -> {
+                Card card = readCard(in, names);
+                int copies = in.readInt();
+                target.addCopiesToCollection(new Card(card.getName(), card.getRarity(), card.getVariation(),
+                        card.getBaseValue(), copies));
+            }
+            case INCREMENT_CARD -> target.incrementCardInCollection(readName(in, names));
+            case DECREMENT_CARD -> target.decrementCardInCollection(readName(in, names));
+            case REMOVE_CARD -> target.removeSingleCardFromCollection(readName(in, names));
+            case CREATE_BINDER -> {
+                String name = readName(in, names);
+                target.createBinder(name, BinderType.values()[in.readByte()]);
+            }
+            case DELETE_BINDER -> target.deleteBinder(readName(in, names));
+            case ADD_CARD_TO_BINDER -> target.addCardToBinder(readName(in, names), readName(in, names));
+            case REMOVE_CARD_FROM_BINDER -> target.removeCardFromBinder(readName(in, names), readName(in, names));
+            case CREATE_DECK -> target.createDeck(readName(in, names), in.readBoolean());
+            case DELETE_DECK -> target.deleteDeck(readName(in, names));
+            case ADD_CARD_TO_DECK -> target.addCardToDeck(readName(in, names), readName(in, names));
+            case REMOVE_CARD_FROM_DECK -> target.removeCardFromDeck(readName(in, names), readName(in, names));
+            case TRADE_CARD -> {
+                String binderName = readName(in, names);
+                String outgoingName = readName(in, names);
+                Card incoming = readCard(in, names);
+                if (!target.tradeCard(binderName, outgoingName, incoming, in.readBoolean())) {
+                    throw new IllegalStateException("trade in binder \"" + binderName + "\" was not accepted");
+                }
+            }
+            case SELL_BINDER -> target.sellBinder(readName(in, names));
+            case SELL_DECK -> target.sellDeck(readName(in, names));
+            case SELL_CARD -> target.sellCard(readName(in, names));
+            case SET_BINDER_PRICE -> {
+                String name = readName(in, names);
+                target.setBinderPrice(name, readDecimal(in));
+            }
+            case TRANSACTION -> {
+                int count = readVarInt(in);
+                for (int i = 0; i < count; i++) {
+                    apply(target, in, names);
+                }
+            }
+            default -> throw new IOException("unknown journal operation " + op);
+        }
+    }
+
+    /**
+     * Records an operation that takes a single name.
+     *
+     * @param op   the operation code
+     * @param name the card, binder, or deck name
+     */
+    void recordName(byte op, String name) {
+        LOCK.lock();
+        try {
+            beginRecord(op);
+            writeName(name);
+            endRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Records an operation that takes a container name and a card name.
+     *
+     * @param op            the operation code
+     * @param containerName the binder or deck name
+     * @param cardName      the card name
+     */
+    void recordNames(byte op, String containerName, String cardName) {
+        LOCK.lock();
+        try {
+            beginRecord(op);
+            writeName(containerName);
+            writeName(cardName);
+            endRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Records a card being added to the collection.
+     *
+     * @param card the card that was added
+     */
+    void recordAddCard(Card card) {
+        LOCK.lock();
+        try {
+            beginRecord(ADD_CARD);
+            writeCard(card);
+            endRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Records several copies of a card being added to the collection at once.
+     *
+     * @param card the card that was added, whose count is the number of copies
+     */
+    void recordAddCopies(Card card) {
+        LOCK.lock();
+        try {
+            beginRecord(ADD_COPIES);
+            writeCard(card);
+            RECORD_OUT.writeInt(card.getCount());
+            endRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Records several cards being added to the collection, each with all its copies, in one
+     * grouped record.
+     *
+     * @param cards  the cards that were added
+     * @param copies the number of copies added with each card, which may differ from its current
+     *               count once later copies have been merged into it
+     * @param count  the number of cards to record, from the start of the arrays
+     */
+    void recordAddCopies(Card[] cards, int[] copies, int count) {
+        if (count == 0) {
+            return;
+        }
+        LOCK.lock();
+        try {
+            writeGroup(0, count, i -> {
+                RECORD_OUT.writeByte(ADD_COPIES);
+                writeCard(cards[i]);
+                RECORD_OUT.writeInt(copies[i]);
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Records the applied operations of a {@link CardBatch} group in one grouped record.
+     *
+     * @param ops    the journal operation code of each operation
+     * @param first  the container name of each operation, or the card name for collection operations
+     * @param second the card name of each operation
+     * @param count  the number of operations to record, from the start of the arrays
+     */
+    void recordBatch(byte[] ops, String[] first, String[] second, int count) {
+        if (count == 0) {
+            return;
+        }
+        LOCK.lock();
+        try {
+            writeGroup(0, count, i -> {
+                RECORD_OUT.writeByte(ops[i]);
+                writeFields(ops[i], first[i], second[i], null, false);
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Records the creation of a binder.
+     *
+     * @param name the binder name
+     * @param type the binder type
+     */
+    void recordCreateBinder(String name, BinderType type) {
+        LOCK.lock();
+        try {
+            beginRecord(CREATE_BINDER);
+            writeName(name);
+            RECORD_OUT.writeByte(type.ordinal());
+            endRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Records the creation of a deck.
+     *
+     * @param name     the deck name
+     * @param sellable whether the deck is sellable
+     */
+    void recordCreateDeck(String name, boolean sellable) {
+        LOCK.lock();
+        try {
+            beginRecord(CREATE_DECK);
+            writeName(name);
+            RECORD_OUT.writeBoolean(sellable);
+            endRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Records a completed trade.
+     *
+     * @param binderName   the binder traded in
+     * @param outgoingName the card that left the binder
+     * @param incoming     the card that entered the binder
+     * @param force        whether the value difference check was skipped
+     */
+    void recordTrade(String binderName, String outgoingName, Card incoming, boolean force) {
+        LOCK.lock();
+        try {
+            beginRecord(TRADE_CARD);
+            writeName(binderName);
+            writeName(outgoingName);
+            writeCard(incoming);
+            RECORD_OUT.writeBoolean(force);
+            endRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Records a custom price being set on a binder.
+     *
+     * @param name  the binder name
+     * @param price the custom price
+     */
+    void recordBinderPrice(String name, BigDecimal price) {
+        LOCK.lock();
+        try {
+            beginRecord(SET_BINDER_PRICE);
+            writeName(name);
+            writeDecimal(price);
+            endRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Records the operations of a committed transaction, in the order they were made, as a
+     * single record. Nothing is recorded if the record would be too large.
+     *
+     * @param ops    the journal operation code of each operation
+     * @param first  the container name of each operation, or the card name for collection operations
+     * @param second the card name of each operation, or the outgoing card name of a trade
+     * @param cards  the card carried by each operation, or null
+     * @param flags  the force flag of each trade
+     * @param count  the number of operations to record, from the start of the arrays
+     * @throws IllegalArgumentException if the record would exceed {@link #MAX_RECORD_SIZE}
+     */
+    void recordTransaction(byte[] ops, String[] first, String[] second, Card[] cards, boolean[] flags, int count) {
+        LOCK.lock();
+        try {
+            int firstNewId = nextNameId;
+            beginRecord(TRANSACTION);
+            writeVarInt(count);
+            for (int i = 0; i < count; i++) {
+                RECORD_OUT.writeByte(ops[i]);
+                writeFields(ops[i], first[i], second[i], cards[i], flags[i]);
+            }
+            if (RECORD.size() > MAX_RECORD_SIZE) {
+                forgetNames(firstNewId);
+                throw new IllegalArgumentException("transaction of " + count + " operations is too large to journal");
+            }
+            endRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Encodes operations that were applied independently of each other as grouped records, the
+     * record format of a transaction. A group whose record would exceed {@link #MAX_RECORD_SIZE}
+     * is split in halves, each recorded the same way. Must be called while holding {@link #LOCK}.
+     *
+     * @param from   the position of the first operation
+     * @param to     the position after the last operation
+     * @param writer encodes the op and fields of the operation at a position
+     * @throws IOException if the journal has failed or is closed
+     */
+    private void writeGroup(int from, int to, OperationWriter writer) throws IOException {
+        int firstNewId = nextNameId;
+        beginRecord(TRANSACTION);
+        writeVarInt(to - from);
+        for (int i = from; i < to; i++) {
+            writer.write(i);
+        }
+        if (RECORD.size() > MAX_RECORD_SIZE && to - from > 1) {
+            forgetNames(firstNewId);
+            int middle = (from + to) >>> 1;
+            writeGroup(from, middle, writer);
+            writeGroup(middle, to, writer);
+            return;
+        }
+        endRecord();
+    }
+
+    /**
+     * Encodes the op and fields of one operation of a grouped record.
+     */
+    @FunctionalInterface
+    private interface OperationWriter {
+        /**
+         * @param index the operation's position
+         * @throws IOException never, as the target is an in-memory buffer
+         */
+        void write(int index) throws IOException;
+    }
+
+    /**
+     * Drops the dictionary ids given to names by a record that was discarded before being
+     * written, so that later records spell those names out again.
+     * Must be called while holding {@link #LOCK}.
+     *
+     * @param firstNewId the first id the discarded record gave out
+     */
+    private void forgetNames(int firstNewId) {
+        NAME_IDS.values().removeIf(id -> id >= firstNewId);
+        nextNameId = firstNewId;
+    }
+
+    /**
+     * Encodes the fields of one transaction operation, as the single-operation record of the
+     * same code would. Must be called while holding {@link #LOCK}.
+     *
+     * @param op     the journal operation code
+     * @param first  the container name, or the card name for collection operations
+     * @param second the card name, or the outgoing card name of a trade
+     * @param card   the card carried by the operation, or null
+     * @param flag   the force flag of a trade
+     * @throws IOException never, as the target is an in-memory buffer
+     */
+    private void writeFields(byte op, String first, String second, Card card, boolean flag) throws IOException {
+        switch (op) {
+            case ADD_CARD -> writeCard(card);
+            case INCREMENT_CARD, DECREMENT_CARD -> writeName(first);
+            case TRADE_CARD -> {
+                writeName(first);
+                writeName(second);
+                writeCard(card);
+                RECORD_OUT.writeBoolean(flag);
+            }
+            default -> {
+                writeName(first);
+                writeName(second);
+            }
+        }
+    }
+
+    /**
+     * Starts encoding a record. Must be called while holding {@link #LOCK}.
+     *
+     * @param op the operation code
+     * @throws IOException if the journal has failed or is closed
+     */
+    private void beginRecord(byte op) throws IOException {
+        if (failure != null) {
+            throw new IOException("journal writer failed", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("journal is closed");
+        }
+        while (pending.size() > MAX_PENDING_BYTES) {
+            PROGRESS.awaitUninterruptibly();
+        }
+        replayable = false;
+        RECORD.reset();
+        RECORD_OUT.writeByte(op);
+    }
+
+    /**
+     * Frames the encoded record, moves it into the pending buffer and wakes the writer.
+     * Must be called while holding {@link #LOCK}.
+     */
+    private void endRecord() {
+        CRC.reset();
+        CRC.update(RECORD.array(), 0, RECORD.size());
+        pending.writeInt(RECORD.size());
+        pending.write(RECORD.array(), 0, RECORD.size());
+        pending.writeInt((int) CRC.getValue());
+        appendedEnd += Integer.BYTES * 2L + RECORD.size();
+        appendedCount++;
+        HAS_WORK.signal();
+    }
+
+    /**
+     * Encodes a name through the dictionary: its id alone if it was encoded since the last
+     * checkpoint, otherwise a new id followed by the name. The id is shifted left by one, with
+     * the low bit set when the name follows. Version 2 files get the name in full.
+     * Must be called while holding {@link #LOCK}.
+     *
+     * @param name the card, binder, or deck name
+     * @throws IOException never, as the target is an in-memory buffer
+     */
+    private void writeName(String name) throws IOException {
+        if (version == UTF_NAMES_VERSION) {
+            RECORD_OUT.writeUTF(name);
+            return;
+        }
+        Integer id = NAME_IDS.get(name);
+        if (id != null) {
+            writeVarInt(id << 1);
+        } else {
+            int next = nextNameId++;
+            NAME_IDS.put(name, next);
+            writeVarInt(next << 1 | 1);
+            RECORD_OUT.writeUTF(name);
+        }
+    }
+
+    /**
+     * Encodes a non-negative int in seven-bit groups, low group first, with the high bit of each
+     * byte set when another byte follows.
+     *
+     * @param value the value to encode
+     * @throws IOException never, as the target is an in-memory buffer
+     */
+    private void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            RECORD_OUT.writeByte(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        RECORD_OUT.writeByte(value);
+    }
+
+    /**
+     * Decodes a name written by {@link #writeName(String)}, adding new names to the dictionary.
+     * A new name may reuse an id given out before a checkpoint, replacing the old name.
+     *
+     * @param in    the record payload
+     * @param names the names read so far, by id, or null if names are spelled out in full
+     * @return the name
+     * @throws IOException if the payload is malformed or refers to an unknown id
+     */
+    private static String readName(DataInputStream in, ArrayList<String> names) throws IOException {
+        if (names == null) {
+            return in.readUTF();
+        }
+        int tagged = readVarInt(in);
+        int id = tagged >>> 1;
+        if ((tagged & 1) != 0) {
+            String name = in.readUTF();
+            while (names.size() <= id) {
+                names.add(null);
+            }
+            names.set(id, name);
+            return name;
+        }
+        if (id >= names.size() || names.get(id) == null) {
+            throw new IOException("unknown name id " + id);
+        }
+        return names.get(id);
+    }
+
+    /**
+     * Decodes an int written by {@link #writeVarInt(int)}.
+     *
+     * @param in the record payload
+     * @return the decoded value
+     * @throws IOException if the payload is malformed
+     */
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed variable-length integer");
+    }
+
+    /**
+     * Encodes a card's defining attributes.
+     *
+     * @param card the card to encode
+     * @throws IOException never, as the target is an in-memory buffer
+     */
+    private void writeCard(Card card) throws IOException {
+        writeName(card.getName());
+        RECORD_OUT.writeByte(card.getRarity() == null ? -1 : card.getRarity().ordinal());
+        RECORD_OUT.writeByte(card.getVariation().ordinal());
+        writeDecimal(card.getBaseValue());
+    }
+
+    /**
+     * Encodes an exact decimal as its scale and unscaled two's-complement bytes.
+     *
+     * @param value the value to encode
+     * @throws IOException never, as the target is an in-memory buffer
+     */
+    private void writeDecimal(BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        RECORD_OUT.writeInt(value.scale());
+        RECORD_OUT.writeShort(unscaled.length);
+        RECORD_OUT.write(unscaled);
+    }
+
+    /**
+     * Decodes a card written by {@link #writeCard(Card)}.
+     *
+     * @param in    the record payload
+     * @param names the names read so far, by id, or null if names are spelled out in full
+     * @return a new card with a count of one
+     * @throws IOException if the payload is malformed
+     */
+    private static Card readCard(DataInputStream in, ArrayList<String> names) throws IOException {
+        String name = readName(in, names);
+        byte rarity = in.readByte();
+        byte variation = in.readByte();
+        BigDecimal value = readDecimal(in);
+        return new Card(name, rarity < 0 ? null : Rarity.values()[rarity], Variation.values()[variation], value);
+    }
+
+    /**
+     * Decodes a decimal written by {@link #writeDecimal(BigDecimal)}.
+     *
+     * @param in the record payload
+     * @return the decoded value
+     * @throws IOException if the payload is malformed
+     */
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readUnsignedShort()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    /**
+     * Blocks until every record appended so far has been written and synced to disk.
+     *
+     * @throws IOException if the writer thread failed
+     */
+    public void sync() throws IOException {
+        LOCK.lock();
+        try {
+            long target = appendedCount;
+            syncWaiters++;
+            try {
+                HAS_WORK.signal();
+                while (durableCount < target && failure == null && WRITER.isAlive()) {
+                    PROGRESS.awaitUninterruptibly();
+                }
+            } finally {
+                syncWaiters--;
+            }
+            if (failure != null) {
+                throw new IOException("journal writer failed", failure);
+            }
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Truncates the journal back to an empty file with a new generation, discarding every record.
+     * Used once the current state has been saved elsewhere, such as in a snapshot,
+     * and must not run concurrently with operations being appended.
+     *
+     * @throws IOException if the file cannot be truncated
+     */
+    public void reset() throws IOException {
+        sync();
+        LOCK.lock();
+        try {
+            CHANNEL.truncate(0);
+            writeNewHeader();
+            CHANNEL.position(HEADER_SIZE);
+            appendedEnd = HEADER_SIZE;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Flushes and syncs everything appended so far, stops the writer thread and closes the file.
+     *
+     * @throws IOException if the final write or sync failed
+     */
+    @Override
+    public void close() throws IOException {
+        LOCK.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            HAS_WORK.signal();
+        } finally {
+            LOCK.unlock();
+        }
+        try {
+            WRITER.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        CHANNEL.close();
+        if (failure != null) {
+            throw new IOException("journal writer failed", failure);
+        }
+    }
+
+    /**
+     * Body of the writer thread: repeatedly takes the pending buffer, writes it,
+     * and syncs whenever the batch size or interval threshold is reached.
+     */
+    private void runWriter() {
+        long lastSync = System.nanoTime();
+        long written = 0;
+        long durable = 0;
+        while (true) {
+            RecordBuffer batch;
+            long batchEnd;
+            boolean closing;
+            boolean syncRequested;
+            LOCK.lock();
+            try {
+                while (pending.size() == 0 && !closed && syncWaiters == 0) {
+                    if (written == durable) {
+                        HAS_WORK.awaitUninterruptibly();
+                    } else {
+                        long remaining = FSYNC_INTERVAL_NANOS - (System.nanoTime() - lastSync);
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        try {
+                            HAS_WORK.awaitNanos(remaining);
+                        } catch (InterruptedException e) {
+                            // the writer is only stopped through close()
+                        }
+                    }
+                }
+                batch = pending;
+                pending = writing;
+                writing = batch;
+                batchEnd = appendedCount;
+                closing = closed;
+                syncRequested = syncWaiters > 0;
+                PROGRESS.signalAll();
+            } finally {
+                LOCK.unlock();
+            }
+
+            IOException error = null;
+            try {
+                if (batch.size() > 0) {
+                    ByteBuffer buffer = ByteBuffer.wrap(batch.array(), 0, batch.size());
+                    while (buffer.hasRemaining()) {
+                        CHANNEL.write(buffer);
+                    }
+                    written = batchEnd;
+                }
+                long now = System.nanoTime();
+                boolean due = written - durable >= FSYNC_BATCH_SIZE
+                        || now - lastSync >= FSYNC_INTERVAL_NANOS
+                        || closing || syncRequested;
+                if (due && written > durable) {
+                    CHANNEL.force(false);
+                    durable = written;
+                    lastSync = now;
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+            batch.reset();
+
+            LOCK.lock();
+            try {
+                if (error != null && failure == null) {
+                    failure = error;
+                }
+                durableCount = durable;
+                PROGRESS.signalAll();
+                if (failure != null || (closing && pending.size() == 0 && durable == appendedCount)) {
+                    return;
+                }
+            } finally {
+                LOCK.unlock();
+            }
+        }
+    }
+
+    /**
+     * Growable byte buffer that exposes its backing array so records can be
+     * checksummed and written without copying.
+     */
+    private static final class RecordBuffer extends ByteArrayOutputStream {
+        RecordBuffer() {
+            super(4096);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+        void writeInt(int v) {
+            write(v >>> 24);
+            write(v >>> 16);
+            write(v >>> 8);
+            write(v);
+        }
+    }
+}
@@ -0,0 +1,776 @@
+package com.System;
+
+import com.TradingCard.Binder;
+import com.TradingCard.Card;
+import com.TradingCard.Deck;
+import com.TradingCard.Sellable;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A sequence of collection, binder and deck mutations on an {@link InventorySystem} that
+ * takes effect as a unit: either every operation is kept by {@link #commit()}, or all of
+ * them are undone by {@link #rollback()}.
+ * <p>
+ * Each operation is applied immediately, and the steps needed to reverse it are appended to
+ * an in-memory undo log. If an operation throws, the whole transaction is rolled back before
+ * the exception reaches the caller, with any failure to undo a step attached to it as a
+ * suppressed exception. Closing a transaction that was not committed rolls it back,
+ * so the usual pattern is:
+ * <pre>
+ * try (Transaction tx = system.beginTransaction()) {
+ *     tx.removeCardFromBinder("trades", "Black Lotus");
+ *     tx.addCardToDeck("main", "Black Lotus");
+ *     tx.commit();
+ * }
+ * </pre>
+ * Every binder and deck touched, and the collection stripe of every card whose count changes,
+ * stays locked until the transaction ends, so no other thread can change them in between.
+ * Locks are taken in the system's usual order: a container's lock is waited for only while no
+ * stripe is held and the container's id is above those of all containers already held, and a
+ * stripe only while it is above every stripe already held. Any other lock is only tried, and
+ * if it is taken the transaction is rolled back and throws {@link IllegalStateException},
+ * since waiting could deadlock; such a transaction may simply be retried. Collection counts
+ * may be read by other threads before the commit; a rollback restores them.
+ * <p>
+ * The journal only receives the operations of a transaction when it commits, as a single
+ * record holding them in the order they were made, written while all its locks are still held.
+ * Replay after a crash therefore applies all of a committed transaction or none of it, and
+ * every other operation on the same cards and containers is journaled entirely before or
+ * entirely after it. A transaction the journal cannot take is rolled back instead of committed. A transaction belongs to the thread that began it, and that thread must
+ * not call the single-call mutators of {@link InventorySystem} while it runs, except
+ * {@link InventorySystem#tradeCard}, which joins it. Each thread reuses one transaction object,
+ * whose logs are plain arrays that only grow for long transactions; committing a transaction
+ * of a few dozen operations does not allocate.
+ */
+public class Transaction implements AutoCloseable {
+    /**
+     * Initial capacity of the undo and journal logs, and of the held-lock list.
+     */
+    private static final int INITIAL_CAPACITY = 32;
+
+    // Undo step kinds.
+    /**
+     * A copy was taken from a collection card; undone by incrementing it again.
+     */
+    private static final byte UNDO_TAKE = 1;
+
+    /**
+     * Copies were given to a collection card; undone by decrementing it again.
+     */
+    private static final byte UNDO_GIVE = 2;
+
+    /**
+     * A card was added to a binder or deck; undone by removing that exact card.
+     */
+    private static final byte UNDO_CONTAINER_ADD = 3;
+
+    /**
+     * A card was removed from a binder or deck; undone by adding it back.
+     */
+    private static final byte UNDO_CONTAINER_REMOVE = 4;
+
+    /**
+     * The system the transaction runs against.
+     */
+    private final InventorySystem SYSTEM;
+
+    /**
+     * Kind of each undo step.
+     */
+    private byte[] undoKinds;
+
+    /**
+     * Binder or deck of each undo step, or null for collection steps.
+     */
+    private Object[] undoContainers;
+
+    /**
+     * Card of each undo step.
+     */
+    private Card[] undoCards;
+
+    /**
+     * Number of copies given in each {@link #UNDO_GIVE} step.
+     */
+    private int[] undoCopies;
+
+    /**
+     * Number of undo steps in the log.
+     */
+    private int undoSize;
+
+    /**
+     * Journal operation code of each applied operation.
+     */
+    private byte[] journalOps;
+
+    /**
+     * First name recorded for each operation: the container, or the card for collection operations.
+     */
+    private String[] journalFirstNames;
+
+    /**
+     * Second name recorded for each operation: the card, or the outgoing card of a trade.
+     */
+    private String[] journalSecondNames;
+
+    /**
+     * Card recorded for operations that carry one.
+     */
+    private Card[] journalCards;
+
+    /**
+     * Force flag recorded for trades.
+     */
+    private boolean[] journalFlags;
+
+    /**
+     * Number of operations waiting to be journaled.
+     */
+    private int journalSize;
+
+    /**
+     * Locks of the binders and decks held by the transaction, in acquisition order.
+     */
+    private ReentrantLock[] heldLocks;
+
+    /**
+     * Number of locks held.
+     */
+    private int heldCount;
+
+    /**
+     * Highest id among the held containers.
+     */
+    private long maxHeldId;
+
+    /**
+     * Mask of the collection stripes held by the transaction.
+     */
+    private long heldStripes;
+
+    /**
+     * Whether the transaction has begun and not yet ended.
+     */
+    private boolean active;
+
+    /**
+     * Creates an idle transaction for a system. Each thread gets one through
+     * {@link InventorySystem#beginTransaction()}.
+     *
+     * @param system the system to run against
+     */
+    Transaction(InventorySystem system) {
+        this.SYSTEM = system;
+        this.undoKinds = new byte[INITIAL_CAPACITY];
+        this.undoContainers = new Object[INITIAL_CAPACITY];
+        this.undoCards = new Card[INITIAL_CAPACITY];
+        this.undoCopies = new int[INITIAL_CAPACITY];
+        this.journalOps = new byte[INITIAL_CAPACITY];
+        this.journalFirstNames = new String[INITIAL_CAPACITY];
+        this.journalSecondNames = new String[INITIAL_CAPACITY];
+        this.journalCards = new Card[INITIAL_CAPACITY];
+        this.journalFlags = new boolean[INITIAL_CAPACITY];
+        this.heldLocks = new ReentrantLock[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Starts the transaction.
+     *
+     * @throws IllegalStateException if the transaction is already running
+     */
+    void begin() {
+        if (active) {
+            throw new IllegalStateException("a transaction is already running on this thread");
+        }
+        active = true;
+    }
+
+    /**
+     * @return {@code true} if the transaction has begun and not yet committed or rolled back
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Moves a card from the collection into a binder slot.
+     *
+     * @param binderName name of the binder
+     * @param cardName   name of the card to move
+     * @throws NoSuchElementException if the card or binder does not exist
+     * @throws IllegalStateException  if the binder cannot accept the card
+     */
+    public void addCardToBinder(String binderName, String cardName) {
+        ensureActive();
+        try {
+            Binder binder = lockBinder(binderName);
+            Card tCard = take(cardName);
+            if (!binder.addCard(tCard)) {
+                throw new IllegalStateException("unable to add to binder because it is full");
+            }
+            logUndo(UNDO_CONTAINER_ADD, binder, tCard, 0);
+            logJournal(OperationJournal.ADD_CARD_TO_BINDER, binderName, cardName, null, false);
+        } catch (RuntimeException e) {
+            rollback(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Removes a single card from a binder and returns it to the collection.
+     *
+     * @param binderName name of the binder to remove from
+     * @param cardName   name of the card to remove
+     * @throws NoSuchElementException if the binder or card is not found
+     */
+    public void removeCardFromBinder(String binderName, String cardName) {
+        ensureActive();
+        try {
+            Binder binder = lockBinder(binderName);
+            Card tCard = binder.removeCardByName(cardName);
+            logUndo(UNDO_CONTAINER_REMOVE, binder, tCard, 0);
+            give(tCard);
+            logJournal(OperationJournal.REMOVE_CARD_FROM_BINDER, binderName, cardName, null, false);
+        } catch (RuntimeException e) {
+            rollback(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Moves a card from the collection into a deck slot.
+     *
+     * @param deckName name of the deck
+     * @param cardName name of the card to move
+     * @throws NoSuchElementException if the card or deck does not exist
+     * @throws IllegalStateException  if the deck cannot accept the card
+     */
+    public void addCardToDeck(String deckName, String cardName) {
+        ensureActive();
+        try {
+            Deck deck = lockDeck(deckName);
+            Card tCard = take(cardName);
+            if (!deck.addCard(tCard)) {
+                throw new IllegalStateException("unable to add to deck (full or duplicate)");
+            }
+            logUndo(UNDO_CONTAINER_ADD, deck, tCard, 0);
+            logJournal(OperationJournal.ADD_CARD_TO_DECK, deckName, cardName, null, false);
+        } catch (RuntimeException e) {
+            rollback(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Removes a card from a deck and returns it to the collection.
+     *
+     * @param deckName name of the deck to remove from
+     * @param cardName name of the card to remove
+     * @throws NoSuchElementException if the deck or card is not found
+     */
+    public void removeCardFromDeck(String deckName, String cardName) {
+        ensureActive();
+        try {
+            Deck deck = lockDeck(deckName);
+            Card tCard = deck.removeCardByName(cardName);
+            logUndo(UNDO_CONTAINER_REMOVE, deck, tCard, 0);
+            give(tCard);
+            logJournal(OperationJournal.REMOVE_CARD_FROM_DECK, deckName, cardName, null, false);
+        } catch (RuntimeException e) {
+            rollback(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Adds a card directly into the collection.
+     *
+     * @param c the Card to add
+     * @throws IllegalArgumentException if a card with the same name but different attributes exists
+     */
+    public void addCardToCollection(Card c) {
+        ensureActive();
+        try {
+            give(c);
+            logJournal(OperationJournal.ADD_CARD, null, null, c, false);
+        } catch (RuntimeException e) {
+            rollback(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Increments the count of a card in the collection by name.
+     *
+     * @param name name of card to increment
+     * @throws NoSuchElementException if no card with the given name exists
+     */
+    public void incrementCardInCollection(String name) {
+        ensureActive();
+        try {
+            holdStripe(SYSTEM.CARD_COLLECTION.stripeMask(name), name);
+            Card card = findInCollection(name);
+            card.incrementCount();
+            logUndo(UNDO_GIVE, null, card, 1);
+            logJournal(OperationJournal.INCREMENT_CARD, name, null, null, false);
+        } catch (RuntimeException e) {
+            rollback(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Decrements the count of a card in the collection by name.
+     *
+     * @param name name of card to decrement
+     * @throws NoSuchElementException if no card with the given name exists
+     * @throws IllegalStateException  if the card's count is already zero
+     */
+    public void decrementCardInCollection(String name) {
+        ensureActive();
+        try {
+            holdStripe(SYSTEM.CARD_COLLECTION.stripeMask(name), name);
+            Card card = findInCollection(name);
+            if (!card.tryDecrementCount()) {
+                throw new IllegalStateException("Card '" + name + "' count is already zero.");
+            }
+            logUndo(UNDO_TAKE, null, card, 0);
+            logJournal(OperationJournal.DECREMENT_CARD, name, null, null, false);
+        } catch (RuntimeException e) {
+            rollback(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Trades an outgoing card from a binder for an incoming one.
+     * <p>
+     * The value check runs before the incoming card reaches the collection, so a trade it
+     * cancels only puts the outgoing card back in the binder and the transaction carries on;
+     * a trade that fails part-way rolls back the whole transaction, including the incoming
+     * card's passage through the collection.
+     *
+     * @param binderName   name of the binder to trade in
+     * @param outgoingName name of the card to remove
+     * @param incomingCard the Card to add from external source
+     * @param force        if true, skip the $1 value difference check
+     * @return true if trade completed, false if cancelled due to value difference
+     * @throws NoSuchElementException if the binder or card is not found
+     * @throws IllegalStateException  if the binder can not be used in trading or ingoing card is rejected by binder
+     */
+    public boolean tradeCard(String binderName, String outgoingName, Card incomingCard, boolean force) {
+        ensureActive();
+        try {
+            Binder binder = lockBinder(binderName);
+            if (binder instanceof Sellable) {
+                throw new IllegalStateException("Binder \"" + binderName + "\" cannot be used for trading");
+            }
+            int mark = undoSize;
+
+            // Remove outgoing card
+            Card outgoingCard = binder.removeCardByName(outgoingName);
+            logUndo(UNDO_CONTAINER_REMOVE, binder, outgoingCard, 0);
+
+            // Value difference check, before the incoming card touches the collection
+            BigDecimal diff = incomingCard.getValue().subtract(outgoingCard.getValue()).abs();
+            if (diff.compareTo(BigDecimal.ONE) >= 0 && !force) {
+                RuntimeException failure = undoTo(mark);
+                if (failure != null) {
+                    throw failure;
+                }
+                return false;
+            }
+
+            // Add incoming card temporarily to collection
+            give(incomingCard);
+
+            // Perform trade: remove from collection and add to the binder
+            Card toTrade = take(incomingCard.getName());
+            if (!binder.addCard(toTrade)) {
+                throw new IllegalStateException("Incoming card \"" + toTrade.getName()
+                        + "\" is not allowed in binder \"" + binderName + "\"");
+            }
+            logUndo(UNDO_CONTAINER_ADD, binder, toTrade, 0);
+            logJournal(OperationJournal.TRADE_CARD, binderName, outgoingName, incomingCard, force);
+            return true;
+        } catch (RuntimeException e) {
+            rollback(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Journals every operation of the transaction as one record, keeps them, and releases its
+     * locks. If the journal refuses the record, the transaction is rolled back instead.
+     *
+     * @throws IllegalStateException    if the transaction is not running
+     * @throws IllegalArgumentException if the transaction is too large to journal; it was rolled back
+     * @throws UncheckedIOException     if the journal has failed; the transaction was rolled back
+     */
+    public void commit() {
+        ensureActive();
+        OperationJournal journal = SYSTEM.journal;
+        if (journal != null && journalSize > 0) {
+            try {
+                journal.recordTransaction(journalOps, journalFirstNames, journalSecondNames, journalCards,
+                        journalFlags, journalSize);
+            } catch (RuntimeException e) {
+                rollback(e);
+                throw e;
+            }
+        }
+        clearUndo();
+        clearJournal();
+        end();
+    }
+
+    /**
+     * Undoes every operation of the transaction, newest first, and releases its locks.
+     * Does nothing if the transaction has already ended. A step that cannot be undone does not
+     * stop the older ones from being undone; the first such failure is thrown once all of them
+     * have been tried and the locks released.
+     *
+     * @throws IllegalStateException if an operation could not be undone
+     */
+    public void rollback() {
+        RuntimeException failure = undoAll();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Rolls the transaction back after one of its operations failed, attaching any failure to
+     * undo it to the operation's exception instead of replacing it.
+     *
+     * @param cause the exception the failed operation is about to throw
+     */
+    private void rollback(RuntimeException cause) {
+        RuntimeException failure = undoAll();
+        if (failure != null) {
+            cause.addSuppressed(failure);
+        }
+    }
+
+    /**
+     * Tries every undo step, newest first, then releases the locks and ends the transaction.
+     * Does nothing if the transaction has already ended.
+     *
+     * @return the first undo step failure, with any later ones suppressed in it, or null if none
+     */
+    private RuntimeException undoAll() {
+        if (!active) {
+            return null;
+        }
+        try {
+            return undoTo(0);
+        } finally {
+            clearJournal();
+            end();
+        }
+    }
+
+    /**
+     * Rolls the transaction back unless it was committed.
+     */
+    @Override
+    public void close() {
+        rollback();
+    }
+
+    /**
+     * @throws IllegalStateException if the transaction is not running
+     */
+    private void ensureActive() {
+        if (!active) {
+            throw new IllegalStateException("transaction is not active");
+        }
+    }
+
+    /**
+     * Releases every held lock and marks the transaction as ended.
+     */
+    private void end() {
+        SYSTEM.CARD_COLLECTION.unlockStripes(heldStripes);
+        heldStripes = 0;
+        while (heldCount > 0) {
+            heldLocks[--heldCount].unlock();
+            heldLocks[heldCount] = null;
+        }
+        maxHeldId = 0;
+        active = false;
+    }
+
+    /**
+     * Finds a binder by name and locks it for the rest of the transaction.
+     *
+     * @param name name of the binder
+     * @return the locked binder
+     * @throws NoSuchElementException if no binder with that name exists
+     * @throws IllegalStateException  if the binder is locked elsewhere and waiting could deadlock
+     */
+    private Binder lockBinder(String name) {
+        Binder binder = SYSTEM.BINDER_MANAGER.findBinderByName(name);
+        hold(binder.getLock(), binder.getId(), "binder", name);
+        if (!SYSTEM.BINDER_MANAGER.isManaged(binder)) {
+            throw new NoSuchElementException("binder \"" + name + "\" not found");
+        }
+        return binder;
+    }
+
+    /**
+     * Finds a deck by name and locks it for the rest of the transaction.
+     *
+     * @param name name of the deck
+     * @return the locked deck
+     * @throws NoSuchElementException if no deck with that name exists
+     * @throws IllegalStateException  if the deck is locked elsewhere and waiting could deadlock
+     */
+    private Deck lockDeck(String name) {
+        Deck deck = SYSTEM.DECK_MANAGER.findDeckByName(name);
+        hold(deck.getLock(), deck.getId(), "deck", name);
+        if (!SYSTEM.DECK_MANAGER.isManaged(deck)) {
+            throw new NoSuchElementException("deck \"" + name + "\" not found");
+        }
+        return deck;
+    }
+
+    /**
+     * Acquires a container lock unless it is already held. The transaction only waits for
+     * locks of containers whose id is above those it holds, and only while it holds no
+     * collection stripe; otherwise it only tries the lock.
+     *
+     * @param lock the container's lock
+     * @param id   the container's id
+     * @param kind "binder" or "deck", for the error message
+     * @param name the container's name, for the error message
+     * @throws IllegalStateException if the lock is taken and waiting for it could deadlock
+     */
+    private void hold(ReentrantLock lock, long id, String kind, String name) {
+        for (int i = 0; i < heldCount; i++) {
+            if (heldLocks[i] == lock) {
+                return;
+            }
+        }
+        if (heldStripes == 0 && id > maxHeldId) {
+            lock.lock();
+            maxHeldId = id;
+        } else if (!lock.tryLock()) {
+            throw new IllegalStateException(
+                    kind + " \"" + name + "\" is in use; the transaction was rolled back and can be retried");
+        }
+        if (heldCount == heldLocks.length) {
+            heldLocks = Arrays.copyOf(heldLocks, heldCount * 2);
+        }
+        heldLocks[heldCount++] = lock;
+    }
+
+    /**
+     * Acquires a collection stripe unless it is already held. The transaction only waits for
+     * a stripe above all those it holds, and otherwise only tries it.
+     *
+     * @param stripe the stripe, as a mask with one bit set
+     * @param name   the card name the stripe guards, for the error message
+     * @throws IllegalStateException if the stripe is taken and waiting for it could deadlock
+     */
+    private void holdStripe(long stripe, String name) {
+        if ((heldStripes & stripe) != 0) {
+            return;
+        }
+        if (Long.compareUnsigned(stripe, heldStripes) > 0) {
+            SYSTEM.CARD_COLLECTION.lockStripes(stripe);
+        } else if (!SYSTEM.CARD_COLLECTION.tryLockStripes(stripe)) {
+            throw new IllegalStateException(
+                    "card \"" + name + "\" is in use; the transaction was rolled back and can be retried");
+        }
+        heldStripes |= stripe;
+    }
+
+    /**
+     * Finds a card in the collection.
+     *
+     * @param name the card's name
+     * @return the collection card
+     * @throws NoSuchElementException if no card with the given name exists
+     */
+    private Card findInCollection(String name) {
+        Card card = SYSTEM.CARD_COLLECTION.findByCardName(name);
+        if (card == null) {
+            throw new NoSuchElementException("Card '" + name + "' not found in collection.");
+        }
+        return card;
+    }
+
+    /**
+     * Takes one copy of a card out of the collection, holding its stripe for the rest of the
+     * transaction, and logs how to put it back.
+     *
+     * @param name the card's name
+     * @return a new Card instance representing the removed copy (count = 1)
+     * @throws NoSuchElementException if no card with the given name exists
+     * @throws IllegalStateException  if no copies remain
+     */
+    private Card take(String name) {
+        holdStripe(SYSTEM.CARD_COLLECTION.stripeMask(name), name);
+        Card copy = SYSTEM.CARD_COLLECTION.removeCardByName(name);
+        logUndo(UNDO_TAKE, null, findInCollection(name), 0);
+        return copy;
+    }
+
+    /**
+     * Adds a card to the collection, as {@link com.TradingCard.CardCollection#addCard(Card)} does,
+     * holding its stripe for the rest of the transaction, and logs how to take the added copies
+     * back out.
+     *
+     * @param card the card to add
+     * @throws IllegalArgumentException if a card with the same name but different attributes exists
+     * @throws IllegalStateException    if the card's stripe is taken and waiting for it could deadlock
+     */
+    private void give(Card card) {
+        holdStripe(SYSTEM.CARD_COLLECTION.stripeMask(card), card.getName());
+        Card existing = SYSTEM.CARD_COLLECTION.findByCardName(card.getName());
+        SYSTEM.CARD_COLLECTION.addCard(card);
+        if (existing == null) {
+            logUndo(UNDO_GIVE, null, card, card.getCount());
+        } else {
+            logUndo(UNDO_GIVE, null, existing, 1);
+        }
+    }
+
+    /**
+     * Appends an undo step, growing the log as needed.
+     *
+     * @param kind      the step kind
+     * @param container the binder or deck, or null
+     * @param card      the card
+     * @param copies    the number of copies given, for {@link #UNDO_GIVE}
+     */
+    private void logUndo(byte kind, Object container, Card card, int copies) {
+        if (undoSize == undoKinds.length) {
+            int capacity = undoSize * 2;
+            undoKinds = Arrays.copyOf(undoKinds, capacity);
+            undoContainers = Arrays.copyOf(undoContainers, capacity);
+            undoCards = Arrays.copyOf(undoCards, capacity);
+            undoCopies = Arrays.copyOf(undoCopies, capacity);
+        }
+        undoKinds[undoSize] = kind;
+        undoContainers[undoSize] = container;
+        undoCards[undoSize] = card;
+        undoCopies[undoSize] = copies;
+        undoSize++;
+    }
+
+    /**
+     * Reverses the undo steps above a mark, newest first, and drops them from the log.
+     * A step that fails is dropped too, and the remaining steps are still reversed.
+     *
+     * @param mark the number of steps to keep
+     * @return the first step failure, with any later ones suppressed in it, or null if none
+     */
+    private RuntimeException undoTo(int mark) {
+        RuntimeException failure = null;
+        while (undoSize > mark) {
+            undoSize--;
+            try {
+                undoStep(undoSize);
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+            undoContainers[undoSize] = null;
+            undoCards[undoSize] = null;
+        }
+        return failure;
+    }
+
+    /**
+     * Reverses one undo step.
+     *
+     * @param step the step's position in the log
+     * @throws IllegalStateException if the step cannot be reversed
+     */
+    private void undoStep(int step) {
+        Object container = undoContainers[step];
+        Card card = undoCards[step];
+        switch (undoKinds[step]) {
+            case UNDO_TAKE -> card.incrementCount();
+            case UNDO_GIVE -> {
+                for (int i = 0; i < undoCopies[step]; i++) {
+                    if (!card.tryDecrementCount()) {
+                        throw new IllegalStateException("cannot undo: copies of card \""
+                                + card.getName() + "\" were taken outside the transaction");
+                    }
+                }
+            }
+            case UNDO_CONTAINER_ADD -> {
+                if (container instanceof Binder binder) {
+                    binder.removeCard(card);
+                } else {
+                    ((Deck) container).removeCard(card);
+                }
+            }
+            case UNDO_CONTAINER_REMOVE -> {
+                if (container instanceof Binder binder) {
+                    binder.addCard(card);
+                } else {
+                    ((Deck) container).addCard(card);
+                }
+            }
+            default -> throw new IllegalStateException("unknown undo step " + undoKinds[step]);
+        }
+    }
+
+    /**
+     * Appends an operation to be journaled on commit, growing the log as needed.
+     *
+     * @param op     the journal operation code
+     * @param first  the container name, or the card name for collection operations
+     * @param second the card name, or the outgoing card name of a trade
+     * @param card   the card carried by the operation, or null
+     * @param flag   the force flag of a trade
+     */
+    private void logJournal(byte op, String first, String second, Card card, boolean flag) {
+        if (journalSize == journalOps.length) {
+            int capacity = journalSize * 2;
+            journalOps = Arrays.copyOf(journalOps, capacity);
+            journalFirstNames = Arrays.copyOf(journalFirstNames, capacity);
+            journalSecondNames = Arrays.copyOf(journalSecondNames, capacity);
+            journalCards = Arrays.copyOf(journalCards, capacity);
+            journalFlags = Arrays.copyOf(journalFlags, capacity);
+        }
+        journalOps[journalSize] = op;
+        journalFirstNames[journalSize] = first;
+        journalSecondNames[journalSize] = second;
+        journalCards[journalSize] = card;
+        journalFlags[journalSize] = flag;
+        journalSize++;
+    }
+
+    /**
+     * Drops every undo step without reversing it.
+     */
+    private void clearUndo() {
+        Arrays.fill(undoContainers, 0, undoSize, null);
+        Arrays.fill(undoCards, 0, undoSize, null);
+        undoSize = 0;
+    }
+
+    /**
+     * Drops every logged operation without journaling it.
+     */
+    private void clearJournal() {
+        Arrays.fill(journalFirstNames, 0, journalSize, null);
+        Arrays.fill(journalSecondNames, 0, journalSize, null);
+        Arrays.fill(journalCards, 0, journalSize, null);
+        journalSize = 0;
+    }
+}
@@ -84,6 +84,18 @@ public class View {
         }
     }
 
+    /**
+     * Displays the card names that complete a partly typed name.
+     *
+     * @param names the completing card names
+     */
+    public void showCompletions(ArrayList<String> names) {
+        System.out.println("\n=== matching cards ===");
+        for (String name : names) {
+            System.out.println("  - " + name);
+        }
+    }
+
     /**
      * Displays full details of a single card.
      *
@@ -99,9 +111,8 @@ public class View {
      * @param collection the CardCollection to display
      */
     public void showCollection(CardCollection collection) {
-        ArrayList<Card> cards = collection.getSortedCopy();
         System.out.println("\n=== collection ===");
-        for (Card card : cards) {
+        for (Card card : collection.getSortedView()) {
             System.out.println("  - card: " + card.getName() + ", count: " + card.getCount());
         }
     }
@@ -126,9 +137,8 @@ public class View {
      * @param binder the Binder to display
      */
     public void showBinder(Binder binder) {
-        ArrayList<Card> cards = binder.getSortedCopy();
         System.out.printf("%n=== binder: %s ===%n", binder.getName());
-        for (Card card : cards) {
+        for (Card card : binder.getSortedView()) {
             System.out.println(card.getName());
         }
     }
@@ -154,6 +164,7 @@ public class View {
             System.out.printf("%d. view collection%n", option++);
             System.out.printf("%d. increase/decrease card count%n", option++);
         }
+        System.out.printf("%d. import cards from csv%n", option++);
         System.out.printf("%d. exit%n", option);
     }
 
@@ -1,14 +1,25 @@
 package com.TradingCard;
 
+import com.TradingCard.Enums.BinderType;
+import com.TradingCard.Enums.Rarity;
+import com.TradingCard.Enums.Variation;
+
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Abstract base class representing a binder that holds a fixed number of cards.
  * <p>
  * Supports adding cards (enforced by subclasses), removing individual cards or clearing all,
  * and retrieving a sorted view of contained cards.
+ * <p>
+ * Every public method holds the binder's own {@link #getLock() lock}, so a binder may be used
+ * from several threads. Callers that combine several calls into one step hold the lock
+ * around them; when locking more than one binder or deck, they lock in ascending
+ * {@link #getId() id} order.
  */
 public abstract class Binder {
     /**
@@ -22,9 +33,39 @@ public abstract class Binder {
     private final String NAME;
 
     /**
-     * Internal list storing the cards contained in this binder.
+     * Process-wide unique id from the sequence shared by binders and decks, increasing in creation order.
+     */
+    private final long ID;
+
+    /**
+     * Lock held by every public method, and by callers combining several calls into one step.
+     */
+    protected final ReentrantLock LOCK;
+
+    /**
+     * The cards contained in this binder, kept sorted by card name and stored as collection ids
+     * once the managing BinderManager has set the collection to resolve them through.
+     * Subclasses add cards through {@link #insertCard(Card)} and empty the binder through
+     * {@link #clearCards()} so the order and the running value total are preserved.
      */
-    protected final ArrayList<Card> CARDS;
+    final CardIdList CARDS;
+
+    /**
+     * Running total of the values of all cards in {@link #CARDS}, in cents.
+     * Only changed while holding {@link #LOCK}, and readable without it.
+     */
+    private volatile long totalValueCents;
+
+    /**
+     * Index that every card this binder gains or loses is reported to, or null if it is not tracked.
+     * Set once by the managing BinderManager when the binder is created.
+     */
+    private volatile CardLocations locations;
+
+    /**
+     * Read-only live view of {@link #CARDS}, shared by all callers.
+     */
+    private final List<Card> SORTED_VIEW;
 
     /**
      * Constructs a Binder with the given name.
@@ -37,7 +78,10 @@ public abstract class Binder {
             throw new IllegalArgumentException("Binder name cannot be null or blank");
         }
         this.NAME = name.trim();
-        this.CARDS = new ArrayList<>();
+        this.ID = ContainerIds.next();
+        this.LOCK = new ReentrantLock();
+        this.CARDS = new CardIdList(MAX_CAPACITY);
+        this.SORTED_VIEW = Collections.unmodifiableList(CARDS);
     }
 
     /**
@@ -49,6 +93,44 @@ public abstract class Binder {
         return NAME;
     }
 
+    /**
+     * Retrieves the id that orders this binder's lock before those of later binders and decks.
+     *
+     * @return the binder's unique id
+     */
+    public long getId() {
+        return ID;
+    }
+
+    /**
+     * Starts reporting the cards this binder gains or loses to a reverse index.
+     * Called by the manager while the binder is still empty.
+     *
+     * @param locations the index to report to
+     */
+    void trackLocations(CardLocations locations) {
+        this.locations = locations;
+    }
+
+    /**
+     * Starts storing the cards taken from a collection as the ids it gave them.
+     * Called by the manager while the binder is still empty.
+     *
+     * @param collection the collection whose ids to store
+     */
+    void resolveThrough(CardCollection collection) {
+        CARDS.resolveThrough(collection);
+    }
+
+    /**
+     * Retrieves the lock guarding this binder's contents.
+     *
+     * @return the binder's lock
+     */
+    public ReentrantLock getLock() {
+        return LOCK;
+    }
+
     /**
      * Searches for a card in this binder by name.
      *
@@ -56,10 +138,60 @@ public abstract class Binder {
      * @return the matching Card, or null if not found
      */
     public Card findByCardName(String name) {
-        String query = name.trim().toLowerCase();
-        for (Card card : CARDS) {
-            if (card.getName().toLowerCase().equals(query)) {
-                return card;
+        String query = Card.normalizeName(name);
+        LOCK.lock();
+        try {
+            for (int i = 0; i < CARDS.size(); i++) {
+                if (CARDS.peek(i).getKey().equals(query)) {
+                    return CARDS.get(i);
+                }
+            }
+            return null;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Searches for a card in this binder by the id its {@link CardCollection} gave it,
+     * comparing the stored ids instead of names.
+     *
+     * @param id the card's id
+     * @return the matching Card, or null if not present
+     */
+    public Card findById(int id) {
+        if (id < 0) {
+            return null;
+        }
+        LOCK.lock();
+        try {
+            int index = CARDS.indexOfId(id);
+            return index >= 0 ? CARDS.get(index) : null;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Searches for a card in this binder by a possibly misspelled name. When no card matches
+     * exactly, the names within {@code maxDistance} edits are looked up in the collection's
+     * {@link CardCollection#findSimilar(String, int, int) fuzzy index}, closest first, and the
+     * first of them this binder holds is returned.
+     *
+     * @param name        case-insensitive card name to search
+     * @param collection  the collection whose names to match against
+     * @param maxDistance the most edits allowed between the name and a match
+     * @return the matching Card, or null if no card in this binder is close enough
+     */
+    public Card findByCardName(String name, CardCollection collection, int maxDistance) {
+        Card exact = findByCardName(name);
+        if (exact != null) {
+            return exact;
+        }
+        for (Card candidate : collection.findSimilar(name, maxDistance, Integer.MAX_VALUE)) {
+            Card held = findByCardName(candidate.getKey());
+            if (held != null) {
+                return held;
             }
         }
         return null;
@@ -67,13 +199,112 @@ public abstract class Binder {
 
     /**
      * Attempts to add a card to this binder.
-     * The specific acceptance criteria (capacity, rarity, etc.) are defined by subclasses.
+     * The specific acceptance criteria (capacity, rarity, etc.) are defined by subclasses,
+     * which hold {@link #LOCK} while checking and inserting.
      *
      * @param card the Card to add
      * @return {@code true} if the card was added; {@code false} if the binder is full or the card is disallowed
      */
     public abstract boolean addCard(Card card);
 
+    /**
+     * Checks whether this binder's acceptance rules allow cards of a rarity and variation,
+     * regardless of its remaining capacity. Binders that accept any card keep this default.
+     *
+     * @param rarity    the card's rarity
+     * @param variation the card's variation
+     * @return {@code true} if such cards may be added to this binder
+     */
+    public boolean accepts(Rarity rarity, Variation variation) {
+        return true;
+    }
+
+    /**
+     * Checks whether the binder has reached its maximum capacity.
+     * Callers hold {@link #LOCK}.
+     *
+     * @return {@code true} if no more cards can be added; {@code false} otherwise
+     */
+    protected boolean isFull() {
+        return CARDS.size() >= MAX_CAPACITY;
+    }
+
+    /**
+     * Inserts a card at its position in name order, after any cards with the same name.
+     * Callers hold {@link #LOCK} and are responsible for the capacity and acceptance checks.
+     *
+     * @param card the Card to insert
+     * @return {@code true} always, once the card has been inserted
+     */
+    protected boolean insertCard(Card card) {
+        int low = 0;
+        int high = CARDS.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (CARDS.peek(mid).getName().compareTo(card.getName()) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        CARDS.insert(low, card);
+        totalValueCents += card.getValueCents();
+        CardLocations tracked = locations;
+        if (tracked != null) {
+            tracked.added(card.getKey(), ID);
+        }
+        return true;
+    }
+
+    /**
+     * Removes every card from this binder and resets the running value total.
+     * Callers hold {@link #LOCK}.
+     */
+    protected void clearCards() {
+        CardLocations tracked = locations;
+        if (tracked != null) {
+            for (int i = 0; i < CARDS.size(); i++) {
+                tracked.removed(CARDS.peek(i).getKey(), ID);
+            }
+        }
+        CARDS.clear();
+        totalValueCents = 0;
+    }
+
+    /**
+     * Removes the card at a position and takes its value off the running total.
+     * Callers hold {@link #LOCK}.
+     *
+     * @param index the card's position in {@link #CARDS}
+     * @return the removed card
+     */
+    private Card removeAt(int index) {
+        Card card = CARDS.remove(index);
+        totalValueCents -= card.getValueCents();
+        CardLocations tracked = locations;
+        if (tracked != null) {
+            tracked.removed(card.getKey(), ID);
+        }
+        return card;
+    }
+
+    /**
+     * Returns the total real value of all cards currently in this binder, in cents.
+     * The total is maintained as cards are added and removed, so this runs in constant time.
+     *
+     * @return sum of card values in cents
+     */
+    public long getTotalValueCents() {
+        return totalValueCents;
+    }
+
+    /**
+     * Identifies the kind of binder, matching the type it is created from.
+     *
+     * @return the {@link BinderType} of this binder
+     */
+    public abstract BinderType getType();
+
     /**
      * Determines whether this binder supports selling its contents.
      * return value is defined by the subclasses
@@ -88,9 +319,35 @@ public abstract class Binder {
      * @return a new list containing all removed cards
      */
     public ArrayList<Card> removeAllCards() {
-        ArrayList<Card> removed = new ArrayList<>(CARDS);
-        CARDS.clear();
-        return removed;
+        LOCK.lock();
+        try {
+            ArrayList<Card> removed = new ArrayList<>(CARDS);
+            clearCards();
+            return removed;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Removes a card that was added to this binder, such as when undoing an earlier add: a copy
+     * of the same collection card, or the same card instance if it was not stored by id.
+     *
+     * @param card the card to remove
+     * @return {@code true} if the card was in this binder and has been removed; {@code false} otherwise
+     */
+    public boolean removeCard(Card card) {
+        LOCK.lock();
+        try {
+            int index = CARDS.indexOfCard(card);
+            if (index < 0) {
+                return false;
+            }
+            removeAt(index);
+            return true;
+        } finally {
+            LOCK.unlock();
+        }
     }
 
     /**
@@ -102,27 +359,73 @@ public abstract class Binder {
      * @throws NoSuchElementException if no matching card is found
      */
     public Card removeCardByName(String name) {
-        if (CARDS.isEmpty()) {
-            throw new IllegalStateException("Binder '" + NAME + "' is empty");
-        }
-        Card target = findByCardName(name);
-        if (target == null) {
+        LOCK.lock();
+        try {
+            if (CARDS.isEmpty()) {
+                throw new IllegalStateException("Binder '" + NAME + "' is empty");
+            }
+            String query = Card.normalizeName(name);
+            for (int i = 0; i < CARDS.size(); i++) {
+                if (CARDS.peek(i).getKey().equals(query)) {
+                    return removeAt(i);
+                }
+            }
             throw new NoSuchElementException(
                     "Card '" + name + "' not found in binder '" + NAME + "'");
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Removes a specific card from the binder by the id its {@link CardCollection} gave it.
+     *
+     * @param id the card's id
+     * @return the removed Card instance
+     * @throws IllegalStateException  if the binder is empty
+     * @throws NoSuchElementException if no matching card is found
+     */
+    public Card removeCardById(int id) {
+        LOCK.lock();
+        try {
+            if (CARDS.isEmpty()) {
+                throw new IllegalStateException("Binder '" + NAME + "' is empty");
+            }
+            int index = CARDS.indexOfId(id);
+            if (index >= 0) {
+                return removeAt(index);
+            }
+            throw new NoSuchElementException(
+                    "Card #" + id + " not found in binder '" + NAME + "'");
+        } finally {
+            LOCK.unlock();
         }
-        CARDS.remove(target);
-        return target;
     }
 
     /**
-     * Returns a shallow copy of the cards in this binder, sorted by card name.
+     * Returns a copy of the cards in this binder, sorted by card name.
+     * The cards are already kept in name order, so no sorting takes place.
      *
      * @return a new list of cards sorted alphabetically
      */
     public ArrayList<Card> getSortedCopy() {
-        ArrayList<Card> sorted = new ArrayList<>(CARDS);
-        sorted.sort(Comparator.comparing(Card::getName));
-        return sorted;
+        LOCK.lock();
+        try {
+            return new ArrayList<>(CARDS);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Returns a read-only live view of the cards in this binder, sorted by card name.
+     * Cards stored by id are rebuilt as new copies each time the view reads them.
+     * Callers iterating the view while other threads may modify the binder hold {@link #getLock()}.
+     *
+     * @return an unmodifiable list of cards sorted alphabetically
+     */
+    public List<Card> getSortedView() {
+        return SORTED_VIEW;
     }
 
     /**
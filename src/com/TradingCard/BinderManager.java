@@ -3,22 +3,100 @@
 
     import java.math.BigDecimal;
     import java.util.*;
+    import java.util.concurrent.ConcurrentHashMap;
+    import java.util.concurrent.ForkJoinPool;
+    import java.util.concurrent.locks.ReentrantLock;
 
     /**
      * Manages the lifecycle and interactions of binders in the system.
      * Provides creation, deletion, selling, and card transfer functionality.
+     * <p>
+     * The manager is safe for concurrent use. A binder is unregistered before it is emptied,
+     * so callers that lock a binder and then confirm it is still {@link #isManaged(Binder) managed}
+     * cannot add cards to a binder that is being deleted or sold.
+     * <p>
+     * Creating, deleting and selling binders hold the manager's {@link #getLock() lock}, so
+     * binder names change one at a time. Callers that must finish another step, such as
+     * journaling the change, before the next name changes hold the lock around the call;
+     * they take it before locking any binder.
      */
     public class BinderManager {
         /**
-         * The list of all binders currently tracked.
+         * All binders currently tracked, keyed by their normalized name.
          */
-        private final ArrayList<Binder> BINDERS;
+        private final ConcurrentHashMap<String, Binder> BINDERS;
 
         /**
-         * Constructs a new BinderManager with an empty binder list.
+         * The same binders keyed by id, in creation order. Only read or changed while holding
+         * {@link #LOCK}, so registering and unregistering take constant time; readers get copies.
+         */
+        private final LinkedHashMap<Long, Binder> BY_ID;
+
+        /**
+         * Reverse index that every binder created here reports its cards to.
+         */
+        private final CardLocations LOCATIONS;
+
+        /**
+         * Collection whose ids the binders created here store their cards as, or null if they keep card objects.
+         */
+        private final CardCollection COLLECTION;
+
+        /**
+         * Lock held while binders are created, deleted or sold, and while their creation order is read.
+         */
+        private final ReentrantLock LOCK;
+
+        /**
+         * Constructs a new BinderManager with an empty binder list and its own reverse index.
          */
         public BinderManager() {
-            this.BINDERS = new ArrayList<>();
+            this(new CardLocations());
+        }
+
+        /**
+         * Constructs a new BinderManager with an empty binder list whose binders keep card objects.
+         *
+         * @param locations the reverse index that binders created here report their cards to,
+         *                  which may be shared with a {@link DeckManager}
+         */
+        public BinderManager(CardLocations locations) {
+            this(locations, null);
+        }
+
+        /**
+         * Constructs a new BinderManager with an empty binder list.
+         *
+         * @param locations  the reverse index that binders created here report their cards to,
+         *                   which may be shared with a {@link DeckManager}
+         * @param collection the collection the binders created here take their cards from, whose
+         *                   ids they store those cards as, or null to keep card objects
+         */
+        public BinderManager(CardLocations locations, CardCollection collection) {
+            this.BINDERS = new ConcurrentHashMap<>();
+            this.BY_ID = new LinkedHashMap<>();
+            this.LOCATIONS = locations;
+            this.COLLECTION = collection;
+            this.LOCK = new ReentrantLock();
+        }
+
+        /**
+         * Retrieves the lock held while binders are created, deleted or sold.
+         *
+         * @return the manager's lock
+         */
+        public ReentrantLock getLock() {
+            return LOCK;
+        }
+
+        /**
+         * Normalizes a binder name into its lookup key.
+         *
+         * @param name the binder name
+         * @return the trimmed, lower-case name
+         */
+        private static String keyOf(String name) {
+            return name.trim().toLowerCase();
         }
 
         /**
@@ -29,11 +107,11 @@
          * @throws NoSuchElementException if no binder with that name exists
          */
         public Binder findBinderByName(String name) {
-            for (Binder binder : this.BINDERS) {
-                if (binder.getName().equalsIgnoreCase(name))
-                    return binder;
+            Binder binder = this.BINDERS.get(keyOf(name));
+            if (binder == null) {
+                throw new NoSuchElementException("binder \"" + name + "\" not found");
             }
-            throw new NoSuchElementException("binder \"" + name + "\" not found");
+            return binder;
         }
 
         /**
@@ -44,12 +122,26 @@
          * @throws IllegalStateException if a binder with the same name already exists
          */
         public void createBinder(String name, BinderType type) {
-            for (Binder b : BINDERS) {
-                if (b.getName().equalsIgnoreCase(name)) {
+            LOCK.lock();
+            try {
+                if (BINDERS.containsKey(keyOf(name))) {
                     throw new IllegalStateException("binder \"" + name + "\" already exists");
                 }
+                register(newBinder(name, type));
+            } finally {
+                LOCK.unlock();
             }
+        }
 
+        /**
+         * Creates a binder of the specified type without registering it, so that the caller
+         * can lock it before other threads can find it.
+         *
+         * @param name the name of the new binder
+         * @param type the type of binder to create
+         * @return the new, empty binder
+         */
+        public Binder newBinder(String name, BinderType type) {
             Binder newBinder = switch (type) {
                 case NON_CURATED -> new NonCuratedBinder(name);
                 case PAUPER -> new PauperBinder(name);
@@ -57,8 +149,83 @@
                 case LUXURY -> new LuxuryBinder(name);
                 case COLLECTOR -> new CollectorBinder(name);
             };
+            newBinder.trackLocations(LOCATIONS);
+            if (COLLECTION != null) {
+                newBinder.resolveThrough(COLLECTION);
+            }
+            return newBinder;
+        }
 
-            BINDERS.add(newBinder);
+        /**
+         * Registers a binder made by {@link #newBinder(String, BinderType)}.
+         *
+         * @param binder the binder to register
+         * @throws IllegalStateException if a binder with the same name already exists
+         */
+        public void register(Binder binder) {
+            LOCK.lock();
+            try {
+                if (BINDERS.putIfAbsent(keyOf(binder.getName()), binder) != null) {
+                    throw new IllegalStateException("binder \"" + binder.getName() + "\" already exists");
+                }
+                BY_ID.put(binder.getId(), binder);
+            } finally {
+                LOCK.unlock();
+            }
+        }
+
+        /**
+         * Finds a managed binder by its id.
+         *
+         * @param id the binder's id
+         * @return the binder, or null if no managed binder has that id
+         */
+        public Binder findBinderById(long id) {
+            LOCK.lock();
+            try {
+                return BY_ID.get(id);
+            } finally {
+                LOCK.unlock();
+            }
+        }
+
+        /**
+         * Returns all binders in creation order, copied while holding the manager's lock.
+         *
+         * @return a new list of the managed binders
+         */
+        public ArrayList<Binder> getBinders() {
+            LOCK.lock();
+            try {
+                return new ArrayList<>(BY_ID.values());
+            } finally {
+                LOCK.unlock();
+            }
+        }
+
+        /**
+         * Checks whether a binder is still registered with this manager.
+         * Callers holding the binder's lock use this to detect a concurrent delete or sale.
+         *
+         * @param binder the binder to check
+         * @return {@code true} if the binder has not been deleted or sold; {@code false} otherwise
+         */
+        public boolean isManaged(Binder binder) {
+            return BINDERS.get(keyOf(binder.getName())) == binder;
+        }
+
+        /**
+         * Unregisters a binder, failing if another thread already deleted or sold it.
+         *
+         * @param name   the name the binder was looked up by
+         * @param binder the binder to unregister
+         * @throws NoSuchElementException if the binder is no longer registered
+         */
+        private void unregister(String name, Binder binder) {
+            if (!BINDERS.remove(keyOf(binder.getName()), binder)) {
+                throw new NoSuchElementException("binder \"" + name + "\" not found");
+            }
+            BY_ID.remove(binder.getId());
         }
 
         /**
@@ -117,10 +284,14 @@
          * @throws NoSuchElementException if no binder with that name exists
          */
         public ArrayList<Card> deleteBinder(String name) {
-            Binder target = findBinderByName(name);
-            ArrayList<Card> cards = target.removeAllCards();
-            this.BINDERS.remove(target);
-            return cards;
+            LOCK.lock();
+            try {
+                Binder target = findBinderByName(name);
+                unregister(name, target);
+                return target.removeAllCards();
+            } finally {
+                LOCK.unlock();
+            }
         }
 
         /**
@@ -152,17 +323,35 @@
             return null;
         }
 
+        /**
+         * Adds up what every sellable binder would currently sell for, handling fees and
+         * luxury custom prices included, splitting the binders over the pool's workers.
+         *
+         * @param pool the pool to run in
+         * @return the total, with {@link Sellable#SALE_PRICE_SCALE} decimal places
+         * @throws ArithmeticException if the total does not fit in a long
+         */
+        public long sumSalePrices(ForkJoinPool pool) {
+            return ValueSum.sum(pool, getBinders().spliterator(),
+                    binder -> binder instanceof Sellable sellable ? sellable.getUnscaledSalePrice() : 0);
+        }
+
         /**
          * Returns the names of all binders currently managed.
          *
          * @return a list of binder names
          */
         public ArrayList<String> getBinderNames() {
-            ArrayList<String> binderNames = new ArrayList<>();
-            for (Binder binder : this.BINDERS) {
-                binderNames.add(binder.getName());
+            LOCK.lock();
+            try {
+                ArrayList<String> binderNames = new ArrayList<>(BY_ID.size());
+                for (Binder binder : BY_ID.values()) {
+                    binderNames.add(binder.getName());
+                }
+                return binderNames;
+            } finally {
+                LOCK.unlock();
             }
-            return binderNames;
         }
 
         /**
@@ -174,15 +363,19 @@
          * @throws IllegalStateException if the binder is not sellable
          */
         public BigDecimal sellBinder(String name) {
-            Binder binder = findBinderByName(name);
+            LOCK.lock();
+            try {
+                Binder binder = findBinderByName(name);
 
-            if (!binder.isSellable()) {
-                throw new IllegalStateException("binder \"" + name + "\" cannot be sold");
-            }
+                if (!binder.isSellable()) {
+                    throw new IllegalStateException("binder \"" + name + "\" cannot be sold");
+                }
 
-            BigDecimal price = ((Sellable) binder).sell();
-            BINDERS.remove(binder);
-            return price;
+                unregister(name, binder);
+                return ((Sellable) binder).sell();
+            } finally {
+                LOCK.unlock();
+            }
         }
 
         /**
@@ -1,41 +1,64 @@
 package com.TradingCard;
 
 import com.TradingCard.Enums.*;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.Objects;
 
 /**
  * Represents a trading card with a NAME, RARITY, VARIATION, base value, and count.
  * <p>
  * Provides methods to compute current market value based on VARIATION and to
- * manage the count of copies in the collection.
+ * manage the count of copies in the collection. The count is updated atomically,
+ * so it may be changed from several threads without locking.
+ * <p>
+ * The name, rarity, variation and values live in a {@link CardDefinition} that
+ * {@link #copyCard(Card) copies} share, so a copy moved into a binder or deck holds only
+ * a reference to it, its count, and its id.
  */
 public class Card implements Sellable {
     /**
-     * The unique name of the card.
+     * Id of a card that has not been stored in a collection.
      */
-    private final String NAME;
+    public static final int NO_ID = -1;
 
     /**
-     * The rarity tier of the card (e.g. COMMON, RARE, LEGENDARY).
+     * Handle used to update {@link #count} atomically.
      */
-    private final Rarity RARITY;
+    private static final VarHandle COUNT;
+
+    static {
+        try {
+            COUNT = MethodHandles.lookup().findVarHandle(Card.class, "count", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     /**
-     * The variation type of the card (e.g. NORMAL, FOIL).
+     * The card's immutable attributes, shared with every copy taken of it.
      */
-    private final Variation VARIATION;
+    private final CardDefinition DEFINITION;
 
     /**
-     * The card’s base monetary value.
+     * The number of copies of this card in the collection, only updated through {@link #COUNT}.
      */
-    private final BigDecimal BASE_VALUE;
+    private volatile int count;
 
     /**
-     * The number of copies of this card in the collection.
+     * Dense id given by the {@link CardCollection} that first stored this card,
+     * or {@link #NO_ID} if the card has not been stored in a collection.
+     * Copies share the id of the card they were made from.
      */
-    private int count;
+    private int id = NO_ID;
+
+    /**
+     * Columns of the collection storing this card, which every change of its count is applied
+     * to, or null if the collection keeps none. Never set on copies.
+     */
+    private CardColumns columns;
 
     /**
      * Constructs a Card with given attributes and an initial count of 1.
@@ -43,45 +66,111 @@ public class Card implements Sellable {
      * @param r    the RARITY of the card
      * @param v    the VARIATION of the card
      * @param val  the base monetary value of the card
-     * @throws IllegalArgumentException if NAME is null or blank
+     * @throws IllegalArgumentException if NAME is null or blank, or VARIATION or the base value is null
+     * @throws ArithmeticException      if the adjusted value does not fit in a long number of cents
      */
     public Card(String n, Rarity r, Variation v, BigDecimal val) {
-        if (n == null || n.trim().isEmpty()) {
-            throw new IllegalArgumentException("NAME cannot be empty");
+        this(n, r, v, val, 1);
+    }
+
+    /**
+     * Constructs a Card with given attributes and initial count, such as when restoring saved state.
+     * The attributes become a new {@link CardDefinition}.
+     * @param n     the NAME of the card (must be non-null, non-empty)
+     * @param r     the RARITY of the card
+     * @param v     the VARIATION of the card
+     * @param val   the base monetary value of the card
+     * @param count the initial number of copies (must not be negative)
+     * @throws IllegalArgumentException if NAME is null or blank, VARIATION or the base value is null,
+     *                                  or count is negative
+     * @throws ArithmeticException      if the adjusted value does not fit in a long number of cents
+     */
+    public Card(String n, Rarity r, Variation v, BigDecimal val, int count) {
+        this.DEFINITION = new CardDefinition(n, r, v, val);
+        if (count < 0) {
+            throw new IllegalArgumentException("count cannot be negative");
         }
-        this.NAME = n.trim();
-        this.RARITY = r;
-        this.VARIATION = v;
-        this.BASE_VALUE = val;
-        this.count = 1; // initial copy count
+        this.count = count;
+    }
+
+    /**
+     * Constructs a single copy of an existing card, sharing its definition,
+     * so a copy holds nothing but its count and id.
+     * @param source the card to copy
+     */
+    private Card(Card source) {
+        this.DEFINITION = source.DEFINITION;
+        this.id = source.id;
+        this.count = 1;
+    }
+
+    /**
+     * @return the immutable attributes of this card, shared with its copies
+     */
+    public CardDefinition getDefinition() {
+        return DEFINITION;
+    }
+
+    /**
+     * @return the dense id given by the collection holding this card (or the card it was copied
+     * from), or {@link #NO_ID} if it has never been stored in a collection
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the id of a card being stored in a collection, before the collection publishes it.
+     *
+     * @param id the id the collection gives the card
+     */
+    void assignId(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Starts applying every change of this card's count to a collection's columns, before the
+     * collection publishes the card.
+     *
+     * @param columns the columns holding this card under its id
+     */
+    void trackColumns(CardColumns columns) {
+        this.columns = columns;
     }
 
     /**
      * @return the RARITY of this card
      */
     public Rarity getRarity() {
-        return RARITY;
+        return DEFINITION.getRarity();
     }
 
     /**
      * @return the VARIATION of this card
      */
     public Variation getVariation() {
-        return VARIATION;
+        return DEFINITION.getVariation();
     }
 
     /**
      * @return the NAME of this card
      */
     public String getName() {
-        return NAME;
+        return DEFINITION.getName();
+    }
+
+    /**
+     * @return the normalized (trimmed, lower-case) NAME used for case-insensitive lookups
+     */
+    public String getKey() {
+        return DEFINITION.getKey();
     }
 
     /**
      * @return the base monetary value of this card
      */
     public BigDecimal getBaseValue() {
-        return this.BASE_VALUE;
+        return DEFINITION.getBaseValue();
     }
 
     /**
@@ -92,65 +181,153 @@ public class Card implements Sellable {
     }
 
     /**
-     * Calculates the market value of the card based on its VARIATION multiplier.
-     * The result is rounded to two decimal places.
+     * Returns the market value of the card based on its VARIATION multiplier.
+     * The result is rounded to two decimal places and computed only once.
      * @return adjusted value according to VARIATION
      */
     public BigDecimal getValue() {
-        BigDecimal multiplier;
-        switch (VARIATION) {
-            case EXTENDED_ART -> multiplier = BigDecimal.valueOf(1.5);
-            case FULL_ART     -> multiplier = BigDecimal.valueOf(2.0);
-            case ALT_ART      -> multiplier = BigDecimal.valueOf(3.0);
-            default           -> multiplier = BigDecimal.valueOf(1.0);
-        }
-        BigDecimal value = multiplier.multiply(getBaseValue());
-        return value.setScale(2, RoundingMode.HALF_UP);
+        return DEFINITION.getValue();
+    }
+
+    /**
+     * @return the adjusted market value in whole cents, for allocation-free summing
+     */
+    public long getValueCents() {
+        return DEFINITION.getValueCents();
     }
 
     /**
      * Increments the count of this card by one.
      */
     public void incrementCount() {
-        this.count++;
+        int previous = (int) COUNT.getAndAdd(this, 1);
+        countChanged(1);
+        if (previous == 0) {
+            stockChanged();
+        }
+    }
+
+    /**
+     * Increments the count of this card by the given number of copies.
+     *
+     * @param copies the number of copies to add (must not be negative)
+     * @throws IllegalArgumentException if copies is negative
+     * @throws ArithmeticException      if the count would overflow
+     */
+    public void addCount(int copies) {
+        if (copies < 0) {
+            throw new IllegalArgumentException("copies cannot be negative");
+        }
+        int current;
+        do {
+            current = this.count;
+        } while (!COUNT.weakCompareAndSet(this, current, Math.addExact(current, copies)));
+        countChanged(copies);
+        if (current == 0 && copies > 0) {
+            stockChanged();
+        }
     }
 
     /**
      * Decrements the count of this card by one, not falling below zero.
      */
     public void decrementCount() {
-        if (this.count > 0) this.count--;
+        tryDecrementCount();
+    }
+
+    /**
+     * Decrements the count of this card by one if it is above zero, as a single atomic step.
+     *
+     * @return {@code true} if a copy was taken; {@code false} if the count was already zero
+     */
+    public boolean tryDecrementCount() {
+        int current;
+        do {
+            current = this.count;
+            if (current == 0) {
+                return false;
+            }
+        } while (!COUNT.weakCompareAndSet(this, current, current - 1));
+        countChanged(-1);
+        if (current == 1) {
+            stockChanged();
+        }
+        return true;
+    }
+
+    /**
+     * Applies a change of this card's count to the columns of the collection storing it, if any.
+     *
+     * @param delta the number of copies added, or minus the number taken
+     */
+    private void countChanged(int delta) {
+        CardColumns tracked = columns;
+        if (tracked != null) {
+            tracked.countChanged(id, delta);
+        }
+    }
+
+    /**
+     * Tells the value index holding this card's definition that the card sold out or came
+     * back into stock, so value listings can pass over sold-out cards without visiting them.
+     */
+    private void stockChanged() {
+        ValueIndex index = DEFINITION.getValueIndex();
+        if (index != null) {
+            index.stockChanged(this);
+        }
+    }
+
+    /**
+     * Normalizes a card name into its lookup key by trimming and lower-casing it.
+     * <p>
+     * A name that is already normalized is returned as-is, so lookups with
+     * normalized names do not allocate.
+     *
+     * @param name the card name to normalize
+     * @return the normalized lookup key
+     */
+    public static String normalizeName(String name) {
+        return name.trim().toLowerCase();
     }
 
     /**
      * Creates a shallow copy of the given card with count reset to 1.
+     * The copy shares the card's {@link CardDefinition}, so only the copy itself is allocated.
      * @param c the card to copy
      * @return a new Card instance with identical attributes (count=1), or null if c is null
      */
     public static Card copyCard(Card c) {
         if (c != null) {
-            return new Card(c.getName(), c.getRarity(), c.getVariation(), c.getBaseValue());
+            return new Card(c);
         }
         return null;
     }
 
     @Override
     public BigDecimal sell() {
-        if(this.count < 0) {
-            throw new IllegalStateException("0 copies of the card "+ NAME +" is found in the deck");
+        if (!tryDecrementCount()) {
+            throw new IllegalStateException("0 copies of the card "+ getName() +" is found in the deck");
         }
-        decrementCount();
         return getValue();
     }
 
+    /**
+     * @return the value of one copy, with {@link Sellable#SALE_PRICE_SCALE} decimal places
+     */
+    @Override
+    public long getUnscaledSalePrice() {
+        return Math.multiplyExact(getValueCents(), 100L);
+    }
+
     /**
      * @return a string representation including NAME, RARITY, VARIATION, count, and value
      */
     @Override
     public String toString() {
-        return "Name: " + NAME +
-                " | Rarity: " + RARITY +
-                " | Variation: " + VARIATION +
+        return "Name: " + getName() +
+                " | Rarity: " + getRarity() +
+                " | Variation: " + getVariation() +
                 " | Count: " + count +
                 " | Value: $" + getValue();
     }
@@ -164,17 +341,15 @@ public class Card implements Sellable {
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (!(obj instanceof Card other)) return false;
-        return this.NAME.equalsIgnoreCase(other.NAME)
-                && this.RARITY == other.RARITY
-                && this.VARIATION == other.VARIATION;
+        return this.DEFINITION.matches(other.DEFINITION);
     }
 
     /**
-     * Hash code consistent with equals, using lowercase NAME, RARITY, and VARIATION.
+     * Hash code consistent with equals, using the normalized NAME, RARITY, and VARIATION.
      * @return computed hash code
      */
     @Override
     public int hashCode() {
-        return Objects.hash(NAME.toLowerCase(), RARITY, VARIATION);
+        return Objects.hash(getKey(), getRarity(), getVariation());
     }
 }
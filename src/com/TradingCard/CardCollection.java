@@ -1,27 +1,335 @@
 package com.TradingCard;
 
+import com.TradingCard.Enums.Rarity;
+import com.TradingCard.Enums.Variation;
+
 import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Manages the main pool of trading cards, tracking unique card attributes and copy counts.
  * <p>
  * Supports adding, removing, searching, selling, and adjusting counts of cards.
+ * <p>
+ * The collection is safe for concurrent use. Lookups take no lock, copy counts are updated
+ * atomically on the cards themselves, and adding a card locks only the stripe its normalized
+ * name hashes to. Callers that combine several steps on the same names (such as moving a card
+ * into a binder) hold the stripes for those names through {@link #lockStripe(String)} or
+ * {@link #lockStripes(Collection)}, which always lock in ascending stripe order. Callers that
+ * gather stripes over time, such as transactions, work with stripe masks directly through
+ * {@link #stripeMask(String)}, {@link #lockStripes(long)} and {@link #tryLockStripes(long)}.
+ * <p>
+ * Cards are also indexed by {@link Rarity} and {@link Variation}: every combination of the two
+ * has its own append-only list of cards, so listing or counting the cards of a rarity, a
+ * variation, or both takes time proportional to the number of matching cards rather than to
+ * the size of the collection. Cards stay in the collection once added, even when their count
+ * drops to zero, so the lists only ever grow.
+ * <p>
+ * A {@link ValueIndex} keeps the cards in value order as well, for value percentiles in
+ * logarithmic time, and for value ranges and the most and least valuable in-stock cards in
+ * logarithmic time per card listed, however many sold-out cards lie in between.
+ * <p>
+ * For name completion, the cards are also kept in a sorted map by normalized name, where all
+ * names sharing a prefix sit next to each other, and in a {@link TrigramIndex} for finding the
+ * names closest to a misspelled one.
+ * <p>
+ * Every card is given a dense integer id when it is first stored, its position in an
+ * append-only list, so callers that keep ids instead of names reach a card with an array
+ * read rather than by normalizing and hashing its name. Since cards are never dropped,
+ * ids are never reused. A collection constructed to keep them also maintains
+ * {@link CardColumns}, primitive columns indexed by id, for aggregations over every card.
  */
 public class CardCollection {
     /**
-     * The list of all cards managed by this component.
+     * Number of lock stripes; one bit of a {@code long} stripe mask per stripe.
      */
-    private final ArrayList<Card> CARDS;
+    private static final int STRIPE_COUNT = Long.SIZE;
 
+    /**
+     * All rarities, in ordinal order.
+     */
+    private static final Rarity[] RARITIES = Rarity.values();
 
     /**
-     * Constructs an empty CardCollection.
+     * All variations, in ordinal order.
+     */
+    private static final Variation[] VARIATIONS = Variation.values();
+
+    /**
+     * All cards managed by this component, ordered by card name.
+     */
+    private final ConcurrentSkipListMap<String, Card> CARDS;
+
+    /**
+     * Index of the cards in {@link #CARDS} keyed by their normalized name.
+     * Kept in sync with the ordered map so name lookups do not have to scan it.
+     */
+    private final ConcurrentHashMap<String, Card> INDEX;
+
+    /**
+     * The cards of {@link #INDEX} in normalized-name order, for prefix searches.
+     */
+    private final ConcurrentSkipListMap<String, Card> BY_PREFIX;
+
+    /**
+     * The cards of {@link #INDEX} by the trigrams of their normalized names, for fuzzy searches.
+     */
+    private final TrigramIndex BY_TRIGRAM;
+
+    /**
+     * Locks guarding insertions, one per group of normalized names.
+     */
+    private final ReentrantLock[] STRIPES;
+
+    /**
+     * Number of distinct cards, kept separately since counting a skip list walks all of it.
+     */
+    private final LongAdder SIZE;
+
+    /**
+     * Cards of each rarity and variation, indexed by {@link #kindOf(Rarity, Variation)}.
+     */
+    private final CardList[] BY_KIND;
+
+    /**
+     * Cards in value order.
+     */
+    private final ValueIndex BY_VALUE;
+
+    /**
+     * Cards by id; a card's id is its position in the list.
+     */
+    private final CardList BY_ID;
+
+    /**
+     * Read-only live view of the cards in name order, shared by all callers.
+     */
+    private final Collection<Card> SORTED_VIEW;
+
+    /**
+     * Columns of the cards' values, counts, rarities and variations by id, or null if the
+     * collection keeps none.
+     */
+    private final CardColumns COLUMNS;
+
+
+    /**
+     * Constructs an empty CardCollection that keeps no {@link CardColumns}.
      */
     public CardCollection() {
-        this.CARDS = new ArrayList<>();
+        this(false);
+    }
+
+    /**
+     * Constructs an empty CardCollection.
+     *
+     * @param keepColumns whether to keep {@link CardColumns} of the cards up to date for
+     *                    {@link #getColumns()}, at the cost of a few bytes per card and an atomic
+     *                    addition on every count change
+     */
+    public CardCollection(boolean keepColumns) {
+        this.CARDS = new ConcurrentSkipListMap<>();
+        this.INDEX = new ConcurrentHashMap<>();
+        this.BY_PREFIX = new ConcurrentSkipListMap<>();
+        this.BY_TRIGRAM = new TrigramIndex();
+        this.STRIPES = new ReentrantLock[STRIPE_COUNT];
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            STRIPES[i] = new ReentrantLock();
+        }
+        this.SIZE = new LongAdder();
+        this.BY_KIND = new CardList[RARITIES.length * VARIATIONS.length];
+        for (int i = 0; i < BY_KIND.length; i++) {
+            BY_KIND[i] = new CardList(16);
+        }
+        this.BY_VALUE = new ValueIndex();
+        this.BY_ID = new CardList(1024);
+        this.SORTED_VIEW = Collections.unmodifiableCollection(CARDS.values());
+        this.COLUMNS = keepColumns ? new CardColumns() : null;
+    }
+
+    /**
+     * Finds the stripe guarding a normalized card name.
+     *
+     * @param key the normalized name
+     * @return the stripe index
+     */
+    private static int stripeOf(String key) {
+        int hash = key.hashCode();
+        return (hash ^ hash >>> 16) & (STRIPE_COUNT - 1);
+    }
+
+    /**
+     * Finds the position of a rarity and variation combination in {@link #BY_KIND}.
+     *
+     * @param rarity    the rarity
+     * @param variation the variation
+     * @return the index of the combination's card list
+     */
+    private static int kindOf(Rarity rarity, Variation variation) {
+        return rarity.ordinal() * VARIATIONS.length + variation.ordinal();
+    }
+
+    /**
+     * Adds a newly inserted card to the prefix, trigram, and value indexes and to the list
+     * of its rarity and variation. Cards without a rarity are left out of the rarity lists.
+     *
+     * @param c the card
+     */
+    private void indexNew(Card c) {
+        BY_PREFIX.put(c.getKey(), c);
+        BY_TRIGRAM.add(c);
+        if (c.getRarity() != null) {
+            BY_KIND[kindOf(c.getRarity(), c.getVariation())].add(c);
+        }
+        BY_VALUE.add(c);
+    }
+
+    /**
+     * Locks the stripe guarding a card name, so that no other thread can add a card with
+     * that name, or run a compound operation on it, until {@link #unlockStripes(long)}.
+     *
+     * @param name the card name (case-insensitive, trimmed)
+     * @return the mask of locked stripes, to pass to {@link #unlockStripes(long)}
+     */
+    public long lockStripe(String name) {
+        int stripe = stripeOf(Card.normalizeName(name));
+        STRIPES[stripe].lock();
+        return 1L << stripe;
+    }
+
+    /**
+     * Locks the stripe guarding a card's name, like {@link #lockStripe(String)} but without
+     * normalizing the name again.
+     *
+     * @param card the card whose name to lock
+     * @return the mask of locked stripes, to pass to {@link #unlockStripes(long)}
+     */
+    public long lockStripe(Card card) {
+        int stripe = stripeOf(card.getKey());
+        STRIPES[stripe].lock();
+        return 1L << stripe;
+    }
+
+    /**
+     * Locks the stripes guarding the names of several cards, in ascending stripe order so
+     * that threads locking overlapping sets of names cannot deadlock.
+     *
+     * @param cards the cards whose names to lock
+     * @return the mask of locked stripes, to pass to {@link #unlockStripes(long)}
+     */
+    public long lockStripes(Collection<Card> cards) {
+        long mask = 0;
+        for (Card card : cards) {
+            if (card != null) {
+                mask |= 1L << stripeOf(card.getKey());
+            }
+        }
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            STRIPES[Long.numberOfTrailingZeros(remaining)].lock();
+        }
+        return mask;
+    }
+
+    /**
+     * Finds the stripe guarding a card name without locking it.
+     *
+     * @param name the card name (case-insensitive, trimmed)
+     * @return a mask with only the stripe's bit set
+     */
+    public long stripeMask(String name) {
+        return 1L << stripeOf(Card.normalizeName(name));
+    }
+
+    /**
+     * Finds the stripe guarding a card's name without locking it.
+     *
+     * @param card the card
+     * @return a mask with only the stripe's bit set
+     */
+    public long stripeMask(Card card) {
+        return 1L << stripeOf(card.getKey());
+    }
+
+    /**
+     * Locks the stripes of a mask, waiting for each in ascending stripe order.
+     *
+     * @param mask the stripes to lock, as built by {@link #stripeMask(String)}
+     */
+    public void lockStripes(long mask) {
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            STRIPES[Long.numberOfTrailingZeros(remaining)].lock();
+        }
+    }
+
+    /**
+     * Locks the stripes of a mask only if none of them is held by another thread.
+     *
+     * @param mask the stripes to lock, as built by {@link #stripeMask(String)}
+     * @return true if every stripe was locked, false if none was
+     */
+    public boolean tryLockStripes(long mask) {
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            if (!STRIPES[Long.numberOfTrailingZeros(remaining)].tryLock()) {
+                unlockStripes(mask & ~remaining);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Unlocks stripes locked by {@link #lockStripe(String)}, {@link #lockStripes(Collection)},
+     * {@link #lockStripes(long)} or {@link #tryLockStripes(long)}.
+     *
+     * @param mask the mask of locked stripes
+     */
+    public void unlockStripes(long mask) {
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            STRIPES[Long.numberOfTrailingZeros(remaining)].unlock();
+        }
+    }
+
+    /**
+     * Inserts a card under its name or merges copies into an identical card,
+     * holding the card's stripe so the check and the insertion happen together.
+     *
+     * @param c      the Card to add
+     * @param copies the number of copies to merge into an existing identical card
+     * @throws IllegalArgumentException if a card with the same name but different attributes exists
+     */
+    private void merge(Card c, int copies) {
+        ReentrantLock stripe = STRIPES[stripeOf(c.getKey())];
+        stripe.lock();
+        try {
+            Card existing = INDEX.get(c.getKey());
+            if (existing == null) {
+                c.assignId(BY_ID.add(c));
+                if (COLUMNS != null) {
+                    COLUMNS.add(c);
+                }
+                CARDS.put(c.getName(), c);
+                INDEX.put(c.getKey(), c);
+                indexNew(c);
+                SIZE.increment();
+            } else if (existing.equals(c)) {
+                existing.addCount(copies);
+            } else {
+                throw new IllegalArgumentException(
+                        "Card with name '" + c.getName() + "' has different attributes and cannot be merged.");
+            }
+        } finally {
+            stripe.unlock();
+        }
     }
 
     /**
@@ -34,15 +342,62 @@ public class CardCollection {
      * @throws IllegalArgumentException if a card with the same name but different attributes exists
      */
     public void addCard(Card c) {
-        Card existing = findByCardName(c.getName());
-        if (existing == null) {
-            CARDS.add(c);
-        } else if (existing.equals(c)) {
-            existing.incrementCount();
-        } else {
-            throw new IllegalArgumentException(
-                    "Card with name '" + c.getName() + "' has different attributes and cannot be merged.");
+        merge(c, 1);
+    }
+
+    /**
+     * Adds every copy carried by a card to the collection.
+     * <p>
+     * Follows the same rules as {@link #addCard(Card)}, except that an existing identical
+     * card has its count raised by the given card's count instead of by one.
+     *
+     * @param c the Card to add, whose count is the number of copies
+     * @throws IllegalArgumentException if a card with the same name but different attributes exists
+     * @throws ArithmeticException      if the existing card's count would overflow
+     */
+    public void addCopies(Card c) {
+        merge(c, c.getCount());
+    }
+
+    /**
+     * Fills an empty collection with cards that are already in strictly ascending name order,
+     * such as the cards read back from a snapshot.
+     * <p>
+     * Each card is appended at the end of the ordered map, which is cheaper than inserting
+     * cards in arbitrary order. The card instances themselves are stored, counts included,
+     * and are given ids in list order.
+     * Must not run concurrently with other operations on the collection.
+     *
+     * @param cards the cards to add, sorted by name
+     * @throws IllegalStateException    if the collection already holds cards
+     * @throws IllegalArgumentException if the cards are not in strictly ascending name order,
+     *                                  or two of them share a normalized name
+     */
+    public void addAllSorted(List<Card> cards) {
+        if (!CARDS.isEmpty()) {
+            throw new IllegalStateException("Collection is not empty.");
+        }
+        String previous = null;
+        for (Card c : cards) {
+            if (previous != null && previous.compareTo(c.getName()) >= 0) {
+                INDEX.clear();
+                throw new IllegalArgumentException("Cards are not in ascending name order at '" + c.getName() + "'.");
+            }
+            if (INDEX.putIfAbsent(c.getKey(), c) != null) {
+                INDEX.clear();
+                throw new IllegalArgumentException("Card with name '" + c.getName() + "' appears more than once.");
+            }
+            previous = c.getName();
         }
+        for (Card c : cards) {
+            c.assignId(BY_ID.add(c));
+            if (COLUMNS != null) {
+                COLUMNS.add(c);
+            }
+            CARDS.put(c.getName(), c);
+            indexNew(c);
+        }
+        SIZE.add(cards.size());
     }
 
     /**
@@ -61,12 +416,10 @@ public class CardCollection {
         if (target == null) {
             throw new NoSuchElementException("Card '" + name + "' not found in collection.");
         }
-        if (target.getCount() == 0) {
+        if (!target.tryDecrementCount()) {
             throw new IllegalStateException("No copies left of card '" + name + "'.");
         }
-        Card copy = Card.copyCard(target);
-        target.decrementCount();
-        return copy;
+        return Card.copyCard(target);
     }
 
     /**
@@ -75,6 +428,7 @@ public class CardCollection {
      * @param name the name of the card to sell
      * @return the sale price based on the card's current value
      * @throws NoSuchElementException if no card with the given name exists
+     * @throws IllegalStateException  if no copies of the card remain
      */
     public BigDecimal sellCardByName(String name) {
         Card card = findByCardName(name);
@@ -91,13 +445,55 @@ public class CardCollection {
      * @return the matching Card instance, or null if not found
      */
     public Card findByCardName(String name) {
-        String query = name.trim().toLowerCase();
-        for (Card card : CARDS) {
-            if (card.getName().toLowerCase().equals(query)) {
-                return card;
+        return INDEX.get(Card.normalizeName(name));
+    }
+
+    /**
+     * Finds the cards whose names are closest to a possibly misspelled name, such as
+     * "Blak Lotus" for "Black Lotus". Names are compared after normalization, by the number of
+     * single-character insertions, deletions, and substitutions between them; an exact match
+     * is at distance zero. Takes a few milliseconds even on catalogs of millions of names.
+     * Cards whose count dropped to zero are included.
+     *
+     * @param name        the name to match (case-insensitive, trimmed)
+     * @param maxDistance the most edits allowed between the name and a match
+     * @param limit       the most cards to list
+     * @return a new list of up to {@code limit} cards, closest first and alphabetical among equals
+     * @throws IllegalArgumentException if {@code maxDistance} or {@code limit} is negative
+     */
+    public ArrayList<Card> findSimilar(String name, int maxDistance, int limit) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Edit distance cannot be negative.");
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("Card count cannot be negative.");
+        }
+        return BY_TRIGRAM.search(Card.normalizeName(name), maxDistance, limit);
+    }
+
+    /**
+     * Lists the cards whose normalized names start with a prefix, in normalized-name order.
+     * Takes time logarithmic in the size of the collection plus the number of cards listed.
+     * Cards whose count dropped to zero are included.
+     *
+     * @param prefix the start of the name (case-insensitive, trimmed); empty to match every card
+     * @param limit  the most cards to list
+     * @return a new list of up to {@code limit} matching cards
+     * @throws IllegalArgumentException if {@code limit} is negative
+     */
+    public ArrayList<Card> findByPrefix(String prefix, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Card count cannot be negative.");
+        }
+        String key = Card.normalizeName(prefix);
+        ArrayList<Card> matches = new ArrayList<>(Math.min(limit, 64));
+        for (Map.Entry<String, Card> entry : BY_PREFIX.tailMap(key).entrySet()) {
+            if (matches.size() == limit || !entry.getKey().startsWith(key)) {
+                break;
             }
+            matches.add(entry.getValue());
         }
-        return null;
+        return matches;
     }
 
     /**
@@ -114,6 +510,66 @@ public class CardCollection {
         card.incrementCount();
     }
 
+    /**
+     * Finds a card by the id this collection gave it.
+     *
+     * @param id the card's id
+     * @return the card, or null if no card has that id
+     */
+    public Card findById(int id) {
+        return BY_ID.get(id);
+    }
+
+    /**
+     * Finds a card by id, failing if there is none.
+     *
+     * @param id the card's id
+     * @return the card
+     * @throws NoSuchElementException if no card has that id
+     */
+    private Card requireById(int id) {
+        Card card = BY_ID.get(id);
+        if (card == null) {
+            throw new NoSuchElementException("Card #" + id + " not found in collection.");
+        }
+        return card;
+    }
+
+    /**
+     * Finds the id of a named card.
+     *
+     * @param name the card name (case-insensitive, trimmed)
+     * @return the card's id, or {@link Card#NO_ID} if no card has that name
+     */
+    public int getId(String name) {
+        Card card = findByCardName(name);
+        return card == null ? Card.NO_ID : card.getId();
+    }
+
+    /**
+     * Increments the count of a card given its id.
+     *
+     * @param id the card's id
+     * @throws NoSuchElementException if no card has that id
+     */
+    public void incrementCard(int id) {
+        requireById(id).incrementCount();
+    }
+
+    /**
+     * Decrements the count of a card given its id, not allowing it to go below zero.
+     *
+     * @param id the card's id
+     * @throws NoSuchElementException if no card has that id
+     * @throws IllegalStateException  if the card's count is already zero
+     */
+    public void decrementCard(int id) {
+        Card card = requireById(id);
+        if (!card.tryDecrementCount()) {
+            throw new IllegalStateException("Card '" + card.getName() + "' count is already zero.");
+        }
+    }
+
     /**
      * Decrements the count of a named card, not allowing it to go below zero.
      *
@@ -126,21 +582,214 @@ public class CardCollection {
         if (card == null) {
             throw new NoSuchElementException("Card '" + name + "' not found in collection.");
         }
-        if (card.getCount() == 0) {
+        if (!card.tryDecrementCount()) {
             throw new IllegalStateException("Card '" + name + "' count is already zero.");
         }
-        card.decrementCount();
     }
 
     /**
      * Returns a shallow copy of the internal card list, sorted by card name.
+     * The cards are already kept in name order, so no sorting takes place.
      *
      * @return a new ArrayList containing all cards, sorted alphabetically by name
      */
     public ArrayList<Card> getSortedCopy() {
-        ArrayList<Card> sortedCopy = new ArrayList<>(CARDS);
-        sortedCopy.sort(Comparator.comparing(Card::getName));
-        return sortedCopy;
+        return new ArrayList<>(CARDS.values());
+    }
+
+    /**
+     * Returns a read-only live view of all cards, sorted by card name.
+     * <p>
+     * The view reflects later additions; iterating it while cards are being added
+     * is safe and sees each card at most once.
+     *
+     * @return an unmodifiable collection of all cards in name order
+     */
+    public Collection<Card> getSortedView() {
+        return SORTED_VIEW;
+    }
+
+    /**
+     * Returns one page of cards in name order, starting after the given name.
+     *
+     * @param afterName the name of the last card on the previous page, or null to start at the beginning
+     * @param limit     the maximum number of cards to return
+     * @return a new list with at most {@code limit} cards, sorted alphabetically by name
+     * @throws IllegalArgumentException if limit is negative
+     */
+    public ArrayList<Card> getSortedPage(String afterName, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Page limit cannot be negative");
+        }
+        Collection<Card> tail = afterName == null
+                ? CARDS.values()
+                : CARDS.tailMap(afterName.trim(), false).values();
+        ArrayList<Card> page = new ArrayList<>(Math.min(limit, size()));
+        for (Card card : tail) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.add(card);
+        }
+        return page;
+    }
+
+    /**
+     * Lists the cards of a rarity and variation, in the order they were added.
+     * Either filter may be null to match every rarity or every variation.
+     * Cards whose count dropped to zero are included.
+     *
+     * @param rarity    the rarity to match, or null for any
+     * @param variation the variation to match, or null for any
+     * @return a new list of the matching cards
+     */
+    public ArrayList<Card> findCards(Rarity rarity, Variation variation) {
+        ArrayList<Card> matches = new ArrayList<>((int) Math.min(Integer.MAX_VALUE, countCards(rarity, variation)));
+        for (Rarity r : RARITIES) {
+            if (rarity != null && r != rarity) {
+                continue;
+            }
+            for (Variation v : VARIATIONS) {
+                if (variation == null || v == variation) {
+                    BY_KIND[kindOf(r, v)].addTo(matches);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Counts the distinct cards of a rarity and variation, in constant time.
+     * Either filter may be null to match every rarity or every variation.
+     *
+     * @param rarity    the rarity to match, or null for any
+     * @param variation the variation to match, or null for any
+     * @return the number of matching cards, including those whose count dropped to zero
+     */
+    public long countCards(Rarity rarity, Variation variation) {
+        long total = 0;
+        for (Rarity r : RARITIES) {
+            if (rarity != null && r != rarity) {
+                continue;
+            }
+            for (Variation v : VARIATIONS) {
+                if (variation == null || v == variation) {
+                    total += BY_KIND[kindOf(r, v)].size();
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Counts the copies of the cards of a rarity and variation.
+     * Either filter may be null to match every rarity or every variation.
+     *
+     * @param rarity    the rarity to match, or null for any
+     * @param variation the variation to match, or null for any
+     * @return the sum of the counts of the matching cards
+     */
+    public long countCopies(Rarity rarity, Variation variation) {
+        long total = 0;
+        for (Rarity r : RARITIES) {
+            if (rarity != null && r != rarity) {
+                continue;
+            }
+            for (Variation v : VARIATIONS) {
+                if (variation == null || v == variation) {
+                    total += BY_KIND[kindOf(r, v)].sumCounts();
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Lists the cards worth between two values, from least to most valuable.
+     * Cards whose count dropped to zero are left out.
+     *
+     * @param minCents the lowest value to include, in cents
+     * @param maxCents the highest value to include, in cents
+     * @return a new list of the matching cards; empty if {@code minCents > maxCents}
+     */
+    public ArrayList<Card> findCardsByValue(long minCents, long maxCents) {
+        return BY_VALUE.range(minCents, maxCents);
+    }
+
+    /**
+     * Lists the most valuable cards, most valuable first.
+     * Cards whose count dropped to zero are left out.
+     *
+     * @param k the number of cards to list
+     * @return a new list of up to {@code k} cards
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    public ArrayList<Card> findMostValuable(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Card count cannot be negative.");
+        }
+        return BY_VALUE.top(k);
+    }
+
+    /**
+     * Lists the least valuable cards, least valuable first.
+     * Cards whose count dropped to zero are left out.
+     *
+     * @param k the number of cards to list
+     * @return a new list of up to {@code k} cards
+     * @throws IllegalArgumentException if {@code k} is negative
+     */
+    public ArrayList<Card> findLeastValuable(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Card count cannot be negative.");
+        }
+        return BY_VALUE.bottom(k);
+    }
+
+    /**
+     * Finds the percentile rank of a value among the distinct cards of the collection,
+     * including cards whose count dropped to zero.
+     *
+     * @param cents the value, in cents
+     * @return the percentage of cards worth less than the value, from 0 to 100;
+     * 0 if the collection is empty
+     */
+    public double getValuePercentile(long cents) {
+        int total = BY_VALUE.size();
+        return total == 0 ? 0 : 100.0 * BY_VALUE.countBelow(cents) / total;
+    }
+
+    /**
+     * Finds the card at a percentile of value, by the nearest-rank method, among the distinct
+     * cards of the collection, including cards whose count dropped to zero.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the least valuable card worth at least as much as that percentage of the cards,
+     * or null if the collection is empty
+     * @throws IllegalArgumentException if the percentile is outside 0 to 100
+     */
+    public Card findCardAtValuePercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+        }
+        int total = BY_VALUE.size();
+        return BY_VALUE.cardAt(Math.max(1, (int) Math.ceil(percentile / 100 * total)));
+    }
+
+    /**
+     * Checks whether the collection holds any cards, including cards whose count dropped to zero.
+     *
+     * @return {@code true} if no card was ever added; {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return CARDS.isEmpty();
+    }
+
+    /**
+     * @return the number of distinct cards in the collection
+     */
+    public int size() {
+        return SIZE.intValue();
     }
 
     /**
@@ -157,4 +806,44 @@ public class CardCollection {
         }
         return card.getValue();
     }
+
+    /**
+     * Computes the value of every copy in the collection, in parallel: the id list is split
+     * into ranges summed by the pool's workers as {@link Card#getValueCents()} times the count.
+     * Counts changed while the sum runs may or may not be included.
+     *
+     * @param pool the pool to run in
+     * @return the total value in cents
+     * @throws ArithmeticException if the total does not fit in a long
+     */
+    public long getTotalValueCents(ForkJoinPool pool) {
+        return ValueSum.sum(pool, BY_ID.spliterator(),
+                card -> Math.multiplyExact(card.getValueCents(), (long) card.getCount()));
+    }
+
+    /**
+     * Returns the columns of the cards' values, counts, rarities and variations, for
+     * aggregations that scan primitive arrays instead of card objects. The columns are kept up
+     * to date as cards are added and their counts change.
+     *
+     * @return the live columns, with cards in id order
+     * @throws IllegalStateException if the collection was constructed without columns
+     */
+    public CardColumns getColumns() {
+        if (COLUMNS == null) {
+            throw new IllegalStateException("Collection keeps no columns.");
+        }
+        return COLUMNS;
+    }
+
+    /**
+     * Gets the value of a card given its id.
+     *
+     * @param id the card's id
+     * @return the card's value
+     * @throws NoSuchElementException if no card has that id
+     */
+    public BigDecimal getCardValue(int id) {
+        return requireById(id).getValue();
+    }
 }
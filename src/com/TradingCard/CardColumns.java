@@ -0,0 +1,373 @@
+package com.TradingCard;
+
+import com.TradingCard.Enums.Rarity;
+import com.TradingCard.Enums.Variation;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Column-oriented storage of the cards of a {@link CardCollection}, kept up to date as cards are
+ * added and their counts change, for running many aggregations over millions of cards.
+ * <p>
+ * Each card attribute used by the aggregations is a primitive column indexed by card id: value
+ * in cents, copy count, rarity ordinal, and variation ordinal. An aggregation therefore streams
+ * through a few contiguous arrays instead of following a pointer to every {@link Card}, in
+ * plain counted loops that the JIT unrolls. Filters are applied as 0/1 multipliers rather than
+ * conditions, so the loops stay free of branches.
+ * <p>
+ * The collection adds every card before publishing it, and each card applies every change of
+ * its count to its slot in the count column as an atomic addition, so concurrent changes
+ * cannot overwrite each other. The columns are split into fixed-size chunks that are never
+ * copied once allocated, so growing them never loses an update. Aggregations take no lock;
+ * like {@link CardCollection#getTotalValueCents(ForkJoinPool)}, counts changed while one runs
+ * may or may not be included.
+ * <p>
+ * The value sums multiply and add without overflow checks, gathering as they go a bound on the
+ * absolute values they read, as the bitwise or of those values, and the number of copies they
+ * read. A result is only returned when the bound times the copies fits in a {@code long}, which
+ * bounds every product and partial sum; otherwise the sum is taken again with checked
+ * arithmetic, and a sum that does not fit in a {@code long} throws {@link ArithmeticException}
+ * rather than wrapping around.
+ */
+public final class CardColumns {
+    /**
+     * All rarities, in ordinal order.
+     */
+    private static final Rarity[] RARITIES = Rarity.values();
+
+    /**
+     * Code stored in the rarity column for cards without a rarity.
+     */
+    private static final byte NO_RARITY = (byte) RARITIES.length;
+
+    /**
+     * Log2 of the number of cards in each chunk of the columns.
+     */
+    private static final int CHUNK_SHIFT = 12;
+
+    /**
+     * Number of cards in each chunk of the columns.
+     */
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    /**
+     * Handle used to add to the count column atomically.
+     */
+    private static final VarHandle COUNTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /**
+     * Chunks of the value column: value of one copy of each card, in cents.
+     */
+    private volatile long[][] valueCents;
+
+    /**
+     * Chunks of the count column: copies of each card, only updated through {@link #COUNTS}.
+     */
+    private volatile int[][] counts;
+
+    /**
+     * Chunks of the rarity column: rarity ordinal of each card, or {@link #NO_RARITY}.
+     */
+    private volatile byte[][] rarities;
+
+    /**
+     * Chunks of the variation column: variation ordinal of each card.
+     */
+    private volatile byte[][] variations;
+
+    /**
+     * One more than the highest id added. Written after the slot it covers, so every slot
+     * below the size a reader sees is filled in, or belongs to a card not yet published.
+     */
+    private volatile int size;
+
+    /**
+     * Creates empty columns.
+     */
+    CardColumns() {
+        this.valueCents = new long[0][];
+        this.counts = new int[0][];
+        this.rarities = new byte[0][];
+        this.variations = new byte[0][];
+    }
+
+    /**
+     * Adds a card under the id its collection gave it and starts tracking its count.
+     * Called by the collection before it publishes the card, so no count change is missed.
+     *
+     * @param card the card, with its id assigned
+     */
+    synchronized void add(Card card) {
+        int id = card.getId();
+        int chunk = id >>> CHUNK_SHIFT;
+        if (chunk >= counts.length) {
+            grow(chunk + 1);
+        }
+        int slot = id & (CHUNK_SIZE - 1);
+        valueCents[chunk][slot] = card.getValueCents();
+        counts[chunk][slot] = card.getCount();
+        rarities[chunk][slot] = card.getRarity() == null ? NO_RARITY : (byte) card.getRarity().ordinal();
+        variations[chunk][slot] = (byte) card.getVariation().ordinal();
+        if (id >= size) {
+            size = id + 1;
+        }
+        card.trackColumns(this);
+    }
+
+    /**
+     * Allocates chunks until the columns have a given number of them, publishing each column's
+     * larger chunk list only once its new chunks are in place. Called while holding this
+     * object's monitor.
+     *
+     * @param chunkCount the number of chunks needed
+     */
+    private void grow(int chunkCount) {
+        int capacity = Math.max(chunkCount, counts.length * 2);
+        long[][] newValues = Arrays.copyOf(valueCents, capacity);
+        int[][] newCounts = Arrays.copyOf(counts, capacity);
+        byte[][] newRarities = Arrays.copyOf(rarities, capacity);
+        byte[][] newVariations = Arrays.copyOf(variations, capacity);
+        for (int i = counts.length; i < capacity; i++) {
+            newValues[i] = new long[CHUNK_SIZE];
+            newCounts[i] = new int[CHUNK_SIZE];
+            newRarities[i] = new byte[CHUNK_SIZE];
+            newVariations[i] = new byte[CHUNK_SIZE];
+        }
+        valueCents = newValues;
+        counts = newCounts;
+        rarities = newRarities;
+        variations = newVariations;
+    }
+
+    /**
+     * Applies a change of a tracked card's count to the count column.
+     *
+     * @param id    the card's id
+     * @param delta the number of copies added, or minus the number taken
+     */
+    void countChanged(int id, int delta) {
+        COUNTS.getAndAdd(counts[id >>> CHUNK_SHIFT], id & (CHUNK_SIZE - 1), delta);
+    }
+
+    /**
+     * Checks whether an unchecked sum of products of values and counts cannot have overflowed.
+     *
+     * @param bound  the bitwise or of the absolute values read, which is negative if one of
+     *               them was {@link Long#MIN_VALUE}
+     * @param copies the sum of the absolute counts read
+     * @return {@code true} if {@code bound * copies} fits in a {@code long}
+     */
+    private static boolean fitsInLong(long bound, long copies) {
+        return Math.multiplyHigh(bound, copies) == 0 && bound * copies >= 0;
+    }
+
+    /**
+     * Number of chunks holding the cards below a size.
+     *
+     * @param size the number of cards
+     * @return the number of chunks to read
+     */
+    private static int chunkCount(int size) {
+        return (int) (((long) size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+    }
+
+    /**
+     * Number of cards in a chunk below a size.
+     *
+     * @param chunk the chunk's position
+     * @param size  the number of cards
+     * @return the number of slots of the chunk to read
+     */
+    private static int chunkLength(int chunk, int size) {
+        return Math.min(CHUNK_SIZE, size - (chunk << CHUNK_SHIFT));
+    }
+
+    /**
+     * @return the number of distinct cards, sold-out cards included
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the total number of copies
+     */
+    public long totalCopies() {
+        int n = size;
+        int[][] countChunks = counts;
+        long total = 0;
+        for (int c = 0, chunks = chunkCount(n); c < chunks; c++) {
+            int[] count = countChunks[c];
+            for (int i = 0, length = chunkLength(c, n); i < length; i++) {
+                total += count[i];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Sums the value of every copy.
+     *
+     * @return the total value in cents
+     * @throws ArithmeticException if the total does not fit in a {@code long}
+     */
+    public long totalValueCents() {
+        int n = size;
+        long[][] valueChunks = valueCents;
+        int[][] countChunks = counts;
+        long total = 0;
+        long bound = 0;
+        long copies = 0;
+        for (int c = 0, chunks = chunkCount(n); c < chunks; c++) {
+            long[] value = valueChunks[c];
+            int[] count = countChunks[c];
+            for (int i = 0, length = chunkLength(c, n); i < length; i++) {
+                long cents = value[i];
+                int k = count[i];
+                total += cents * k;
+                bound |= Math.abs(cents);
+                copies += Math.abs(k);
+            }
+        }
+        if (fitsInLong(bound, copies)) {
+            return total;
+        }
+        total = 0;
+        for (int c = 0, chunks = chunkCount(n); c < chunks; c++) {
+            long[] value = valueChunks[c];
+            int[] count = countChunks[c];
+            for (int i = 0, length = chunkLength(c, n); i < length; i++) {
+                total = Math.addExact(total, Math.multiplyExact(value[i], count[i]));
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Sums the value of every copy per rarity, in one pass.
+     *
+     * @return the total value in cents of each rarity, indexed by {@link Rarity#ordinal()};
+     * cards without a rarity are left out
+     * @throws ArithmeticException if a total does not fit in a {@code long}
+     */
+    public long[] valueCentsByRarity() {
+        int n = size;
+        long[][] valueChunks = valueCents;
+        int[][] countChunks = counts;
+        byte[][] rarityChunks = rarities;
+        long[] totals = new long[RARITIES.length + 1];
+        long bound = 0;
+        long copies = 0;
+        for (int c = 0, chunks = chunkCount(n); c < chunks; c++) {
+            long[] value = valueChunks[c];
+            int[] count = countChunks[c];
+            byte[] rarity = rarityChunks[c];
+            for (int i = 0, length = chunkLength(c, n); i < length; i++) {
+                long cents = value[i];
+                int k = count[i];
+                totals[rarity[i]] += cents * k;
+                bound |= Math.abs(cents);
+                copies += Math.abs(k);
+            }
+        }
+        if (!fitsInLong(bound, copies)) {
+            Arrays.fill(totals, 0);
+            for (int c = 0, chunks = chunkCount(n); c < chunks; c++) {
+                long[] value = valueChunks[c];
+                int[] count = countChunks[c];
+                byte[] rarity = rarityChunks[c];
+                for (int i = 0, length = chunkLength(c, n); i < length; i++) {
+                    totals[rarity[i]] = Math.addExact(totals[rarity[i]], Math.multiplyExact(value[i], count[i]));
+                }
+            }
+        }
+        return Arrays.copyOf(totals, RARITIES.length);
+    }
+
+    /**
+     * Sums the value of the copies of the cards matching a filter.
+     *
+     * @param rarity    the rarity to match, or null for any
+     * @param variation the variation to match, or null for any
+     * @param minCents  the lowest value per copy to include, in cents
+     * @param maxCents  the highest value per copy to include, in cents
+     * @return the total value in cents of the matching copies
+     * @throws ArithmeticException if the total does not fit in a {@code long}
+     */
+    public long sumValueCents(Rarity rarity, Variation variation, long minCents, long maxCents) {
+        int wantedRarity = rarity == null ? -1 : rarity.ordinal();
+        int wantedVariation = variation == null ? -1 : variation.ordinal();
+        int n = size;
+        long[][] valueChunks = valueCents;
+        int[][] countChunks = counts;
+        byte[][] rarityChunks = rarities;
+        byte[][] variationChunks = variations;
+        long total = 0;
+        long bound = 0;
+        long copies = 0;
+        for (int c = 0, chunks = chunkCount(n); c < chunks; c++) {
+            long[] value = valueChunks[c];
+            int[] count = countChunks[c];
+            byte[] rarityOf = rarityChunks[c];
+            byte[] variationOf = variationChunks[c];
+            for (int i = 0, length = chunkLength(c, n); i < length; i++) {
+                long cents = value[i];
+                int k = count[i];
+                int match = (wantedRarity < 0 || rarityOf[i] == wantedRarity ? 1 : 0)
+                        & (wantedVariation < 0 || variationOf[i] == wantedVariation ? 1 : 0)
+                        & (cents >= minCents && cents <= maxCents ? 1 : 0);
+                total += cents * k * match;
+                bound |= Math.abs(cents);
+                copies += Math.abs(k);
+            }
+        }
+        if (fitsInLong(bound, copies)) {
+            return total;
+        }
+        total = 0;
+        for (int c = 0, chunks = chunkCount(n); c < chunks; c++) {
+            long[] value = valueChunks[c];
+            int[] count = countChunks[c];
+            byte[] rarityOf = rarityChunks[c];
+            byte[] variationOf = variationChunks[c];
+            for (int i = 0, length = chunkLength(c, n); i < length; i++) {
+                long cents = value[i];
+                int match = (wantedRarity < 0 || rarityOf[i] == wantedRarity ? 1 : 0)
+                        & (wantedVariation < 0 || variationOf[i] == wantedVariation ? 1 : 0)
+                        & (cents >= minCents && cents <= maxCents ? 1 : 0);
+                total = Math.addExact(total, Math.multiplyExact(cents, count[i] * match));
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Counts the copies of the cards matching a filter.
+     *
+     * @param rarity    the rarity to match, or null for any
+     * @param variation the variation to match, or null for any
+     * @return the number of matching copies
+     */
+    public long countCopies(Rarity rarity, Variation variation) {
+        int wantedRarity = rarity == null ? -1 : rarity.ordinal();
+        int wantedVariation = variation == null ? -1 : variation.ordinal();
+        int n = size;
+        int[][] countChunks = counts;
+        byte[][] rarityChunks = rarities;
+        byte[][] variationChunks = variations;
+        long total = 0;
+        for (int c = 0, chunks = chunkCount(n); c < chunks; c++) {
+            int[] count = countChunks[c];
+            byte[] rarityOf = rarityChunks[c];
+            byte[] variationOf = variationChunks[c];
+            for (int i = 0, length = chunkLength(c, n); i < length; i++) {
+                int match = (wantedRarity < 0 || rarityOf[i] == wantedRarity ? 1 : 0)
+                        & (wantedVariation < 0 || variationOf[i] == wantedVariation ? 1 : 0);
+                total += count[i] * match;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,183 @@
+package com.TradingCard;
+
+import com.TradingCard.Enums.Rarity;
+import com.TradingCard.Enums.Variation;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * The immutable part of a {@link Card}: its name, rarity, variation, and values.
+ * <p>
+ * A definition is created once, when a card is constructed from its attributes, and is then
+ * shared by every copy taken of that card. The card a {@link CardCollection} stores under a
+ * name is the canonical holder of that name's definition, so all copies moved from the
+ * collection into binders and decks, and back, point at the same definition and carry only
+ * their own count and id.
+ * <p>
+ * Besides the card's attributes, a definition remembers the {@link ValueIndex} of the
+ * collection storing its canonical card, which that card tells when it sells out or comes
+ * back into stock. Keeping the reference here rather than on the card leaves copies small.
+ */
+public final class CardDefinition {
+    /**
+     * Value multipliers indexed by {@link Variation#ordinal()}.
+     */
+    private static final BigDecimal[] VARIATION_MULTIPLIERS = new BigDecimal[Variation.values().length];
+
+    static {
+        for (Variation variation : Variation.values()) {
+            VARIATION_MULTIPLIERS[variation.ordinal()] = switch (variation) {
+                case EXTENDED_ART -> new BigDecimal("1.5");
+                case FULL_ART     -> new BigDecimal("2.0");
+                case ALT_ART      -> new BigDecimal("3.0");
+                default           -> new BigDecimal("1.0");
+            };
+        }
+    }
+
+    /**
+     * The unique name of the card.
+     */
+    private final String NAME;
+
+    /**
+     * The normalized (trimmed, lower-case) form of the name, used as the lookup key.
+     */
+    private final String KEY;
+
+    /**
+     * The rarity tier of the card (e.g. COMMON, RARE, LEGENDARY).
+     */
+    private final Rarity RARITY;
+
+    /**
+     * The variation type of the card (e.g. NORMAL, FOIL).
+     */
+    private final Variation VARIATION;
+
+    /**
+     * The card’s base monetary value.
+     */
+    private final BigDecimal BASE_VALUE;
+
+    /**
+     * The market value adjusted for VARIATION, rounded to two decimal places.
+     * Computed once since the base value and VARIATION never change.
+     */
+    private final BigDecimal VALUE;
+
+    /**
+     * The adjusted market value expressed in whole cents.
+     */
+    private final long VALUE_CENTS;
+
+    /**
+     * Value index holding the canonical card of this definition, or null until it is stored.
+     */
+    private volatile ValueIndex valueIndex;
+
+    /**
+     * Constructs a definition, computing the adjusted value once.
+     * @param n   the NAME of the card (must be non-null, non-empty)
+     * @param r   the RARITY of the card
+     * @param v   the VARIATION of the card
+     * @param val the base monetary value of the card
+     * @throws IllegalArgumentException if NAME is null or blank, or VARIATION or the base value is null
+     * @throws ArithmeticException      if the adjusted value does not fit in a long number of cents
+     */
+    CardDefinition(String n, Rarity r, Variation v, BigDecimal val) {
+        if (n == null || n.trim().isEmpty()) {
+            throw new IllegalArgumentException("NAME cannot be empty");
+        }
+        if (v == null) {
+            throw new IllegalArgumentException("VARIATION cannot be null");
+        }
+        if (val == null) {
+            throw new IllegalArgumentException("base value cannot be null");
+        }
+        this.NAME = n.trim();
+        this.KEY = Card.normalizeName(this.NAME);
+        this.RARITY = r;
+        this.VARIATION = v;
+        this.BASE_VALUE = val;
+        this.VALUE = VARIATION_MULTIPLIERS[v.ordinal()].multiply(val).setScale(2, RoundingMode.HALF_UP);
+        this.VALUE_CENTS = this.VALUE.unscaledValue().longValueExact();
+    }
+
+    /**
+     * @return the NAME of the card
+     */
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * @return the normalized (trimmed, lower-case) NAME used for case-insensitive lookups
+     */
+    public String getKey() {
+        return KEY;
+    }
+
+    /**
+     * @return the RARITY of the card
+     */
+    public Rarity getRarity() {
+        return RARITY;
+    }
+
+    /**
+     * @return the VARIATION of the card
+     */
+    public Variation getVariation() {
+        return VARIATION;
+    }
+
+    /**
+     * @return the base monetary value of the card
+     */
+    public BigDecimal getBaseValue() {
+        return BASE_VALUE;
+    }
+
+    /**
+     * @return the market value adjusted for VARIATION, rounded to two decimal places
+     */
+    public BigDecimal getValue() {
+        return VALUE;
+    }
+
+    /**
+     * @return the adjusted market value in whole cents
+     */
+    public long getValueCents() {
+        return VALUE_CENTS;
+    }
+
+    /**
+     * @return the value index holding the canonical card of this definition, or null if none
+     */
+    ValueIndex getValueIndex() {
+        return valueIndex;
+    }
+
+    /**
+     * Registers the value index that stores the canonical card of this definition.
+     *
+     * @param index the value index
+     */
+    void setValueIndex(ValueIndex index) {
+        this.valueIndex = index;
+    }
+
+    /**
+     * Checks whether two definitions describe the same card: same NAME (case-insensitive),
+     * RARITY, and VARIATION. Shared definitions match without comparing names.
+     * @param other the definition to compare with
+     * @return true if both describe the same card
+     */
+    boolean matches(CardDefinition other) {
+        return this == other
+                || (this.KEY.equals(other.KEY) && this.RARITY == other.RARITY && this.VARIATION == other.VARIATION);
+    }
+}
@@ -0,0 +1,209 @@
+package com.TradingCard;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The cards of a binder or deck, stored as the dense ids their {@link CardCollection} gave them
+ * instead of as card objects.
+ * <p>
+ * A container holds single copies of collection cards, and such a copy carries nothing but the
+ * definition and id of the card it was taken from, so the id alone identifies it. Copies are
+ * rebuilt from the collection card whenever they are handed out, so reading a card allocates
+ * one small object while holding it costs four bytes. Cards the collection cannot resolve,
+ * such as a card traded in from outside, a card carrying more than one copy, or any card
+ * before a collection has been {@link #resolveThrough(CardCollection) set}, are kept as they
+ * are in a side array allocated on first use, at the same position.
+ * <p>
+ * The list reads as a list of cards, so it can back the containers' read-only views.
+ * It is not thread-safe: callers hold the owning container's lock.
+ */
+final class CardIdList extends AbstractList<Card> {
+    /**
+     * Collection id of the card at each position, or {@link Card#NO_ID} where {@link #others} holds it.
+     */
+    private int[] ids;
+
+    /**
+     * Cards kept as objects, at the position they occupy, or null until the first one is added.
+     */
+    private Card[] others;
+
+    /**
+     * Number of cards in the list.
+     */
+    private int size;
+
+    /**
+     * Collection whose ids are stored, or null if every card is kept as an object.
+     */
+    private CardCollection collection;
+
+    /**
+     * Creates an empty list.
+     *
+     * @param capacity the number of cards the list holds before it grows
+     */
+    CardIdList(int capacity) {
+        this.ids = new int[capacity];
+    }
+
+    /**
+     * Starts storing the cards of a collection by id. Called while the list is still empty.
+     *
+     * @param collection the collection whose ids to store
+     */
+    void resolveThrough(CardCollection collection) {
+        this.collection = collection;
+    }
+
+    /**
+     * @return the number of cards in the list
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the card at a position: a new single copy of the collection card for a stored
+     * id, or the stored card itself otherwise.
+     *
+     * @param index the card's position
+     * @return the card
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    @Override
+    public Card get(int index) {
+        Objects.checkIndex(index, size);
+        return ids[index] != Card.NO_ID ? Card.copyCard(collection.findById(ids[index])) : others[index];
+    }
+
+    /**
+     * Returns the card whose attributes the card at a position has, without copying it:
+     * the collection card for a stored id. Callers only read its name, rarity, variation and value.
+     *
+     * @param index the card's position, within range
+     * @return the collection card or the stored card
+     */
+    Card peek(int index) {
+        return ids[index] != Card.NO_ID ? collection.findById(ids[index]) : others[index];
+    }
+
+    /**
+     * Finds the position of a card by the id its collection gave it.
+     *
+     * @param id the card's id
+     * @return the first position holding a copy of that card, or -1 if there is none
+     */
+    int indexOfId(int id) {
+        if (id == Card.NO_ID) {
+            return -1;
+        }
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the position of a card that was added to the list: the same card object if it was
+     * kept as an object, otherwise any copy of the same collection card.
+     *
+     * @param card the card
+     * @return the first position holding it, or -1 if there is none
+     */
+    int indexOfCard(Card card) {
+        if (isStorable(card)) {
+            return indexOfId(card.getId());
+        }
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == Card.NO_ID && others[i] == card) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Inserts a card at a position, storing only its id when the collection resolves it.
+     *
+     * @param index the position, from 0 to the size
+     * @param card  the card to insert
+     */
+    void insert(int index, Card card) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(1, size * 2));
+            if (others != null) {
+                others = Arrays.copyOf(others, ids.length);
+            }
+        }
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        if (others != null) {
+            System.arraycopy(others, index, others, index + 1, size - index);
+        }
+        if (isStorable(card)) {
+            ids[index] = card.getId();
+            if (others != null) {
+                others[index] = null;
+            }
+        } else {
+            if (others == null) {
+                others = new Card[ids.length];
+            }
+            ids[index] = Card.NO_ID;
+            others[index] = card;
+        }
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Removes the card at a position.
+     *
+     * @param index the card's position, within range
+     * @return the removed card, as {@link #get(int)} returns it
+     */
+    @Override
+    public Card remove(int index) {
+        Card card = get(index);
+        size--;
+        System.arraycopy(ids, index + 1, ids, index, size - index);
+        if (others != null) {
+            System.arraycopy(others, index + 1, others, index, size - index);
+            others[size] = null;
+        }
+        modCount++;
+        return card;
+    }
+
+    /**
+     * Removes every card.
+     */
+    @Override
+    public void clear() {
+        if (others != null) {
+            Arrays.fill(others, 0, size, null);
+        }
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Checks whether a card is a single copy of a card of {@link #collection}, and so can be
+     * stored as its id and rebuilt from it.
+     *
+     * @param card the card
+     * @return {@code true} if only the card's id needs storing
+     */
+    private boolean isStorable(Card card) {
+        if (collection == null || card.getId() == Card.NO_ID || card.getCount() != 1) {
+            return false;
+        }
+        Card stored = collection.findById(card.getId());
+        return stored != null && stored.getDefinition() == card.getDefinition();
+    }
+}
@@ -0,0 +1,119 @@
+package com.TradingCard;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Spliterator;
+import java.util.function.Predicate;
+
+/**
+ * Append-only list of cards, used by the secondary indexes of {@link CardCollection}.
+ * <p>
+ * Appends lock the list; reads take no lock. A reader first reads the size and then the
+ * array, and a growing append publishes the larger array before the size that needs it,
+ * so every slot below the size a reader sees is filled in the array it sees.
+ */
+final class CardList {
+    /**
+     * The cards, in the order they were added.
+     */
+    private volatile Card[] cards;
+
+    /**
+     * Number of cards in {@link #cards}.
+     */
+    private volatile int size;
+
+    /**
+     * Creates an empty list.
+     *
+     * @param capacity the number of cards the list holds before it first grows; at least 1
+     */
+    CardList(int capacity) {
+        this.cards = new Card[capacity];
+    }
+
+    /**
+     * Appends a card.
+     *
+     * @param card the card to append
+     * @return the position of the card in the list
+     */
+    synchronized int add(Card card) {
+        Card[] current = cards;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+            cards = current;
+        }
+        current[size] = card;
+        size = size + 1;
+        return size - 1;
+    }
+
+    /**
+     * @return the number of cards in the list
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param index a position in the list
+     * @return the card at that position, or null if the position is out of range
+     */
+    Card get(int index) {
+        int n = size;
+        Card[] snapshot = cards;
+        return index >= 0 && index < n ? snapshot[index] : null;
+    }
+
+    /**
+     * Adds every card in the list to a collection.
+     *
+     * @param target the collection to add to
+     */
+    void addTo(Collection<Card> target) {
+        int n = size;
+        Card[] snapshot = cards;
+        for (int i = 0; i < n; i++) {
+            target.add(snapshot[i]);
+        }
+    }
+
+    /**
+     * Adds the cards in the list that pass a filter to a collection.
+     *
+     * @param target the collection to add to
+     * @param filter the test a card must pass to be added
+     */
+    void addTo(Collection<Card> target, Predicate<Card> filter) {
+        int n = size;
+        Card[] snapshot = cards;
+        for (int i = 0; i < n; i++) {
+            if (filter.test(snapshot[i])) {
+                target.add(snapshot[i]);
+            }
+        }
+    }
+
+    /**
+     * @return a spliterator over the cards in the list when called, which splits evenly by position
+     */
+    Spliterator<Card> spliterator() {
+        int n = size;
+        Card[] snapshot = cards;
+        return Arrays.spliterator(snapshot, 0, n);
+    }
+
+    /**
+     * @return the sum of the counts of the cards in the list
+     */
+    long sumCounts() {
+        int n = size;
+        Card[] snapshot = cards;
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            total += snapshot[i].getCount();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,179 @@
+package com.TradingCard;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reverse index from card names to the binders and decks holding copies of them.
+ * <p>
+ * Binders and decks created by a {@link BinderManager} or {@link DeckManager} report every card
+ * they gain or lose to the manager's index, so the containers holding a card and the number of
+ * copies they hold together are found with one hash lookup, without visiting any container.
+ * Containers are identified by {@link Binder#getId()} and {@link Deck#getId()}, which never
+ * collide. Cards are identified by their normalized name.
+ * <p>
+ * Each card's entry is an immutable snapshot replaced atomically on every change, so lookups
+ * take no lock and always see a consistent set of containers and copy counts.
+ */
+public class CardLocations {
+    /**
+     * Where each card is, keyed by normalized name. Cards held by no container have no entry.
+     */
+    private final ConcurrentHashMap<String, Entry> ENTRIES;
+
+    /**
+     * Constructs an empty index.
+     */
+    public CardLocations() {
+        this.ENTRIES = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * The containers holding one card, and how many copies each holds.
+     */
+    private static final class Entry {
+        /**
+         * Ids of the containers holding the card, in the order they first received it.
+         */
+        final long[] IDS;
+
+        /**
+         * Copies held by the container at the same position of {@link #IDS}; always positive.
+         */
+        final int[] COPIES;
+
+        /**
+         * Sum of {@link #COPIES}.
+         */
+        final int TOTAL;
+
+        /**
+         * @param ids    the container ids
+         * @param copies the copies each container holds
+         * @param total  the sum of the copies
+         */
+        Entry(long[] ids, int[] copies, int total) {
+            this.IDS = ids;
+            this.COPIES = copies;
+            this.TOTAL = total;
+        }
+
+        /**
+         * @param containerId a container id
+         * @return the position of the container in {@link #IDS}, or -1 if it holds no copy
+         */
+        int indexOf(long containerId) {
+            for (int i = 0; i < IDS.length; i++) {
+                if (IDS[i] == containerId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @param containerId the container gaining a copy
+         * @return a new entry with one more copy in that container
+         */
+        Entry plus(long containerId) {
+            int i = indexOf(containerId);
+            if (i < 0) {
+                long[] ids = Arrays.copyOf(IDS, IDS.length + 1);
+                int[] copies = Arrays.copyOf(COPIES, COPIES.length + 1);
+                ids[IDS.length] = containerId;
+                copies[COPIES.length] = 1;
+                return new Entry(ids, copies, TOTAL + 1);
+            }
+            int[] copies = COPIES.clone();
+            copies[i]++;
+            return new Entry(IDS, copies, TOTAL + 1);
+        }
+
+        /**
+         * @param containerId the container losing a copy
+         * @return a new entry with one copy fewer in that container, or null if no copies remain anywhere
+         */
+        Entry minus(long containerId) {
+            int i = indexOf(containerId);
+            if (i < 0) {
+                return this;
+            }
+            if (TOTAL == 1) {
+                return null;
+            }
+            if (COPIES[i] > 1) {
+                int[] copies = COPIES.clone();
+                copies[i]--;
+                return new Entry(IDS, copies, TOTAL - 1);
+            }
+            long[] ids = new long[IDS.length - 1];
+            int[] copies = new int[COPIES.length - 1];
+            System.arraycopy(IDS, 0, ids, 0, i);
+            System.arraycopy(IDS, i + 1, ids, i, ids.length - i);
+            System.arraycopy(COPIES, 0, copies, 0, i);
+            System.arraycopy(COPIES, i + 1, copies, i, copies.length - i);
+            return new Entry(ids, copies, TOTAL - 1);
+        }
+    }
+
+    /**
+     * Records that a container gained a copy of a card.
+     *
+     * @param key         the card's normalized name
+     * @param containerId the id of the binder or deck
+     */
+    void added(String key, long containerId) {
+        ENTRIES.compute(key, (k, entry) -> entry == null
+                ? new Entry(new long[]{containerId}, new int[]{1}, 1)
+                : entry.plus(containerId));
+    }
+
+    /**
+     * Records that a container lost a copy of a card.
+     *
+     * @param key         the card's normalized name
+     * @param containerId the id of the binder or deck
+     */
+    void removed(String key, long containerId) {
+        ENTRIES.computeIfPresent(key, (k, entry) -> entry.minus(containerId));
+    }
+
+    /**
+     * Finds the binders and decks holding copies of a card.
+     *
+     * @param name the card name (case-insensitive, trimmed)
+     * @return the ids of the containers holding the card, in the order they first received it;
+     * empty if no container holds it
+     */
+    public long[] findContainerIds(String name) {
+        Entry entry = ENTRIES.get(Card.normalizeName(name));
+        return entry == null ? new long[0] : entry.IDS.clone();
+    }
+
+    /**
+     * Counts the copies of a card held by binders and decks, in constant time.
+     *
+     * @param name the card name (case-insensitive, trimmed)
+     * @return the number of copies across all containers
+     */
+    public int countCopiesInContainers(String name) {
+        Entry entry = ENTRIES.get(Card.normalizeName(name));
+        return entry == null ? 0 : entry.TOTAL;
+    }
+
+    /**
+     * Counts the copies of a card held by one binder or deck.
+     *
+     * @param name        the card name (case-insensitive, trimmed)
+     * @param containerId the id of the binder or deck
+     * @return the number of copies that container holds
+     */
+    public int countCopiesIn(String name, long containerId) {
+        Entry entry = ENTRIES.get(Card.normalizeName(name));
+        if (entry == null) {
+            return 0;
+        }
+        int i = entry.indexOf(containerId);
+        return i < 0 ? 0 : entry.COPIES[i];
+    }
+}
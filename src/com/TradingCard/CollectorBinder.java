@@ -1,5 +1,6 @@
 package com.TradingCard;
 
+import com.TradingCard.Enums.BinderType;
 import com.TradingCard.Enums.Rarity;
 import com.TradingCard.Enums.Variation;
 
@@ -19,6 +20,14 @@ public class CollectorBinder extends Binder {
         super(name);
     }
 
+    /**
+     * @return {@link BinderType#COLLECTOR} always
+     */
+    @Override
+    public BinderType getType() {
+        return BinderType.COLLECTOR;
+    }
+
     /**
      * Indicates that this binder cannot be sold.
      *
@@ -39,15 +48,26 @@ public class CollectorBinder extends Binder {
      */
     @Override
     public boolean addCard(Card card) {
-        if (CARDS.size() >= MAX_CAPACITY) {
-            return false; // binder is full
-        }
-        Rarity rarity = card.getRarity();
-        Variation variant = card.getVariation();
-        if ((rarity != Rarity.RARE && rarity != Rarity.LEGENDARY) || variant == Variation.NORMAL) {
-            return false;
+        LOCK.lock();
+        try {
+            if (isFull()) {
+                return false; // binder is full
+            }
+            if (!accepts(card.getRarity(), card.getVariation())) {
+                return false;
+            }
+            return insertCard(card);
+        } finally {
+            LOCK.unlock();
         }
-        return CARDS.add(card);
+    }
+
+    /**
+     * @return {@code true} if the rarity is rare or legendary and the variation is not normal
+     */
+    @Override
+    public boolean accepts(Rarity rarity, Variation variation) {
+        return (rarity == Rarity.RARE || rarity == Rarity.LEGENDARY) && variation != Variation.NORMAL;
     }
 }
 
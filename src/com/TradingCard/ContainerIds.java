@@ -0,0 +1,26 @@
+package com.TradingCard;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Source of the ids shared by binders and decks.
+ * <p>
+ * Ids increase in creation order and never repeat within a process, across binders and decks
+ * alike, so that callers locking several containers can always lock them in ascending id order.
+ */
+final class ContainerIds {
+    /**
+     * The last id handed out.
+     */
+    private static final AtomicLong LAST_ID = new AtomicLong();
+
+    private ContainerIds() {
+    }
+
+    /**
+     * @return a new id, greater than every id handed out before
+     */
+    static long next() {
+        return LAST_ID.incrementAndGet();
+    }
+}
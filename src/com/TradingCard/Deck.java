@@ -1,13 +1,21 @@
 package com.TradingCard;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Represents a deck of up to 10 unique cards for gameplay.
  * <p>
  * Supports adding cards (preventing duplicates and enforcing capacity),
  * removing cards by name or index, and listing current cards.
+ * <p>
+ * Every public method holds the deck's own {@link #getLock() lock}, so a deck may be used
+ * from several threads. Callers that combine several calls into one step hold the lock
+ * around them; when locking more than one binder or deck, they lock in ascending
+ * {@link #getId() id} order.
  */
 public class Deck {
     /**
@@ -21,9 +29,38 @@ public class Deck {
     private final String NAME;
 
     /**
-     * Internal list storing the cards contained in this deck.
+     * Process-wide unique id from the sequence shared by binders and decks, increasing in creation order.
+     */
+    private final long ID;
+
+    /**
+     * Lock held by every public method, and by callers combining several calls into one step.
+     */
+    protected final ReentrantLock LOCK;
+
+    /**
+     * The cards contained in this deck, in insertion order, stored as collection ids once the
+     * managing DeckManager has set the collection to resolve them through.
+     * Subclasses empty the deck through {@link #clearCards()} so the running value total is preserved.
+     */
+    final CardIdList CARDS;
+
+    /**
+     * Read-only live view of {@link #CARDS}, shared by all callers.
+     */
+    private final List<Card> CARDS_VIEW;
+
+    /**
+     * Running total of the values of all cards in {@link #CARDS}, in cents.
+     * Only changed while holding {@link #LOCK}, and readable without it.
      */
-    protected final ArrayList<Card> CARDS;
+    private volatile long totalValueCents;
+
+    /**
+     * Index that every card this deck gains or loses is reported to, or null if it is not tracked.
+     * Set once by the managing DeckManager when the deck is created.
+     */
+    private volatile CardLocations locations;
 
 
     /**
@@ -37,7 +74,10 @@ public class Deck {
             throw new IllegalArgumentException("Deck name cannot be null or blank");
         }
         this.NAME = name.trim();
-        this.CARDS = new ArrayList<>();
+        this.ID = ContainerIds.next();
+        this.LOCK = new ReentrantLock();
+        this.CARDS = new CardIdList(MAX_CAPACITY);
+        this.CARDS_VIEW = Collections.unmodifiableList(CARDS);
     }
 
     /**
@@ -49,6 +89,44 @@ public class Deck {
         return NAME;
     }
 
+    /**
+     * Retrieves the id that orders this deck's lock before those of later binders and decks.
+     *
+     * @return the deck's unique id
+     */
+    public long getId() {
+        return ID;
+    }
+
+    /**
+     * Starts reporting the cards this deck gains or loses to a reverse index.
+     * Called by the manager while the deck is still empty.
+     *
+     * @param locations the index to report to
+     */
+    void trackLocations(CardLocations locations) {
+        this.locations = locations;
+    }
+
+    /**
+     * Starts storing the cards taken from a collection as the ids it gave them.
+     * Called by the manager while the deck is still empty.
+     *
+     * @param collection the collection whose ids to store
+     */
+    void resolveThrough(CardCollection collection) {
+        CARDS.resolveThrough(collection);
+    }
+
+    /**
+     * Retrieves the lock guarding this deck's contents.
+     *
+     * @return the deck's lock
+     */
+    public ReentrantLock getLock() {
+        return LOCK;
+    }
+
     /**
      * Retrieves a card by its position in the deck.
      *
@@ -57,10 +135,15 @@ public class Deck {
      * @throws IndexOutOfBoundsException if index is invalid
      */
     public Card getCardAtIndex(int index) {
-        if (index < 0 || index >= CARDS.size()) {
-            throw new IndexOutOfBoundsException("Invalid card index: " + index);
+        LOCK.lock();
+        try {
+            if (index < 0 || index >= CARDS.size()) {
+                throw new IndexOutOfBoundsException("Invalid card index: " + index);
+            }
+            return CARDS.get(index);
+        } finally {
+            LOCK.unlock();
         }
-        return CARDS.get(index);
     }
 
     /**
@@ -70,10 +153,60 @@ public class Deck {
      * @return the matching Card, or null if not present
      */
     public Card findByCardName(String name) {
-        String query = name.trim().toLowerCase();
-        for (Card card : CARDS) {
-            if (card.getName().toLowerCase().equals(query)) {
-                return card;
+        LOCK.lock();
+        try {
+            String query = Card.normalizeName(name);
+            for (int i = 0; i < CARDS.size(); i++) {
+                if (CARDS.peek(i).getKey().equals(query)) {
+                    return CARDS.get(i);
+                }
+            }
+            return null;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Searches for a card in this deck by the id its {@link CardCollection} gave it,
+     * comparing the stored ids instead of names.
+     *
+     * @param id the card's id
+     * @return the matching Card, or null if not present
+     */
+    public Card findById(int id) {
+        if (id < 0) {
+            return null;
+        }
+        LOCK.lock();
+        try {
+            int index = CARDS.indexOfId(id);
+            return index >= 0 ? CARDS.get(index) : null;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Searches for a card in this deck by a possibly misspelled name. When no card matches
+     * exactly, the names within {@code maxDistance} edits are looked up in the collection's
+     * {@link CardCollection#findSimilar(String, int, int) fuzzy index}, closest first, and the
+     * first of them this deck holds is returned.
+     *
+     * @param name        case-insensitive card name to search
+     * @param collection  the collection whose names to match against
+     * @param maxDistance the most edits allowed between the name and a match
+     * @return the matching Card, or null if no card in this deck is close enough
+     */
+    public Card findByCardName(String name, CardCollection collection, int maxDistance) {
+        Card exact = findByCardName(name);
+        if (exact != null) {
+            return exact;
+        }
+        for (Card candidate : collection.findSimilar(name, maxDistance, Integer.MAX_VALUE)) {
+            Card held = findByCardName(candidate.getKey());
+            if (held != null) {
+                return held;
             }
         }
         return null;
@@ -89,20 +222,32 @@ public class Deck {
      * @throws IllegalArgumentException if a different card with the same name already exists
      */
     public boolean addCard(Card c) {
-        if (CARDS.size() >= MAX_CAPACITY) {
-            return false; // deck is full
-        }
-        Card existing = findByCardName(c.getName());
-        if (existing != null) {
-            if (existing.equals(c)) {
-                return false; // duplicate card
-            } else {
-                throw new IllegalArgumentException(
-                        "A different card with name '" + c.getName() + "' already exists in the deck");
+        LOCK.lock();
+        try {
+            if (CARDS.size() >= MAX_CAPACITY) {
+                return false; // deck is full
+            }
+            for (int i = 0; i < CARDS.size(); i++) {
+                Card existing = CARDS.peek(i);
+                if (existing.getKey().equals(c.getKey())) {
+                    if (existing.equals(c)) {
+                        return false; // duplicate card
+                    } else {
+                        throw new IllegalArgumentException(
+                                "A different card with name '" + c.getName() + "' already exists in the deck");
+                    }
+                }
             }
+            CARDS.insert(CARDS.size(), c);
+            totalValueCents += c.getValueCents();
+            CardLocations tracked = locations;
+            if (tracked != null) {
+                tracked.added(c.getKey(), ID);
+            }
+            return true;
+        } finally {
+            LOCK.unlock();
         }
-        CARDS.add(c);
-        return true;
     }
 
     /**
@@ -111,9 +256,77 @@ public class Deck {
      * @return a new list containing the removed cards
      */
     public ArrayList<Card> removeAllCards() {
-        ArrayList<Card> removed = new ArrayList<>(CARDS);
+        LOCK.lock();
+        try {
+            ArrayList<Card> removed = new ArrayList<>(CARDS);
+            clearCards();
+            return removed;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Removes every card from this deck and resets the running value total.
+     * Callers hold {@link #LOCK}.
+     */
+    protected void clearCards() {
+        CardLocations tracked = locations;
+        if (tracked != null) {
+            for (int i = 0; i < CARDS.size(); i++) {
+                tracked.removed(CARDS.peek(i).getKey(), ID);
+            }
+        }
         CARDS.clear();
-        return removed;
+        totalValueCents = 0;
+    }
+
+    /**
+     * Removes the card at a position and takes its value off the running total.
+     * Callers hold {@link #LOCK}.
+     *
+     * @param index the card's position in {@link #CARDS}
+     * @return the removed card
+     */
+    private Card removeAt(int index) {
+        Card card = CARDS.remove(index);
+        totalValueCents -= card.getValueCents();
+        CardLocations tracked = locations;
+        if (tracked != null) {
+            tracked.removed(card.getKey(), ID);
+        }
+        return card;
+    }
+
+    /**
+     * Returns the total real value of all cards currently in this deck, in cents.
+     * The total is maintained as cards are added and removed, so this runs in constant time.
+     *
+     * @return sum of card values in cents
+     */
+    public long getTotalValueCents() {
+        return totalValueCents;
+    }
+
+    /**
+     * Removes a card that was added to this deck, such as when undoing an earlier add: a copy
+     * of the same collection card, or the same card instance if it was not stored by id.
+     *
+     * @param card the card to remove
+     * @return {@code true} if the card was in this deck and has been removed; {@code false} otherwise
+     */
+    public boolean removeCard(Card card) {
+        LOCK.lock();
+        try {
+            int index = CARDS.indexOfCard(card);
+            if (index < 0) {
+                return false;
+            }
+            removeAt(index);
+            return true;
+        } finally {
+            LOCK.unlock();
+        }
     }
 
     /**
@@ -125,25 +338,72 @@ public class Deck {
      * @throws NoSuchElementException   if no matching card is found
      */
     public Card removeCardByName(String name) {
-        if (CARDS.isEmpty()) {
-            throw new IllegalStateException("Deck '" + NAME + "' is empty");
-        }
-        Card target = findByCardName(name);
-        if (target == null) {
+        LOCK.lock();
+        try {
+            if (CARDS.isEmpty()) {
+                throw new IllegalStateException("Deck '" + NAME + "' is empty");
+            }
+            String query = Card.normalizeName(name);
+            for (int i = 0; i < CARDS.size(); i++) {
+                if (CARDS.peek(i).getKey().equals(query)) {
+                    return removeAt(i);
+                }
+            }
             throw new NoSuchElementException(
                     "Card '" + name + "' not found in deck '" + NAME + "'");
+        } finally {
+            LOCK.unlock();
         }
-        CARDS.remove(target);
-        return target;
     }
 
     /**
-     * Provides a shallow copy of current cards in insertion order.
+     * Removes a specific card from the deck by the id its {@link CardCollection} gave it.
+     *
+     * @param id the card's id
+     * @return the removed Card instance
+     * @throws IllegalStateException  if the deck is empty
+     * @throws NoSuchElementException if no matching card is found
+     */
+    public Card removeCardById(int id) {
+        LOCK.lock();
+        try {
+            if (CARDS.isEmpty()) {
+                throw new IllegalStateException("Deck '" + NAME + "' is empty");
+            }
+            int index = CARDS.indexOfId(id);
+            if (index >= 0) {
+                return removeAt(index);
+            }
+            throw new NoSuchElementException(
+                    "Card #" + id + " not found in deck '" + NAME + "'");
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Provides a copy of current cards in insertion order.
      *
      * @return a new list of cards in this deck
      */
     public ArrayList<Card> getCopyOfCards() {
-        return new ArrayList<>(CARDS);
+        LOCK.lock();
+        try {
+            return new ArrayList<>(CARDS);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Returns a read-only live view of the current cards in insertion order.
+     * Cards stored by id are rebuilt as new copies each time the view reads them.
+     * Callers iterating the view while other threads may modify the deck hold {@link #getLock()}.
+     *
+     * @return an unmodifiable list of the cards in this deck
+     */
+    public List<Card> getCardsView() {
+        return CARDS_VIEW;
     }
 
     /**
@@ -2,13 +2,101 @@ package com.TradingCard;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Manages the lifecycle of decks and the cards moved into and out of them.
+ * <p>
+ * The manager is safe for concurrent use. A deck is unregistered before it is emptied,
+ * so callers that lock a deck and then confirm it is still {@link #isManaged(Deck) managed}
+ * cannot add cards to a deck that is being deleted or sold.
+ * <p>
+ * Creating, deleting and selling decks hold the manager's {@link #getLock() lock}, so deck
+ * names change one at a time. Callers that must finish another step, such as journaling the
+ * change, before the next name changes hold the lock around the call; they take it before
+ * locking any deck.
+ */
 public class DeckManager {
-    private final ArrayList<Deck> DECKS;
+    /**
+     * All decks currently tracked, keyed by their normalized name.
+     */
+    private final ConcurrentHashMap<String, Deck> DECKS;
+
+    /**
+     * The same decks keyed by id, in creation order. Only read or changed while holding
+     * {@link #LOCK}, so registering and unregistering take constant time; readers get copies.
+     */
+    private final LinkedHashMap<Long, Deck> BY_ID;
+
+    /**
+     * Reverse index that every deck created here reports its cards to.
+     */
+    private final CardLocations LOCATIONS;
+
+    /**
+     * Collection whose ids the decks created here store their cards as, or null if they keep card objects.
+     */
+    private final CardCollection COLLECTION;
 
+    /**
+     * Lock held while decks are created, deleted or sold, and while their creation order is read.
+     */
+    private final ReentrantLock LOCK;
+
+    /**
+     * Constructs a new DeckManager with no decks and its own reverse index.
+     */
     public DeckManager() {
-        this.DECKS = new ArrayList<>();
+        this(new CardLocations());
+    }
+
+    /**
+     * Constructs a new DeckManager with an empty deck list whose decks keep card objects.
+     *
+     * @param locations the reverse index that decks created here report their cards to,
+     *                  which may be shared with a {@link BinderManager}
+     */
+    public DeckManager(CardLocations locations) {
+        this(locations, null);
+    }
+
+    /**
+     * Constructs a new DeckManager with an empty deck list.
+     *
+     * @param locations  the reverse index that decks created here report their cards to,
+     *                   which may be shared with a {@link BinderManager}
+     * @param collection the collection the decks created here take their cards from, whose
+     *                   ids they store those cards as, or null to keep card objects
+     */
+    public DeckManager(CardLocations locations, CardCollection collection) {
+        this.DECKS = new ConcurrentHashMap<>();
+        this.BY_ID = new LinkedHashMap<>();
+        this.LOCATIONS = locations;
+        this.COLLECTION = collection;
+        this.LOCK = new ReentrantLock();
+    }
+
+    /**
+     * Retrieves the lock held while decks are created, deleted or sold.
+     *
+     * @return the manager's lock
+     */
+    public ReentrantLock getLock() {
+        return LOCK;
+    }
+
+    /**
+     * Normalizes a deck name into its lookup key.
+     *
+     * @param name the deck name
+     * @return the trimmed, lower-case name
+     */
+    private static String keyOf(String name) {
+        return name.trim().toLowerCase();
     }
 
     /**
@@ -18,11 +106,11 @@ public class DeckManager {
      * @throws NoSuchElementException if no deck with that name exists
      */
     public Deck findDeckByName(String name) {
-        for (Deck deck : this.DECKS) {
-            if (deck.getName().equalsIgnoreCase(name))
-                return deck;
+        Deck deck = this.DECKS.get(keyOf(name));
+        if (deck == null) {
+            throw new NoSuchElementException("deck \"" + name + "\" not found");
         }
-        throw new NoSuchElementException("deck \"" + name + "\" not found");
+        return deck;
     }
 
     /**
@@ -33,10 +121,26 @@ public class DeckManager {
      * @throws IllegalStateException if a deck with that name already exists
      */
     public void createDeck(String name, boolean sellable) {
-        for (Deck d : this.DECKS) {
-            if (d.getName().equalsIgnoreCase(name))
+        LOCK.lock();
+        try {
+            if (this.DECKS.containsKey(keyOf(name))) {
                 throw new IllegalStateException("deck \"" + name + "\" already exists");
+            }
+            register(newDeck(name, sellable));
+        } finally {
+            LOCK.unlock();
         }
+    }
+
+    /**
+     * Creates a deck without registering it, so that the caller can lock it before other
+     * threads can find it.
+     *
+     * @param name the name of the new deck
+     * @param sellable true if the deck should be sellable, false otherwise
+     * @return the new, empty deck
+     */
+    public Deck newDeck(String name, boolean sellable) {
         Deck deck;
         if(sellable) {
             deck = new SellableDeck(name);
@@ -44,7 +148,83 @@ public class DeckManager {
         else {
             deck = new Deck(name);
         }
-        this.DECKS.add(deck);
+        deck.trackLocations(LOCATIONS);
+        if (COLLECTION != null) {
+            deck.resolveThrough(COLLECTION);
+        }
+        return deck;
+    }
+
+    /**
+     * Registers a deck made by {@link #newDeck(String, boolean)}.
+     *
+     * @param deck the deck to register
+     * @throws IllegalStateException if a deck with the same name already exists
+     */
+    public void register(Deck deck) {
+        LOCK.lock();
+        try {
+            if (this.DECKS.putIfAbsent(keyOf(deck.getName()), deck) != null) {
+                throw new IllegalStateException("deck \"" + deck.getName() + "\" already exists");
+            }
+            this.BY_ID.put(deck.getId(), deck);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Finds a managed deck by its id.
+     *
+     * @param id the deck's id
+     * @return the deck, or null if no managed deck has that id
+     */
+    public Deck findDeckById(long id) {
+        LOCK.lock();
+        try {
+            return BY_ID.get(id);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Returns all decks in creation order, copied while holding the manager's lock.
+     *
+     * @return a new list of the managed decks
+     */
+    public ArrayList<Deck> getDecks() {
+        LOCK.lock();
+        try {
+            return new ArrayList<>(BY_ID.values());
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Checks whether a deck is still registered with this manager.
+     * Callers holding the deck's lock use this to detect a concurrent delete or sale.
+     *
+     * @param deck the deck to check
+     * @return {@code true} if the deck has not been deleted or sold; {@code false} otherwise
+     */
+    public boolean isManaged(Deck deck) {
+        return DECKS.get(keyOf(deck.getName())) == deck;
+    }
+
+    /**
+     * Unregisters a deck, failing if another thread already deleted or sold it.
+     *
+     * @param name the name the deck was looked up by
+     * @param deck the deck to unregister
+     * @throws NoSuchElementException if the deck is no longer registered
+     */
+    private void unregister(String name, Deck deck) {
+        if (!DECKS.remove(keyOf(deck.getName()), deck)) {
+            throw new NoSuchElementException("deck \"" + name + "\" not found");
+        }
+        BY_ID.remove(deck.getId());
     }
 
     /**
@@ -55,10 +235,14 @@ public class DeckManager {
      * @throws NoSuchElementException if no deck with the given name exists
      */
     public ArrayList<Card> deleteDeck(String name) {
-        Deck target = findDeckByName(name);
-        ArrayList<Card> cards = target.removeAllCards();
-        this.DECKS.remove(target);
-        return cards;
+        LOCK.lock();
+        try {
+            Deck target = findDeckByName(name);
+            unregister(name, target);
+            return target.removeAllCards();
+        } finally {
+            LOCK.unlock();
+        }
     }
 
     /**
@@ -90,16 +274,34 @@ public class DeckManager {
         return null;
     }
 
+    /**
+     * Adds up what every sellable deck would currently sell for,
+     * splitting the decks over the pool's workers.
+     *
+     * @param pool the pool to run in
+     * @return the total, with {@link Sellable#SALE_PRICE_SCALE} decimal places
+     * @throws ArithmeticException if the total does not fit in a long
+     */
+    public long sumSalePrices(ForkJoinPool pool) {
+        return ValueSum.sum(pool, getDecks().spliterator(),
+                deck -> deck instanceof Sellable sellable ? sellable.getUnscaledSalePrice() : 0);
+    }
+
     /**
      * Retrieve names of all decks in the system.
      * @return list of deck names
      */
     public ArrayList<String> getDeckNames() {
-        ArrayList<String> deckNames = new ArrayList<>();
-        for (Deck deck : this.DECKS) {
-            deckNames.add(deck.getName());
+        LOCK.lock();
+        try {
+            ArrayList<String> deckNames = new ArrayList<>(BY_ID.size());
+            for (Deck deck : BY_ID.values()) {
+                deckNames.add(deck.getName());
+            }
+            return deckNames;
+        } finally {
+            LOCK.unlock();
         }
-        return deckNames;
     }
 
     /**
@@ -111,15 +313,19 @@ public class DeckManager {
      * @throws IllegalStateException if the deck is not sellable
      */
     public BigDecimal sellDeck(String name) {
-        Deck deck = findDeckByName(name);
+        LOCK.lock();
+        try {
+            Deck deck = findDeckByName(name);
 
-        if (!deck.isSellable()) {
-            throw new IllegalStateException("deck \"" + name + "\" cannot be sold");
-        }
+            if (!deck.isSellable()) {
+                throw new IllegalStateException("deck \"" + name + "\" cannot be sold");
+            }
 
-        BigDecimal price = ((SellableDeck) deck).sell();
-        DECKS.remove(deck);
-        return price;
+            unregister(name, deck);
+            return ((SellableDeck) deck).sell();
+        } finally {
+            LOCK.unlock();
+        }
     }
 
     /**
@@ -1,8 +1,11 @@
 package com.TradingCard;
 
+import com.TradingCard.Enums.BinderType;
+import com.TradingCard.Enums.Rarity;
 import com.TradingCard.Enums.Variation;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 /**
  * A binder that holds only non-normal variant cards (e.g., extended-art, full-art, alt-art)
@@ -13,7 +16,7 @@ import java.math.BigDecimal;
 public class LuxuryBinder extends Binder implements Sellable {
 
     private static final BigDecimal HANDLING_RATE = new BigDecimal("0.10");
-    private BigDecimal customPrice = BigDecimal.ZERO;
+    private volatile BigDecimal customPrice = BigDecimal.ZERO;
 
     /**
      * Constructs a {@code LuxuryBinder} with the given name.
@@ -34,13 +37,34 @@ public class LuxuryBinder extends Binder implements Sellable {
      */
     @Override
     public boolean addCard(Card card) {
-        if (CARDS.size() >= MAX_CAPACITY) {
-            return false; // binder is full
-        }
-        if (card.getVariation() == Variation.NORMAL) {
-            throw new IllegalArgumentException("Card with variant NORMAL is not allowed in a luxury binder");
+        LOCK.lock();
+        try {
+            if (isFull()) {
+                return false; // binder is full
+            }
+            if (!accepts(card.getRarity(), card.getVariation())) {
+                throw new IllegalArgumentException("Card with variant NORMAL is not allowed in a luxury binder");
+            }
+            return insertCard(card);
+        } finally {
+            LOCK.unlock();
         }
-        return CARDS.add(card);
+    }
+
+    /**
+     * @return {@code true} if the variation is not normal
+     */
+    @Override
+    public boolean accepts(Rarity rarity, Variation variation) {
+        return variation != Variation.NORMAL;
+    }
+
+    /**
+     * @return {@link BinderType#LUXURY} always
+     */
+    @Override
+    public BinderType getType() {
+        return BinderType.LUXURY;
     }
 
     /**
@@ -61,12 +85,17 @@ public class LuxuryBinder extends Binder implements Sellable {
      * @throws IllegalArgumentException if price is below the total real value
      */
     public void setCustomPrice(BigDecimal price) {
-        BigDecimal min = getValue();
-        if (price.compareTo(min) < 0) {
-            throw new IllegalArgumentException(
-                    "Custom price cannot be below total real value (" + min + ")");
+        LOCK.lock();
+        try {
+            BigDecimal min = getValue();
+            if (price.compareTo(min) < 0) {
+                throw new IllegalArgumentException(
+                        "Custom price cannot be below total real value (" + min + ")");
+            }
+            this.customPrice = price;
+        } finally {
+            LOCK.unlock();
         }
-        this.customPrice = price;
     }
 
     /**
@@ -78,17 +107,22 @@ public class LuxuryBinder extends Binder implements Sellable {
      */
     @Override
     public BigDecimal sell() {
-        BigDecimal base;
-        if(customPrice.compareTo(BigDecimal.ZERO) > 0) {
-            base = customPrice;
-        }
-        else {
-            base = getValue();
+        LOCK.lock();
+        try {
+            BigDecimal base;
+            if(customPrice.compareTo(BigDecimal.ZERO) > 0) {
+                base = customPrice;
+            }
+            else {
+                base = getValue();
+            }
+            BigDecimal fee = base.multiply(HANDLING_RATE);
+            BigDecimal total = base.add(fee);
+            clearCards();
+            return total;
+        } finally {
+            LOCK.unlock();
         }
-        BigDecimal fee = base.multiply(HANDLING_RATE);
-        BigDecimal total = base.add(fee);
-        CARDS.clear();
-        return total;
     }
     /**
      * Computes the total real value of all cards currently in this binder.
@@ -108,12 +142,27 @@ public class LuxuryBinder extends Binder implements Sellable {
      */
     @Override
     public BigDecimal getValue() {
-        BigDecimal total = BigDecimal.ZERO;
-        for (Card card : CARDS) {
-            if(card != null) {
-                total = total.add(card.getValue());
+        return BigDecimal.valueOf(getTotalValueCents(), 2);
+    }
+
+    /**
+     * Computes the sale price without clearing the binder, as {@link #sell()} would: the custom
+     * price if set (otherwise the real value) plus the 10% fee. A custom price with more than
+     * three decimal places is rounded to {@link Sellable#SALE_PRICE_SCALE} places.
+     *
+     * @return the sale price, with {@link Sellable#SALE_PRICE_SCALE} decimal places
+     */
+    @Override
+    public long getUnscaledSalePrice() {
+        LOCK.lock();
+        try {
+            if (customPrice.compareTo(BigDecimal.ZERO) > 0) {
+                BigDecimal total = customPrice.add(customPrice.multiply(HANDLING_RATE));
+                return total.setScale(SALE_PRICE_SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
             }
+            return Math.multiplyExact(getTotalValueCents(), 110L);
+        } finally {
+            LOCK.unlock();
         }
-        return total;
     }
 }
@@ -1,5 +1,7 @@
 package com.TradingCard;
 
+import com.TradingCard.Enums.BinderType;
+
 /**
  * A basic binder that holds any set of cards up to a fixed capacity.
  * <p>
@@ -18,6 +20,14 @@ public class NonCuratedBinder extends Binder {
         super(name);
     }
 
+    /**
+     * @return {@link BinderType#NON_CURATED} always
+     */
+    @Override
+    public BinderType getType() {
+        return BinderType.NON_CURATED;
+    }
+
     /**
      * Indicates that this binder cannot be sold.
      *
@@ -39,9 +49,14 @@ public class NonCuratedBinder extends Binder {
      */
     @Override
     public boolean addCard(Card card) {
-        if (CARDS.size() >= MAX_CAPACITY) {
-            return false; // binder is full
+        LOCK.lock();
+        try {
+            if (isFull()) {
+                return false; // binder is full
+            }
+            return insertCard(card);
+        } finally {
+            LOCK.unlock();
         }
-        return CARDS.add(card);
     }
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.TradingCard;
 
+import com.TradingCard.Enums.BinderType;
 import com.TradingCard.Enums.Rarity;
+import com.TradingCard.Enums.Variation;
 
 import java.math.BigDecimal;
 
@@ -22,6 +24,14 @@ public class PauperBinder extends Binder implements Sellable {
         super(name);
     }
 
+    /**
+     * @return {@link BinderType#PAUPER} always
+     */
+    @Override
+    public BinderType getType() {
+        return BinderType.PAUPER;
+    }
+
     /**
      * Indicates that this binder can be sold.
      *
@@ -41,15 +51,27 @@ public class PauperBinder extends Binder implements Sellable {
      */
     @Override
     public boolean addCard(Card card) {
-        if (CARDS.size() >= MAX_CAPACITY) {
-            return false; // full, cannot add
-        }
+        LOCK.lock();
+        try {
+            if (isFull()) {
+                return false; // full, cannot add
+            }
 
-        if (card.getRarity() != Rarity.COMMON
-                && card.getRarity() != Rarity.UNCOMMON) {
-            throw new IllegalArgumentException("Card with rarity " + card.getRarity() + " is not allowed in a pauper binder");
+            if (!accepts(card.getRarity(), card.getVariation())) {
+                throw new IllegalArgumentException("Card with rarity " + card.getRarity() + " is not allowed in a pauper binder");
+            }
+            return insertCard(card);
+        } finally {
+            LOCK.unlock();
         }
-        return CARDS.add(card);
+    }
+
+    /**
+     * @return {@code true} if the rarity is common or uncommon
+     */
+    @Override
+    public boolean accepts(Rarity rarity, Variation variation) {
+        return rarity == Rarity.COMMON || rarity == Rarity.UNCOMMON;
     }
 
     /**
@@ -60,9 +82,14 @@ public class PauperBinder extends Binder implements Sellable {
      */
     @Override
     public BigDecimal sell() {
-        BigDecimal total = getValue();
-        CARDS.clear();
-        return total;
+        LOCK.lock();
+        try {
+            BigDecimal total = getValue();
+            clearCards();
+            return total;
+        } finally {
+            LOCK.unlock();
+        }
     }
 
     /**
@@ -73,12 +100,14 @@ public class PauperBinder extends Binder implements Sellable {
      */
     @Override
     public BigDecimal getValue() {
-        BigDecimal total = BigDecimal.ZERO;
-        for (Card card : CARDS) {
-            if(card != null) {
-                total = total.add(card.getValue());
-            }
-        }
-        return total;
+        return BigDecimal.valueOf(getTotalValueCents(), 2);
+    }
+
+    /**
+     * @return the real value of the cards, with {@link Sellable#SALE_PRICE_SCALE} decimal places
+     */
+    @Override
+    public long getUnscaledSalePrice() {
+        return Math.multiplyExact(getTotalValueCents(), 100L);
     }
 }
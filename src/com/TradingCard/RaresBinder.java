@@ -1,6 +1,8 @@
 package com.TradingCard;
 
+import com.TradingCard.Enums.BinderType;
 import com.TradingCard.Enums.Rarity;
+import com.TradingCard.Enums.Variation;
 
 import java.math.BigDecimal;
 
@@ -24,6 +26,14 @@ public class RaresBinder extends Binder implements Sellable {
         super(name);
     }
 
+    /**
+     * @return {@link BinderType#RARES} always
+     */
+    @Override
+    public BinderType getType() {
+        return BinderType.RARES;
+    }
+
     /**
      * Indicates that this binder can be sold.
      *
@@ -43,14 +53,26 @@ public class RaresBinder extends Binder implements Sellable {
      */
     @Override
     public boolean addCard(Card card) {
-        if (CARDS.size() >= MAX_CAPACITY) {
-            return false; // binder is full
-        }
-        if (card.getRarity() != Rarity.RARE
-                && card.getRarity() != Rarity.LEGENDARY) {
-            throw new IllegalArgumentException("Card with rarity " + card.getRarity() + " is not allowed in a rares binder");
+        LOCK.lock();
+        try {
+            if (isFull()) {
+                return false; // binder is full
+            }
+            if (!accepts(card.getRarity(), card.getVariation())) {
+                throw new IllegalArgumentException("Card with rarity " + card.getRarity() + " is not allowed in a rares binder");
+            }
+            return insertCard(card);
+        } finally {
+            LOCK.unlock();
         }
-        return CARDS.add(card);
+    }
+
+    /**
+     * @return {@code true} if the rarity is rare or legendary
+     */
+    @Override
+    public boolean accepts(Rarity rarity, Variation variation) {
+        return rarity == Rarity.RARE || rarity == Rarity.LEGENDARY;
     }
 
     /**
@@ -61,11 +83,16 @@ public class RaresBinder extends Binder implements Sellable {
      */
     @Override
     public BigDecimal sell() {
-        BigDecimal base = getValue();
-        BigDecimal fee = base.multiply(HANDLING_RATE);
-        BigDecimal total = base.add(fee);
-        CARDS.clear();
-        return total;
+        LOCK.lock();
+        try {
+            BigDecimal base = getValue();
+            BigDecimal fee = base.multiply(HANDLING_RATE);
+            BigDecimal total = base.add(fee);
+            clearCards();
+            return total;
+        } finally {
+            LOCK.unlock();
+        }
     }
 
     /**
@@ -76,12 +103,17 @@ public class RaresBinder extends Binder implements Sellable {
      */
     @Override
     public BigDecimal getValue() {
-        BigDecimal total = BigDecimal.ZERO;
-        for (Card card : CARDS) {
-            if(card != null) {
-                total = total.add(card.getValue());
-            }
-        }
-        return total;
+        return BigDecimal.valueOf(getTotalValueCents(), 2);
+    }
+
+    /**
+     * Computes the sale price without clearing the binder: the real value plus the 10% fee,
+     * which in hundredths of a cent is the value in cents times 110.
+     *
+     * @return the sale price, with {@link Sellable#SALE_PRICE_SCALE} decimal places
+     */
+    @Override
+    public long getUnscaledSalePrice() {
+        return Math.multiplyExact(getTotalValueCents(), 110L);
     }
 }
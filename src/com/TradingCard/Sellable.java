@@ -9,6 +9,12 @@ import java.math.BigDecimal;
  * and what happens when a sale occurs.
  */
 public interface Sellable {
+    /**
+     * Number of decimal places of the fixed-point sale prices returned by
+     * {@link #getUnscaledSalePrice()}: enough for a 10% handling fee on a price in cents.
+     */
+    int SALE_PRICE_SCALE = 4;
+
     /**
      * Sells the object, typically clearing its contents or marking it as sold,
      * and returns the total earnings from the sale.
@@ -23,4 +29,14 @@ public interface Sellable {
      * @return current value as {@link BigDecimal}
      */
     BigDecimal getValue();
+
+    /**
+     * Computes what {@link #sell()} would earn right now, without modifying the object, as a
+     * fixed-point number with {@link #SALE_PRICE_SCALE} decimal places, so that many sale prices
+     * can be added up as longs.
+     *
+     * @return the sale price, multiplied by 10<sup>{@link #SALE_PRICE_SCALE}</sup>
+     * @throws ArithmeticException if the sale price does not fit in a long
+     */
+    long getUnscaledSalePrice();
 }
@@ -26,9 +26,14 @@ public class SellableDeck extends Deck implements Sellable{
      */
     @Override
     public BigDecimal sell() {
-        BigDecimal total = getValue();
-        CARDS.clear();
-        return total;
+        LOCK.lock();
+        try {
+            BigDecimal total = getValue();
+            clearCards();
+            return total;
+        } finally {
+            LOCK.unlock();
+        }
     }
 
     /**
@@ -38,13 +43,15 @@ public class SellableDeck extends Deck implements Sellable{
      */
     @Override
     public BigDecimal getValue() {
-        BigDecimal total = BigDecimal.ZERO;
-        for (Card card : CARDS) {
-            if(card != null) {
-                total = total.add(card.getValue());
-            }
-        }
-        return total;
+        return BigDecimal.valueOf(getTotalValueCents(), 2);
+    }
+
+    /**
+     * @return the real value of the cards, with {@link Sellable#SALE_PRICE_SCALE} decimal places
+     */
+    @Override
+    public long getUnscaledSalePrice() {
+        return Math.multiplyExact(getTotalValueCents(), 100L);
     }
 
     /**
@@ -0,0 +1,197 @@
+package com.TradingCard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Inverted index from the trigrams of normalized card names to the cards containing them,
+ * for finding the names within a small edit distance of a misspelled one.
+ * <p>
+ * Each name is padded with two marker characters on both ends, so a name of length
+ * {@code n} has {@code n + 2} trigrams and its first and last letters weigh as much as the
+ * middle ones. One edit changes at most three trigrams, so a name within edit distance
+ * {@code k} of the query shares all but {@code 3k} of the query's distinct trigrams; it must
+ * therefore appear in at least one of the query's {@code 3k + 1} rarest posting lists. Only
+ * those lists are read, which keeps common trigrams such as the first letters of a popular
+ * word from dominating the search. Names whose lengths differ from the query's by more than
+ * {@code k} are dropped while reading, and the rest are checked with a banded edit-distance
+ * computation. Queries too short for that bound read every one of their lists,
+ * and so only find names sharing at least one trigram.
+ * <p>
+ * Posting lists are {@link CardList}s: appends lock a single list, and searches take no lock.
+ */
+final class TrigramIndex {
+    /**
+     * Padding on both ends of a name, made of a character that cannot appear in a trimmed name.
+     */
+    private static final String PAD = "\u0000\u0000";
+
+    /**
+     * Cards whose padded name contains each trigram, keyed by {@link #trigram(String, int)}.
+     */
+    private final ConcurrentHashMap<Long, CardList> POSTINGS = new ConcurrentHashMap<>();
+
+    /**
+     * Pads a normalized name with {@link #PAD} on both sides.
+     *
+     * @param key the normalized name
+     * @return the padded name
+     */
+    private static String pad(String key) {
+        return PAD + key + PAD;
+    }
+
+    /**
+     * Packs the three characters at a position of a padded name into one number.
+     *
+     * @param padded the padded name
+     * @param i      the position of the first character
+     * @return the trigram
+     */
+    private static long trigram(String padded, int i) {
+        return (long) padded.charAt(i) << 32 | (long) padded.charAt(i + 1) << 16 | padded.charAt(i + 2);
+    }
+
+    /**
+     * Lists the distinct trigrams of a normalized name.
+     *
+     * @param key the normalized name
+     * @return the trigrams, without repeats
+     */
+    private static long[] trigrams(String key) {
+        String padded = pad(key);
+        long[] grams = new long[padded.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = trigram(padded, i);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    /**
+     * Adds a card under every trigram of its normalized name.
+     * The caller makes sure the card is not in the index already.
+     *
+     * @param card the card to add
+     */
+    void add(Card card) {
+        for (long gram : trigrams(card.getKey())) {
+            POSTINGS.computeIfAbsent(gram, g -> new CardList(2)).add(card);
+        }
+    }
+
+    /**
+     * Finds the cards whose normalized names are within an edit distance of a normalized name,
+     * closest first and in name order among equally close names. Each distance is computed once
+     * and the matches are grouped by it, so only the names within a group are compared.
+     *
+     * @param key         the normalized name to match
+     * @param maxDistance the most single-character insertions, deletions, and substitutions allowed
+     * @param limit       the most cards to return
+     * @return up to {@code limit} matching cards
+     */
+    ArrayList<Card> search(String key, int maxDistance, int limit) {
+        long[] grams = trigrams(key);
+        CardList[] lists = new CardList[grams.length];
+        int found = 0;
+        for (long gram : grams) {
+            CardList list = POSTINGS.get(gram);
+            if (list != null) {
+                lists[found++] = list;
+            }
+        }
+        Arrays.sort(lists, 0, found, Comparator.comparingInt(CardList::size));
+
+        int minShared = grams.length - 3 * maxDistance;
+        int read = minShared > 0 ? Math.min(found, grams.length - minShared + 1) : found;
+        int minLength = key.length() - maxDistance;
+        int maxLength = key.length() + maxDistance;
+        Predicate<Card> closeInLength = card -> card.getKey().length() >= minLength
+                && card.getKey().length() <= maxLength;
+        Set<Card> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < read; i++) {
+            lists[i].addTo(candidates, closeInLength);
+        }
+
+        ArrayList<ArrayList<Card>> byDistance = new ArrayList<>(maxDistance + 1);
+        for (int d = 0; d <= maxDistance; d++) {
+            byDistance.add(new ArrayList<>());
+        }
+        for (Card card : candidates) {
+            int d = distance(key, card.getKey(), maxDistance);
+            if (d <= maxDistance) {
+                byDistance.get(d).add(card);
+            }
+        }
+        ArrayList<Card> matches = new ArrayList<>(limit < candidates.size() ? limit : candidates.size());
+        for (ArrayList<Card> equallyClose : byDistance) {
+            if (matches.size() >= limit) {
+                break;
+            }
+            equallyClose.sort(Comparator.comparing(Card::getKey));
+            matches.addAll(equallyClose.subList(0, Math.min(limit - matches.size(), equallyClose.size())));
+        }
+        return matches;
+    }
+
+    /**
+     * Computes the Levenshtein distance between two strings, giving up once it must exceed a bound.
+     * Only the diagonal band of width {@code 2 * bound + 1} is filled in.
+     *
+     * @param a     the first string
+     * @param b     the second string
+     * @param bound the largest distance of interest
+     * @return the distance, or {@code bound + 1} if it exceeds the bound
+     */
+    private static int distance(String a, String b, int bound) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > bound) {
+            return bound + 1;
+        }
+        int over = bound + 1;
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j <= bound ? j : over;
+        }
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - bound);
+            int to = Math.min(m, i + bound);
+            current[0] = i <= bound ? i : over;
+            if (from > 1) {
+                current[from - 1] = over;
+            }
+            int rowMin = current[0];
+            char ca = a.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                int best = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+                current[j] = Math.min(best, over);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (to < m) {
+                current[to + 1] = over;
+            }
+            if (rowMin > bound) {
+                return over;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[m], over);
+    }
+}
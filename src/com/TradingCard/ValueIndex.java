@@ -0,0 +1,431 @@
+package com.TradingCard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Cards ordered by value, for range, top-K, bottom-K, and percentile queries.
+ * <p>
+ * The index is a skip list keyed on {@link Card#getValueCents()}, with ties broken by the
+ * normalized name, so no {@link java.math.BigDecimal} is touched while searching. Every
+ * link also records how many cards it skips, which lets a search count the cards it passes:
+ * finding a value, finding the card at a rank, and counting the cards below a value all take
+ * logarithmic time.
+ * <p>
+ * Card values never change and the collection never drops a card, so cards are only ever
+ * inserted. Sold-out cards stay in the index, and every link also records how many of the
+ * cards it skips are in stock. The listing queries find their first card once, then walk the
+ * bottom level, passing each run of sold-out cards by the longest link that covers only
+ * sold-out cards, so a run takes logarithmic time however long it is and a listing costs
+ * logarithmic time plus its output. The rank queries count every distinct card. A card tells the index through its
+ * {@link CardDefinition} when its count drops to zero or rises from it, and the index then
+ * brings that card's in-stock flag and the counts on the links above it up to date.
+ * Inserts and stock changes take the write lock and queries the read lock.
+ */
+final class ValueIndex {
+    /**
+     * Highest level a node can reach; with a quarter of the nodes reaching each next level,
+     * enough for billions of cards.
+     */
+    private static final int MAX_LEVEL = 16;
+
+    /**
+     * Sentinel before the first card, with a link at every level.
+     */
+    private final Node HEAD = new Node(null, MAX_LEVEL);
+
+    /**
+     * Guards every node, {@link #level}, {@link #size}, {@link #inStock},
+     * and {@link #PATH}.
+     */
+    private final ReentrantReadWriteLock LOCK = new ReentrantReadWriteLock();
+
+    /**
+     * Number of levels in use.
+     */
+    private int level = 1;
+
+    /**
+     * Number of cards in the index.
+     */
+    private int size;
+
+    /**
+     * Number of cards in the index with at least one copy, as last reported by the cards.
+     */
+    private int inStock;
+
+    /**
+     * Scratch list of the nodes preceding a card at each level, reused under the write lock.
+     */
+    private final Node[] PATH = new Node[MAX_LEVEL];
+
+    /**
+     * A card and its links.
+     */
+    private static final class Node {
+        /**
+         * The card, or null for {@link #HEAD}.
+         */
+        final Card CARD;
+
+        /**
+         * The next node at each level, or null at the end.
+         */
+        final Node[] NEXT;
+
+        /**
+         * Number of bottom-level steps each link in {@link #NEXT} covers;
+         * for a null link, the number of cards left after this node.
+         */
+        final int[] SPAN;
+
+        /**
+         * Number of in-stock cards among those each link in {@link #NEXT} covers, its target
+         * included; for a null link, the number of in-stock cards left after this node.
+         */
+        final int[] STOCK;
+
+        /**
+         * Whether {@link #CARD} is counted as in stock in the {@link #STOCK} counts.
+         */
+        boolean stocked;
+
+        /**
+         * @param card   the card
+         * @param levels the number of levels the node is linked into
+         */
+        Node(Card card, int levels) {
+            this.CARD = card;
+            this.NEXT = new Node[levels];
+            this.SPAN = new int[levels];
+            this.STOCK = new int[levels];
+        }
+    }
+
+    /**
+     * Orders two cards by value, then by normalized name.
+     *
+     * @param a the first card
+     * @param b the second card
+     * @return a negative number, zero, or a positive number as {@code a} sorts before, with, or after {@code b}
+     */
+    private static int compare(Card a, Card b) {
+        int byValue = Long.compare(a.getValueCents(), b.getValueCents());
+        return byValue != 0 ? byValue : a.getKey().compareTo(b.getKey());
+    }
+
+    /**
+     * Picks a level for a new node, each level up being a quarter as likely as the one below.
+     *
+     * @return a level between 1 and {@link #MAX_LEVEL}
+     */
+    private static int randomLevel() {
+        return Math.min(MAX_LEVEL, 1 + Integer.numberOfTrailingZeros(ThreadLocalRandom.current().nextInt()) / 2);
+    }
+
+    /**
+     * Inserts a card and registers the index with the card's definition, so that the card
+     * reports its stock changes. The caller makes sure the card is not in the index already.
+     *
+     * @param card the card to insert
+     */
+    void add(Card card) {
+        LOCK.writeLock().lock();
+        try {
+            Node[] update = new Node[MAX_LEVEL];
+            int[] rank = new int[MAX_LEVEL];
+            int[] stockRank = new int[MAX_LEVEL];
+            Node x = HEAD;
+            for (int i = level - 1; i >= 0; i--) {
+                rank[i] = i == level - 1 ? 0 : rank[i + 1];
+                stockRank[i] = i == level - 1 ? 0 : stockRank[i + 1];
+                while (x.NEXT[i] != null && compare(x.NEXT[i].CARD, card) < 0) {
+                    rank[i] += x.SPAN[i];
+                    stockRank[i] += x.STOCK[i];
+                    x = x.NEXT[i];
+                }
+                update[i] = x;
+            }
+
+            int levels = randomLevel();
+            for (int i = level; i < levels; i++) {
+                rank[i] = 0;
+                stockRank[i] = 0;
+                update[i] = HEAD;
+                HEAD.SPAN[i] = size;
+                HEAD.STOCK[i] = inStock;
+            }
+            level = Math.max(level, levels);
+
+            // register before reading the count: a count change from here on reports itself,
+            // and waits for this lock before doing so
+            card.getDefinition().setValueIndex(this);
+            Node node = new Node(card, levels);
+            node.stocked = card.getCount() > 0;
+            int stocked = node.stocked ? 1 : 0;
+            for (int i = 0; i < levels; i++) {
+                node.NEXT[i] = update[i].NEXT[i];
+                update[i].NEXT[i] = node;
+                node.SPAN[i] = update[i].SPAN[i] - (rank[0] - rank[i]);
+                update[i].SPAN[i] = rank[0] - rank[i] + 1;
+                node.STOCK[i] = update[i].STOCK[i] - (stockRank[0] - stockRank[i]);
+                update[i].STOCK[i] = stockRank[0] - stockRank[i] + stocked;
+            }
+            for (int i = levels; i < level; i++) {
+                update[i].SPAN[i]++;
+                update[i].STOCK[i] += stocked;
+            }
+            inStock += stocked;
+            size++;
+        } finally {
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Brings a card's in-stock flag up to date with its count, after the count dropped to
+     * zero or rose from it. Several reports may race; each one reads the current count, so the
+     * last one to run leaves the flag right. Cards not in the index, such as copies sharing an
+     * indexed card's definition, are ignored.
+     *
+     * @param card the card whose count changed
+     */
+    void stockChanged(Card card) {
+        LOCK.writeLock().lock();
+        try {
+            Node x = HEAD;
+            for (int i = level - 1; i >= 0; i--) {
+                while (x.NEXT[i] != null && compare(x.NEXT[i].CARD, card) < 0) {
+                    x = x.NEXT[i];
+                }
+                PATH[i] = x;
+            }
+            Node node = x.NEXT[0];
+            if (node == null || node.CARD != card || node.stocked == card.getCount() > 0) {
+                return;
+            }
+            node.stocked = !node.stocked;
+            int delta = node.stocked ? 1 : -1;
+            for (int i = 0; i < level; i++) {
+                PATH[i].STOCK[i] += delta;
+            }
+            inStock += delta;
+        } finally {
+            Arrays.fill(PATH, null);
+            LOCK.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the position just after a number of in-stock cards, passing whole runs of sold-out
+     * cards in one step. Callers hold the read or write lock.
+     *
+     * @param rank the number of in-stock cards to pass, from 0
+     * @return a node preceded by exactly {@code rank} in-stock cards, counting itself, or
+     *         {@link #HEAD} for 0
+     */
+    private Node inStockNode(int rank) {
+        int traversed = 0;
+        Node x = HEAD;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.NEXT[i] != null && traversed + x.STOCK[i] <= rank) {
+                traversed += x.STOCK[i];
+                x = x.NEXT[i];
+            }
+        }
+        return x;
+    }
+
+    /**
+     * Finds the first in-stock node after a node. A run of sold-out cards is passed by the
+     * highest link of the current node that covers only sold-out cards, so the walk climbs to
+     * longer links as the run goes on and a run of any length takes logarithmic time.
+     * Callers hold the read or write lock.
+     *
+     * @param x the node to start after, or {@link #HEAD}
+     * @return the next in-stock node, or null if there is none
+     */
+    private static Node nextInStock(Node x) {
+        while (x.NEXT[0] != null) {
+            if (x.STOCK[0] != 0) {
+                return x.NEXT[0];
+            }
+            int i = x.NEXT.length - 1;
+            while (x.NEXT[i] == null || x.STOCK[i] != 0) {
+                i--;
+            }
+            x = x.NEXT[i];
+        }
+        return null;
+    }
+
+    /**
+     * Finds the last node worth less than a value. Callers hold the read or write lock.
+     *
+     * @param cents the value, in cents
+     * @return the node, or {@link #HEAD} if no card is worth less
+     */
+    private Node lastBelow(long cents) {
+        Node x = HEAD;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.NEXT[i] != null && x.NEXT[i].CARD.getValueCents() < cents) {
+                x = x.NEXT[i];
+            }
+        }
+        return x;
+    }
+
+    /**
+     * Lists the in-stock cards worth between two values, from least to most valuable.
+     *
+     * @param minCents the lowest value to include, in cents
+     * @param maxCents the highest value to include, in cents
+     * @return the matching cards that have at least one copy
+     */
+    ArrayList<Card> range(long minCents, long maxCents) {
+        ArrayList<Card> matches = new ArrayList<>();
+        LOCK.readLock().lock();
+        try {
+            for (Node x = nextInStock(lastBelow(minCents)); x != null && x.CARD.getValueCents() <= maxCents;
+                    x = nextInStock(x)) {
+                collectInStock(x.CARD, matches);
+            }
+        } finally {
+            LOCK.readLock().unlock();
+        }
+        return matches;
+    }
+
+    /**
+     * Lists the most valuable in-stock cards, most valuable first.
+     * <p>
+     * The walk starts at the {@code k}-th most valuable in-stock card, found once, and runs
+     * forward to the end of the index; the cards it lists are then reversed. If cards sold out
+     * while their reports wait for the write lock, the walk is repeated further down for as
+     * many cards as it came short.
+     *
+     * @param k the number of cards to list
+     * @return up to {@code k} cards that have at least one copy
+     */
+    ArrayList<Card> top(int k) {
+        ArrayList<Card> matches = new ArrayList<>(Math.min(k, 1024));
+        LOCK.readLock().lock();
+        try {
+            int end = inStock;
+            while (matches.size() < k && end > 0) {
+                int from = Math.max(0, end - (k - matches.size()));
+                int start = matches.size();
+                Node x = inStockNode(from);
+                for (int rank = from; rank < end; rank++) {
+                    x = nextInStock(x);
+                    collectInStock(x.CARD, matches);
+                }
+                Collections.reverse(matches.subList(start, matches.size()));
+                end = from;
+            }
+        } finally {
+            LOCK.readLock().unlock();
+        }
+        return matches;
+    }
+
+    /**
+     * Lists the least valuable in-stock cards, least valuable first.
+     *
+     * @param k the number of cards to list
+     * @return up to {@code k} cards that have at least one copy
+     */
+    ArrayList<Card> bottom(int k) {
+        ArrayList<Card> matches = new ArrayList<>(Math.min(k, 1024));
+        LOCK.readLock().lock();
+        try {
+            for (Node x = nextInStock(HEAD); x != null && matches.size() < k; x = nextInStock(x)) {
+                collectInStock(x.CARD, matches);
+            }
+        } finally {
+            LOCK.readLock().unlock();
+        }
+        return matches;
+    }
+
+    /**
+     * Adds a card flagged as in stock to a result, unless it sold out since and its report
+     * is still waiting for the write lock.
+     *
+     * @param card    the card, or null
+     * @param matches the result
+     */
+    private static void collectInStock(Card card, ArrayList<Card> matches) {
+        if (card != null && card.getCount() > 0) {
+            matches.add(card);
+        }
+    }
+
+    /**
+     * Counts the cards worth less than a value.
+     *
+     * @param cents the value, in cents
+     * @return the number of distinct cards worth less, sold-out cards included
+     */
+    int countBelow(long cents) {
+        LOCK.readLock().lock();
+        try {
+            int rank = 0;
+            Node x = HEAD;
+            for (int i = level - 1; i >= 0; i--) {
+                while (x.NEXT[i] != null && x.NEXT[i].CARD.getValueCents() < cents) {
+                    rank += x.SPAN[i];
+                    x = x.NEXT[i];
+                }
+            }
+            return rank;
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the card at a rank in value order.
+     *
+     * @param rank the rank, from 1 for the least valuable card to {@link #size()} for the most
+     * @return the card at that rank, sold-out or not, or null if the rank is out of range
+     */
+    Card cardAt(int rank) {
+        LOCK.readLock().lock();
+        try {
+            if (rank < 1 || rank > size) {
+                return null;
+            }
+            int traversed = 0;
+            Node x = HEAD;
+            for (int i = level - 1; i >= 0; i--) {
+                while (x.NEXT[i] != null && traversed + x.SPAN[i] <= rank) {
+                    traversed += x.SPAN[i];
+                    x = x.NEXT[i];
+                }
+                if (traversed == rank) {
+                    return x.CARD;
+                }
+            }
+            return null;
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of distinct cards in the index, sold-out cards included
+     */
+    int size() {
+        LOCK.readLock().lock();
+        try {
+            return size;
+        } finally {
+            LOCK.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.TradingCard;
+
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.ToLongFunction;
+
+/**
+ * Fork/join task adding up a fixed-point value over the elements of a spliterator.
+ * <p>
+ * The task splits its spliterator in two while it estimates more than a threshold of elements
+ * left, forks the first half, and keeps the second half for itself, so a pool of {@code p}
+ * workers ends up with a few leaves per worker to steal from one another. Each leaf sums its
+ * elements in a plain loop. Sums are exact: any overflow throws instead of wrapping.
+ *
+ * @param <T> the type of the elements
+ */
+@SuppressWarnings("serial") // tasks are never serialized
+final class ValueSum<T> extends RecursiveTask<Long> {
+    /**
+     * Fewest elements worth handing to a separate task.
+     */
+    private static final long MIN_LEAF_SIZE = 1024;
+
+    /**
+     * Leaves to aim for per worker, so that a slow leaf does not hold up the whole sum.
+     */
+    private static final int LEAVES_PER_WORKER = 4;
+
+    /**
+     * The elements still to be summed by this task.
+     */
+    private final Spliterator<T> SPLIT;
+
+    /**
+     * The value of one element.
+     */
+    private final ToLongFunction<? super T> VALUE;
+
+    /**
+     * Estimated size at or below which the task stops splitting.
+     */
+    private final long THRESHOLD;
+
+    /**
+     * @param split     the elements to sum
+     * @param value     the value of one element
+     * @param threshold the estimated size at or below which to stop splitting
+     */
+    private ValueSum(Spliterator<T> split, ToLongFunction<? super T> value, long threshold) {
+        this.SPLIT = split;
+        this.VALUE = value;
+        this.THRESHOLD = threshold;
+    }
+
+    /**
+     * Sums a value over the elements of a spliterator in a fork/join pool.
+     *
+     * @param pool  the pool to run in
+     * @param split the elements to sum
+     * @param value the value of one element
+     * @param <T>   the type of the elements
+     * @return the exact sum
+     * @throws ArithmeticException if the sum overflows a long
+     */
+    static <T> long sum(ForkJoinPool pool, Spliterator<T> split, ToLongFunction<? super T> value) {
+        long leaves = (long) pool.getParallelism() * LEAVES_PER_WORKER;
+        long estimate = split.estimateSize();
+        long threshold = estimate == Long.MAX_VALUE ? MIN_LEAF_SIZE : Math.max(MIN_LEAF_SIZE, estimate / leaves);
+        return pool.invoke(new ValueSum<>(split, value, threshold));
+    }
+
+    /**
+     * Splits off and forks halves while more than {@link #THRESHOLD} elements remain,
+     * then sums the rest here and adds the forked halves.
+     *
+     * @return the sum of the values of this task's elements
+     */
+    @Override
+    protected Long compute() {
+        Spliterator<T> prefix;
+        if (SPLIT.estimateSize() > THRESHOLD && (prefix = SPLIT.trySplit()) != null) {
+            ValueSum<T> left = new ValueSum<>(prefix, VALUE, THRESHOLD);
+            left.fork();
+            long right = new ValueSum<>(SPLIT, VALUE, THRESHOLD).compute();
+            return Math.addExact(left.join(), right);
+        }
+        long[] total = new long[1];
+        SPLIT.forEachRemaining(element -> total[0] = Math.addExact(total[0], VALUE.applyAsLong(element)));
+        return total[0];
+    }
+}